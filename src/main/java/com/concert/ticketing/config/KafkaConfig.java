@@ -8,6 +8,7 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
@@ -27,6 +28,18 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${booking.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${booking.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${booking.outcome-topic.partitions:3}")
+    private int outcomePartitions;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     // 1. Producer Configuration
     @Bean
     public ProducerFactory<String, String> producerFactory() {
@@ -64,10 +77,62 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
 
-        factory.setConcurrency(3);
+        factory.setConcurrency(concurrency);
+        applyVirtualThreads(factory);
         return factory;
     }
 
+    // Hands a whole poll to the listener so booking-topic messages (keyed by
+    // categoryId) can be processed in one transaction per poll
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        // Only batch containers take large polls; single mode keeps the client default
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+
+        factory.setConcurrency(concurrency);
+        applyVirtualThreads(factory);
+        return factory;
+    }
+
+    // No group.id: the live analytics listener reads every partition by
+    // manual assignment from the latest offset, so nodes never leave consumer
+    // groups or committed offsets behind on the broker
+    @Bean
+    public ConsumerFactory<String, String> analyticsConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        return new DefaultKafkaConsumerFactory<>(config);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> analyticsKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(analyticsConsumerFactory());
+        factory.setBatchListener(true);
+
+        applyVirtualThreads(factory);
+        return factory;
+    }
+
+    // Spring Boot only switches its own auto-configured factory to virtual threads
+    private void applyVirtualThreads(ConcurrentKafkaListenerContainerFactory<String, String> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
     @Bean
     public NewTopic bookingTopic() {
         return TopicBuilder.name("booking-topic")
@@ -75,4 +140,15 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
-}
\ No newline at end of file
+
+    // Booking outcomes for analytics, keyed by categoryId like booking-topic.
+    // SalesVelocityService assigns itself partitions from the same property,
+    // so growing the topic here grows the listener with it
+    @Bean
+    public NewTopic bookingOutcomeTopic() {
+        return TopicBuilder.name("booking-outcome-topic")
+                .partitions(outcomePartitions)
+                .replicas(1)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.concert.ticketing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request rate limits per route. The first rule whose method and path match
+ * applies; requests matching no rule are not limited. Limits are cluster-wide
+ * requests per minute.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // How often nodes announce themselves to split the budgets between them
+    private long syncIntervalMs = 5000;
+
+    // Clients tracked in memory per node; the least recently seen are dropped
+    private int maxKeys = 100_000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+
+        // HTTP method, any when empty
+        private String method;
+
+        // Ant-style path pattern, e.g. /api/v1/concerts/*/pricing
+        private String path;
+
+        // Per client IP, 0 for no limit
+        private int perIp;
+
+        // Per authenticated user, by role; the highest limit of the user's roles applies
+        private Map<String, Integer> perRole = new HashMap<>();
+
+        // Requests that may arrive at once on top of the steady rate
+        private int burst = 1;
+    }
+}
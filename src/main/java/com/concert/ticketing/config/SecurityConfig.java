@@ -1,6 +1,9 @@
 package com.concert.ticketing.config;
 
 import com.concert.ticketing.filter.JwtAuthFilter;
+import com.concert.ticketing.filter.RateLimitFilter;
+import com.concert.ticketing.filter.UserRateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -26,9 +29,14 @@ import javax.crypto.spec.SecretKeySpec;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final UserRateLimitFilter userRateLimitFilter;
 
-    public SecurityConfig(JwtAuthFilter jwtFilter) {
+    public SecurityConfig(JwtAuthFilter jwtFilter, RateLimitFilter rateLimitFilter,
+            UserRateLimitFilter userRateLimitFilter) {
         this.jwtFilter = jwtFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.userRateLimitFilter = userRateLimitFilter;
     }
 
     @Bean
@@ -37,8 +45,12 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // async re-dispatch of long-poll/SSE responses, already authorized on the initial request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/concerts/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/concerts", "/api/v1/concerts/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/concerts", "/api/v1/concerts/**").hasRole("ADMIN")
@@ -50,7 +62,11 @@ public class SecurityConfig {
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtFilter,
-                        UsernamePasswordAuthenticationFilter.class);
+                        UsernamePasswordAuthenticationFilter.class)
+                // ahead of the JWT check, so rejected traffic is never verified or looked up
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
+                // per-user limits only once the token is verified
+                .addFilterAfter(userRateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,38 @@
+package com.concert.ticketing.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Extra wiring for spring.threads.virtual.enabled=true. Spring Boot already
+ * runs Tomcat requests and @Scheduled jobs on virtual threads in that mode;
+ * Kafka listener containers are switched in {@link KafkaConfig}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long timeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    log.info("Limiting DataSource '{}' to {} concurrent connections for virtual threads", beanName,
+                            maxConnections);
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
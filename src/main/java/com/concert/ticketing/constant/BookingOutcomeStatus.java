@@ -0,0 +1,8 @@
+package com.concert.ticketing.constant;
+
+public enum BookingOutcomeStatus {
+    BOOKED,
+    SOLD_OUT,
+    DUPLICATE,
+    REJECTED
+}
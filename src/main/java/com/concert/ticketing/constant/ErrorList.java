@@ -7,7 +7,14 @@ public enum ErrorList {
     FAILED_CONNECT_TO_BACKEND("40", "Failed connect to backend"),
     DATA_NOT_FOUND("44", "Data not found"),
     USER_NOT_FOUND("44", "User not found"),
-    INVALID_CREDENTIALS("41", "Invalid username or password");
+    INVALID_CREDENTIALS("41", "Invalid username or password"),
+    INVALID_CURSOR("40", "Invalid pagination cursor"),
+    INVALID_SEARCH_QUERY("40", "Search query must be at least 2 characters"),
+    INVALID_TIME_RANGE("40", "Time range is invalid or too wide"),
+    INVALID_BOOKING_REQUEST("40", "Booking request needs a category and a positive quantity"),
+    SOLD_OUT("49", "Tickets are sold out"),
+    IDEMPOTENCY_KEY_IN_USE("49", "Idempotency key is already used by another user"),
+    TOO_MANY_REQUESTS("42", "Too many requests, retry later");
 
     private final String code;
     private final String description;
@@ -1,19 +1,34 @@
 package com.concert.ticketing.controller;
 
+import com.concert.ticketing.dto.analytics.DashboardStats;
+import com.concert.ticketing.dto.analytics.EventVelocity;
+import com.concert.ticketing.dto.analytics.MinuteBookings;
 import com.concert.ticketing.dto.booking.BookingResponse;
 import com.concert.ticketing.services.analytics.AnalyticsService;
+import com.concert.ticketing.services.analytics.BookingRollupService;
+import com.concert.ticketing.services.analytics.SalesVelocityService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Map;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -23,15 +38,17 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class AnalyticsController {
     private final AnalyticsService analyticsService;
+    private final BookingRollupService rollupService;
+    private final SalesVelocityService velocityService;
 
-    @Operation(summary = "Get analytics dashboard (Admin only)", description = "Retrieve comprehensive analytics dashboard with sales statistics, revenue, and booking metrics")
+    @Operation(summary = "Get analytics dashboard (Admin only)", description = "Retrieve live booking counters and occupancy of every upcoming concert. Served from counters kept up to date on every booking, cancellation and expiry")
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookingResponse<Map<String, Object>>> getDashboard() {
+    public ResponseEntity<BookingResponse<DashboardStats>> getDashboard() {
         log.info("Received request for analytics dashboard");
-        Map<String, Object> stats = analyticsService.getDashboardStats();
+        DashboardStats stats = analyticsService.getDashboardStats();
 
-        BookingResponse<Map<String, Object>> response = new BookingResponse<>();
+        BookingResponse<DashboardStats> response = new BookingResponse<>();
         response.setStatus("Success");
         response.setCode("00");
         response.setMessage("Analytics dashboard data retrieved successfully");
@@ -39,4 +56,35 @@ public class AnalyticsController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Stream analytics dashboard (Admin only)", description = "Server-Sent Events stream that emits a 'dashboard' snapshot on connect, then 'update' events with the total bookings and the concerts whose counters changed")
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamDashboard() {
+        log.info("Received request to stream analytics dashboard");
+        return analyticsService.streamDashboard(Duration.ofMinutes(30));
+    }
+
+    @Operation(summary = "Get bookings per minute of a concert (Admin only)", description = "Historical bookings, tickets, cancellations and expiries per minute from the rollup table. Minutes appear up to one flush interval late")
+    @GetMapping("/concerts/{id}/bookings-per-minute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookingResponse<List<MinuteBookings>>> getBookingsPerMinute(
+            @Parameter(description = "Concert ID", required = true) @PathVariable UUID id,
+            @Parameter(description = "From (ISO 8601, inclusive)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @Parameter(description = "To (ISO 8601, exclusive), defaults to now") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to) {
+        log.info("Received request for bookings per minute of concert ID: {}", id);
+        Instant until = to != null ? to.toInstant() : Instant.now();
+        return ResponseEntity.ok(new BookingResponse<>("Success", "00", "Bookings per minute retrieved successfully",
+                rollupService.getBookingsPerMinute(id, from.toInstant(), until)));
+    }
+
+    @Operation(summary = "Get live sales velocity (Admin only)", description = "Tickets, bookings and sold-out rejections per minute over the recent and full sliding windows, remaining stock and estimated seconds to sell out, per upcoming concert and category. Computed in memory from the booking outcome stream")
+    @GetMapping("/live")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookingResponse<List<EventVelocity>>> getLive(
+            @Parameter(description = "Only this concert") @RequestParam(required = false) UUID eventId) {
+        log.info("Received request for live sales velocity");
+        return ResponseEntity.ok(new BookingResponse<>("Success", "00", "Live sales velocity retrieved successfully",
+                velocityService.getLive(eventId)));
+    }
 }
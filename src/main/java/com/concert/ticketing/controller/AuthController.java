@@ -53,6 +53,21 @@ public class AuthController {
         return authService.login(username, password);
     }
 
+    @Operation(summary = "User logout", description = "End the session of a JWT token on every node")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Logout successful", content = @Content(schema = @Schema(implementation = com.concert.ticketing.dto.auth.LoginResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Invalid token", content = @Content)
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<com.concert.ticketing.dto.auth.LoginResponse> logout(
+            @Parameter(description = "Bearer token to end", required = true, example = "Bearer eyJhbGciOiJIUzI1NiJ9...") @RequestHeader("Authorization") String authHeader) {
+        log.info("Received logout request");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return authService.logout(authHeader.substring("Bearer ".length()).trim());
+    }
+
     @Operation(summary = "Register new user", description = "Create a new user account with username, password, full name, email, and role (USER/ADMIN)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Registration successful", content = @Content(schema = @Schema(implementation = RegisterResponse.class))),
@@ -2,9 +2,12 @@ package com.concert.ticketing.controller;
 
 import com.concert.ticketing.dto.booking.BookingResponse;
 import com.concert.ticketing.dto.booking.BookingDetailDto;
+import com.concert.ticketing.dto.booking.BookingOutcome;
 import com.concert.ticketing.dto.booking.BookingRequest;
+import com.concert.ticketing.dto.booking.QueuePosition;
+import com.concert.ticketing.services.booking.AdmissionControlService;
+import com.concert.ticketing.services.booking.BookingOutcomeService;
 import com.concert.ticketing.services.booking.BookingService;
-import com.concert.ticketing.services.kafka.BookingKafkaService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,10 +15,14 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,27 +33,59 @@ import java.util.UUID;
 @Tag(name = "Bookings", description = "Ticket booking and management endpoints")
 @SecurityRequirement(name = "bearerAuth")
 public class BookingController {
-        private final BookingKafkaService kafkaService;
+        private final AdmissionControlService admissionService;
         private final BookingService bookingService;
+        private final BookingOutcomeService outcomeService;
 
-        @Operation(summary = "Create booking", description = "Create a new ticket booking. Request is processed asynchronously via Kafka. Requires idempotency key to prevent duplicate bookings.")
+        @Operation(summary = "Create booking", description = "Create a new ticket booking. Request is processed asynchronously via Kafka; await the result on /outcome or /outcome/stream with the same idempotency key. When the event is at capacity the request waits in a FIFO waiting room and its queue position and ETA are returned. Returns 409 if the category is already sold out or the idempotency key belongs to another user. Requires idempotency key to prevent duplicate bookings.")
         @PostMapping
         @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-        public ResponseEntity<BookingResponse<Void>> create(
+        public ResponseEntity<BookingResponse<QueuePosition>> create(
                         @Parameter(description = "Idempotency key to prevent duplicate bookings", required = true, example = "550e8400-e29b-41d4-a716-446655440000") @RequestHeader("X-Idempotency-Key") String idempotency,
                         @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Booking details", required = true) @RequestBody BookingRequest request)
                         throws JsonProcessingException {
                 log.info("Received request to create booking. Idempotency-Key: {}", idempotency);
-                kafkaService.sendToQueue(request, idempotency);
+                QueuePosition position = admissionService.admit(request, idempotency);
 
-                BookingResponse<Void> response = new BookingResponse<>();
+                BookingResponse<QueuePosition> response = new BookingResponse<>();
                 response.setStatus("Success");
                 response.setCode("00");
-                response.setMessage("Booking is being processed");
+                response.setMessage(position == null ? "Booking is being processed" : "Booking is queued");
+                response.setData(position);
 
                 return ResponseEntity.status(202).body(response);
         }
 
+        @Operation(summary = "Get queue position", description = "Position and estimated wait of a booking still in the waiting room of the given event. Returns 404 once it has been released to processing, or when the booking belongs to another user.")
+        @GetMapping("/queue")
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public ResponseEntity<BookingResponse<QueuePosition>> queuePosition(
+                        @Parameter(description = "Idempotency key used to create the booking", required = true) @RequestHeader("X-Idempotency-Key") String idempotency,
+                        @Parameter(description = "Event ID", required = true) @RequestParam UUID eventId) {
+                log.info("Received request for queue position. Idempotency-Key: {}", idempotency);
+                return ResponseEntity.ok(new BookingResponse<>("Success", "00", "Booking is queued",
+                                admissionService.position(eventId, idempotency)));
+        }
+
+        @Operation(summary = "Await booking outcome", description = "Long-poll for the outcome (BOOKED, SOLD_OUT, DUPLICATE, REJECTED) of a booking created with the given idempotency key. Returns 202 if the booking is still being processed when the timeout elapses, and 404 when it belongs to another user.")
+        @GetMapping("/outcome")
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public DeferredResult<ResponseEntity<BookingResponse<BookingOutcome>>> awaitOutcome(
+                        @Parameter(description = "Idempotency key used to create the booking", required = true) @RequestHeader("X-Idempotency-Key") String idempotency,
+                        @Parameter(description = "Maximum seconds to wait") @RequestParam(defaultValue = "30") long timeoutSeconds) {
+                log.info("Received request to await booking outcome. Idempotency-Key: {}", idempotency);
+                return outcomeService.awaitOutcome(idempotency, Duration.ofSeconds(Math.min(timeoutSeconds, 120)));
+        }
+
+        @Operation(summary = "Stream booking outcome", description = "Server-Sent Events stream that emits a single 'outcome' event once the booking created with the given idempotency key has been processed. Returns 404 when it belongs to another user.")
+        @GetMapping(value = "/outcome/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public SseEmitter streamOutcome(
+                        @Parameter(description = "Idempotency key used to create the booking", required = true) @RequestHeader("X-Idempotency-Key") String idempotency) {
+                log.info("Received request to stream booking outcome. Idempotency-Key: {}", idempotency);
+                return outcomeService.streamOutcome(idempotency, Duration.ofMinutes(5));
+        }
+
         @Operation(summary = "Get booking details", description = "Retrieve detailed information about a specific booking")
         @GetMapping("/{id}")
         @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
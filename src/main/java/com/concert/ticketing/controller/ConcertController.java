@@ -2,6 +2,7 @@ package com.concert.ticketing.controller;
 
 import com.concert.ticketing.dto.concert.ConcertRequest;
 import com.concert.ticketing.dto.concert.ConcertResponse;
+import com.concert.ticketing.dto.concert.ConcertSearchResponse;
 import com.concert.ticketing.services.concert.ConcertService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -38,9 +39,13 @@ public class ConcertController {
             @Parameter(description = "Filter by venue name") @RequestParam(required = false) String venue,
             @Parameter(description = "Filter by start date (ISO 8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime startDate,
             @Parameter(description = "Filter by end date (ISO 8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate,
-            @Parameter(description = "Filter by minimum capacity") @RequestParam(required = false) Integer minCapacity) {
+            @Parameter(description = "Filter by minimum capacity") @RequestParam(required = false) Integer minCapacity,
+            @Parameter(description = "Cursor from the previous page's nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int limit) {
         log.info("Received request to list concerts with filters. MinCapacity: {}", minCapacity);
-        ConcertResponse response = concertService.getAllConcerts(name, artist, venue, startDate, endDate, minCapacity);
+        int pageSize = Math.max(1, Math.min(limit, 100));
+        ConcertResponse response = concertService.getAllConcerts(name, artist, venue, startDate, endDate, minCapacity,
+                cursor, pageSize);
 
         response.setStatus("Success");
         response.setCode("00");
@@ -48,6 +53,15 @@ public class ConcertController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Search concerts", description = "Relevance-ranked search over concert name, artist and venue name, tolerant of typos")
+    @GetMapping("/search")
+    public ResponseEntity<ConcertSearchResponse> searchConcerts(
+            @Parameter(description = "Search text (at least 2 characters)", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of results (max 100)") @RequestParam(defaultValue = "20") int limit) {
+        log.info("Received request to search concerts: {}", q);
+        return ResponseEntity.ok(concertService.searchConcerts(q, Math.max(1, Math.min(limit, 100))));
+    }
+
     @Operation(summary = "Get concert details", description = "Retrieve detailed information about a specific concert by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ConcertResponse> getConcertById(
@@ -1,6 +1,9 @@
 package com.concert.ticketing.controller;
 
 import com.concert.ticketing.dto.booking.BookingResponse;
+import com.concert.ticketing.dto.settlement.SettlementReport;
+import com.concert.ticketing.dto.settlement.TransactionPage;
+import com.concert.ticketing.services.ledger.LedgerExportService;
 import com.concert.ticketing.services.ledger.SettlementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,11 +11,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Slf4j
@@ -23,16 +31,17 @@ import java.util.UUID;
 @SecurityRequirement(name = "bearerAuth")
 public class SettlementController {
     private final SettlementService settlementService;
+    private final LedgerExportService exportService;
 
-    @Operation(summary = "Get concert settlement report (Admin only)", description = "Retrieve detailed financial settlement report for a specific concert including revenue, refunds, and net settlement")
+    @Operation(summary = "Get concert settlement report (Admin only)", description = "Retrieve the financial settlement report for a specific concert including revenue, refunds, and net settlement. Individual transactions are listed by /concerts/{id}/settlement/transactions")
     @GetMapping("/concerts/{id}/settlement")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookingResponse<Map<String, Object>>> getSettlementReport(
+    public ResponseEntity<BookingResponse<SettlementReport>> getSettlementReport(
             @Parameter(description = "Concert ID", required = true) @PathVariable UUID id) {
         log.info("Received request for settlement report for concert ID: {}", id);
-        Map<String, Object> report = settlementService.getSettlementReport(id);
+        SettlementReport report = settlementService.getSettlementReport(id);
 
-        BookingResponse<Map<String, Object>> response = new BookingResponse<>();
+        BookingResponse<SettlementReport> response = new BookingResponse<>();
         response.setStatus("Success");
         response.setCode("00");
         response.setMessage("Settlement report retrieved successfully");
@@ -41,19 +50,44 @@ public class SettlementController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get all transactions (Admin only)", description = "Retrieve complete transaction history across all concerts and bookings")
-    @GetMapping("/transactions")
+    @Operation(summary = "List concert transactions (Admin only)", description = "Page through the ledger entries of a concert in recording order. Pass the nextCursor of a page to get the next one")
+    @GetMapping("/concerts/{id}/settlement/transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookingResponse<Object>> getAllTransactions() {
-        log.info("Received request to list all transactions");
-        Object transactions = settlementService.getAllTransactions();
+    public ResponseEntity<BookingResponse<TransactionPage>> getConcertTransactions(
+            @Parameter(description = "Concert ID", required = true) @PathVariable UUID id,
+            @Parameter(description = "Cursor from the previous page's nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 1000)") @RequestParam(defaultValue = "100") int limit) {
+        log.info("Received request to list transactions for concert ID: {}", id);
+        TransactionPage page = settlementService.getTransactions(id, cursor, Math.max(1, Math.min(limit, 1000)));
 
-        BookingResponse<Object> response = new BookingResponse<>();
-        response.setStatus("Success");
-        response.setCode("00");
-        response.setMessage("All transactions retrieved successfully");
-        response.setData(transactions);
+        return ResponseEntity.ok(new BookingResponse<>("Success", "00",
+                "Transactions retrieved successfully", page));
+    }
 
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Export transactions (Admin only)", description = "Stream the transaction history as JSON Lines (format=jsonl) or CSV (format=csv) in recording order, optionally filtered by concert and time range. Every row carries a cursor; pass the cursor of the last row received to resume an interrupted or chunked export")
+    @GetMapping("/transactions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Output format: jsonl or csv") @RequestParam(defaultValue = "jsonl") String format,
+            @Parameter(description = "Only transactions of this concert") @RequestParam(required = false) UUID concertId,
+            @Parameter(description = "Recorded at or after (ISO 8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @Parameter(description = "Recorded before (ISO 8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @Parameter(description = "Cursor of the last row already received") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of rows") @RequestParam(required = false) Long limit) {
+        log.info("Received request to export transactions. ConcertId: {}, Format: {}", concertId, format);
+        LedgerExportService.Format exportFormat = "csv".equalsIgnoreCase(format)
+                ? LedgerExportService.Format.CSV
+                : LedgerExportService.Format.JSONL;
+        LedgerExportService.ExportFilter filter = exportService.validate(
+                new LedgerExportService.ExportFilter(concertId, from, to, cursor, limit));
+
+        StreamingResponseBody body = out -> exportService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == LedgerExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions."
+                        + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
     }
 }
@@ -0,0 +1,15 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.util.UUID;
+
+public record CategoryVelocity(
+        UUID categoryId,
+        String categoryName,
+        double ticketsPerMinute,
+        double averageTicketsPerMinute,
+        double bookingsPerMinute,
+        double soldOutRejectionsPerMinute,
+        long remaining,
+        Long sellOutEtaSeconds
+) {
+}
@@ -0,0 +1,9 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.util.List;
+
+public record DashboardStats(
+        long totalBookings,
+        List<EventStats> concertAnalytics
+) {
+}
@@ -0,0 +1,22 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.util.UUID;
+
+/**
+ * Tickets held by live bookings, and bookings ever made, cancelled and expired
+ * for one event, used to seed its dashboard counters, and the Postgres
+ * snapshot they were counted in.
+ */
+public interface EventBookingCounts {
+    UUID getEventId();
+
+    Long getSold();
+
+    Long getBookings();
+
+    Long getCancelled();
+
+    Long getExpired();
+
+    String getSnapshot();
+}
@@ -0,0 +1,21 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.util.UUID;
+
+public record EventStats(
+        UUID eventId,
+        String concertName,
+        long totalAllocation,
+        long soldTickets,
+        long bookings,
+        long cancelled,
+        long expired,
+        double occupancyRate
+) {
+
+    public EventStats withCounters(long soldTickets, long bookings, long cancelled, long expired) {
+        double occupancy = totalAllocation > 0 ? Math.round(soldTickets * 10000.0 / totalAllocation) / 100.0 : 0;
+        return new EventStats(eventId, concertName, totalAllocation, soldTickets, bookings, cancelled, expired,
+                occupancy);
+    }
+}
@@ -0,0 +1,17 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.util.List;
+import java.util.UUID;
+
+public record EventVelocity(
+        UUID eventId,
+        String concertName,
+        double ticketsPerMinute,
+        double averageTicketsPerMinute,
+        double bookingsPerMinute,
+        double soldOutRejectionsPerMinute,
+        long remaining,
+        Long sellOutEtaSeconds,
+        List<CategoryVelocity> categories
+) {
+}
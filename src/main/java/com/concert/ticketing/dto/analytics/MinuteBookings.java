@@ -0,0 +1,12 @@
+package com.concert.ticketing.dto.analytics;
+
+import java.time.OffsetDateTime;
+
+public record MinuteBookings(
+        OffsetDateTime minute,
+        long bookings,
+        long tickets,
+        long cancelled,
+        long expired
+) {
+}
@@ -0,0 +1,15 @@
+package com.concert.ticketing.dto.booking;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+
+import java.util.UUID;
+
+public record BookingOutcome(
+        String idempotencyKey,
+        BookingOutcomeStatus status,
+        UUID bookingId,
+        UUID eventId,
+        UUID categoryId,
+        Integer quantity
+) {
+}
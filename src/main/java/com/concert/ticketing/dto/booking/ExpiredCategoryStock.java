@@ -0,0 +1,14 @@
+package com.concert.ticketing.dto.booking;
+
+import java.util.UUID;
+
+/**
+ * Tickets freed in one category by an expiry sweep chunk.
+ */
+public interface ExpiredCategoryStock {
+    UUID getCategoryId();
+
+    Integer getQuantity();
+
+    Integer getBookings();
+}
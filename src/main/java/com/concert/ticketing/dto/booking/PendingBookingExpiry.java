@@ -0,0 +1,10 @@
+package com.concert.ticketing.dto.booking;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface PendingBookingExpiry {
+    UUID getId();
+
+    Instant getExpiresAt();
+}
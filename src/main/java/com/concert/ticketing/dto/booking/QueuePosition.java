@@ -0,0 +1,7 @@
+package com.concert.ticketing.dto.booking;
+
+public record QueuePosition(
+        long position,
+        long etaSeconds
+) {
+}
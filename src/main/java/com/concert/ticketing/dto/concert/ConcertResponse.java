@@ -17,6 +17,8 @@ public class ConcertResponse {
     private String code;
     private String message;
     private List<ConcertData> data;
+    // keyset cursor for the next listing page, absent on the last page
+    private String nextCursor;
 
     @Getter
     @Setter
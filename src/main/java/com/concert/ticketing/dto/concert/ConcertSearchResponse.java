@@ -0,0 +1,15 @@
+package com.concert.ticketing.dto.concert;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConcertSearchResponse {
+    private String status;
+    private String code;
+    private String message;
+    private List<ConcertSearchResult> data;
+}
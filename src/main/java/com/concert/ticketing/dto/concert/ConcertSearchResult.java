@@ -0,0 +1,23 @@
+package com.concert.ticketing.dto.concert;
+
+import java.util.UUID;
+
+/**
+ * Lightweight search hit, projected straight from the search query without
+ * loading the event entity graph.
+ */
+public interface ConcertSearchResult {
+    UUID getId();
+
+    String getConcertName();
+
+    String getArtist();
+
+    String getVenueName();
+
+    String getDatetime();
+
+    String getStatus();
+
+    Double getScore();
+}
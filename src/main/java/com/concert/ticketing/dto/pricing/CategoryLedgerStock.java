@@ -0,0 +1,19 @@
+package com.concert.ticketing.dto.pricing;
+
+import java.util.UUID;
+
+/**
+ * Stock of one ticket category next to the quantity held by its live
+ * (not cancelled or refunded) bookings.
+ */
+public interface CategoryLedgerStock {
+    UUID getId();
+
+    UUID getEventId();
+
+    Integer getTotalAllocation();
+
+    Integer getAvailableStock();
+
+    Integer getBookedQuantity();
+}
@@ -0,0 +1,12 @@
+package com.concert.ticketing.dto.pricing;
+
+import java.util.UUID;
+
+/**
+ * Database stock of one ticket category.
+ */
+public interface CategoryStock {
+    UUID getId();
+
+    Integer getAvailableStock();
+}
@@ -0,0 +1,14 @@
+package com.concert.ticketing.dto.settlement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record LedgerTransaction(
+        UUID id,
+        UUID bookingId,
+        BigDecimal amount,
+        String type,
+        LocalDateTime recordedAt
+) {
+}
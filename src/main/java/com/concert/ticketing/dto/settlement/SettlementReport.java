@@ -0,0 +1,15 @@
+package com.concert.ticketing.dto.settlement;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record SettlementReport(
+        UUID concertId,
+        BigDecimal totalRevenue,
+        BigDecimal totalRefunds,
+        BigDecimal netRevenue,
+        long transactionCount,
+        long bookingCount,
+        long refundCount
+) {
+}
@@ -0,0 +1,18 @@
+package com.concert.ticketing.dto.settlement;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals of one concert from concert_settlements, summed over its slots.
+ */
+public interface SettlementTotals {
+    BigDecimal getTotalRevenue();
+
+    BigDecimal getTotalRefunds();
+
+    Long getDebitCount();
+
+    Long getCreditCount();
+
+    Long getTransactionCount();
+}
@@ -0,0 +1,12 @@
+package com.concert.ticketing.dto.settlement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionPage(
+        List<LedgerTransaction> transactions,
+        String nextCursor
+) {
+}
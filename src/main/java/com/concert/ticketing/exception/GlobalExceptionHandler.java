@@ -21,6 +21,10 @@ public class GlobalExceptionHandler {
             status = HttpStatus.BAD_REQUEST;
         } else if ("41".equals(ex.getCode())) {
             status = HttpStatus.UNAUTHORIZED;
+        } else if ("42".equals(ex.getCode())) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else if ("49".equals(ex.getCode())) {
+            status = HttpStatus.CONFLICT;
         }
 
         Map<String, Object> response = new LinkedHashMap<>();
@@ -0,0 +1,81 @@
+package com.concert.ticketing.filter;
+
+import com.concert.ticketing.config.RateLimitProperties;
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.services.ratelimit.GcraRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule matching, metrics and the 429 response shared by the per-IP and the
+ * per-user rate limit filters.
+ */
+abstract class AbstractRateLimitFilter extends OncePerRequestFilter {
+
+    protected final GcraRateLimiter rateLimiter;
+    protected final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    protected AbstractRateLimitFilter(GcraRateLimiter rateLimiter, RateLimitProperties properties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** The first rule matching the request, or null when none does or limits are off. */
+    protected RateLimitProperties.Rule matchRule(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String path = request.getServletPath();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if ((rule.getMethod() == null || rule.getMethod().isEmpty()
+                    || rule.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    protected void count(RateLimitProperties.Rule rule, String outcome) {
+        counters.computeIfAbsent(rule.getName() + ":" + outcome, key -> Counter.builder("ratelimit.requests")
+                .tag("rule", rule.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    protected void reject(HttpServletResponse response, long retryAfterNanos) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "Failed");
+        body.put("code", ErrorList.TOO_MANY_REQUESTS.getCode());
+        body.put("message", ErrorList.TOO_MANY_REQUESTS.getDescription());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After",
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -1,6 +1,6 @@
 package com.concert.ticketing.filter;
 
-import com.concert.ticketing.utils.JwtUtils;
+import com.concert.ticketing.services.auth.SessionCacheService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,20 +13,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 @Component
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtil;
-    private final org.springframework.data.redis.core.RedisTemplate<String, Object> redisTemplate;
+    private final SessionCacheService sessionCacheService;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
-    public JwtAuthFilter(JwtUtils jwtUtil,
-            org.springframework.data.redis.core.RedisTemplate<String, Object> redisTemplate) {
-        this.jwtUtil = jwtUtil;
-        this.redisTemplate = redisTemplate;
+    public JwtAuthFilter(SessionCacheService sessionCacheService) {
+        this.sessionCacheService = sessionCacheService;
     }
 
     @Override
@@ -51,41 +47,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        log.debug("Found Bearer token, validating...");
-        if (jwtUtil.isTokenValid(token)) {
-
-            String username = jwtUtil.getUsername(token);
-            log.debug("Token valid for user: {}", username);
-
-            String sessionKey = "session::" + username + "::" + token;
-            Object role = redisTemplate.opsForValue().get(sessionKey);
-
-            if (role == null) {
-                log.warn("Session not found in Redis for user: {}. Token might be expired or logged out.", username);
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            log.debug("Session found in Redis. Role raw value: {}", role);
-
-            // Bersihkan quotes jika ada (karena Jackson serializer)
-            String roleStr = role.toString().replace("\"", "");
-
-            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + roleStr));
-
+        SessionCacheService.AuthenticatedSession session = sessionCacheService.resolve(token);
+        if (session != null) {
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    username,
+                    session.username(),
                     null,
-                    authorities);
+                    session.authorities());
 
-            authentication.setDetails(
-                    new WebAuthenticationDetailsSource().buildDetails(request));
+            authentication.setDetails(detailsSource.buildDetails(request));
 
             SecurityContextHolder.getContext()
                     .setAuthentication(authentication);
-            log.info("Authentication set in SecurityContext for user: {}", username);
+            log.debug("Authentication set in SecurityContext for user: {}", session.username());
         } else {
-            log.warn("Invalid JWT token detected");
+            log.warn("Invalid JWT token or session detected");
         }
 
         filterChain.doFilter(request, response);
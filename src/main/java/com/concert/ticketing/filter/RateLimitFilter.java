@@ -0,0 +1,54 @@
+package com.concert.ticketing.filter;
+
+import com.concert.ticketing.config.RateLimitProperties;
+import com.concert.ticketing.services.ratelimit.GcraRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Rejects requests over the per-IP limit of the first matching
+ * {@code rate-limit.rules} entry with 429 before {@link JwtAuthFilter} runs,
+ * so abusive traffic is never verified or looked up. Per-user limits need a
+ * verified subject and are applied by {@link UserRateLimitFilter}.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends AbstractRateLimitFilter {
+
+    public RateLimitFilter(GcraRateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        super(rateLimiter, properties, objectMapper, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimitProperties.Rule rule = matchRule(request);
+        if (rule == null || rule.getPerIp() <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = rateLimiter.tryAcquire("ip:" + rule.getName() + ":" + request.getRemoteAddr(),
+                rule.getPerIp(), rule.getBurst());
+        if (retryAfter == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        count(rule, "rejected");
+        log.debug("Rate limit {} exceeded by {}", rule.getName(), request.getRemoteAddr());
+        reject(response, retryAfter);
+    }
+}
@@ -0,0 +1,81 @@
+package com.concert.ticketing.filter;
+
+import com.concert.ticketing.config.RateLimitProperties;
+import com.concert.ticketing.services.ratelimit.GcraRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Rejects requests over the per-user limit of the first matching
+ * {@code rate-limit.rules} entry with 429. Runs after {@link JwtAuthFilter},
+ * so the user and role come from a verified session and a forged token cannot
+ * spend another user's budget or claim a higher tier. Unauthenticated
+ * requests are only limited per IP, by {@link RateLimitFilter}.
+ */
+@Component
+@Slf4j
+public class UserRateLimitFilter extends AbstractRateLimitFilter {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    public UserRateLimitFilter(GcraRateLimiter rateLimiter, RateLimitProperties properties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(rateLimiter, properties, objectMapper, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimitProperties.Rule rule = matchRule(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int limit = authentication != null ? limitOf(rule, authentication) : 0;
+        long retryAfter = limit > 0
+                ? rateLimiter.tryAcquire("user:" + rule.getName() + ":" + authentication.getName(), limit,
+                        rule.getBurst())
+                : 0;
+
+        if (retryAfter == 0) {
+            count(rule, "allowed");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        count(rule, "rejected");
+        log.debug("Rate limit {} exceeded by user {}", rule.getName(), authentication.getName());
+        reject(response, retryAfter);
+    }
+
+    // Highest per-role limit among the user's roles, 0 when none is limited
+    private static int limitOf(RateLimitProperties.Rule rule, Authentication authentication) {
+        int limit = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority();
+            Integer roleLimit = role != null && role.startsWith(ROLE_PREFIX)
+                    ? rule.getPerRole().get(role.substring(ROLE_PREFIX.length()))
+                    : null;
+            if (roleLimit != null && roleLimit > limit) {
+                limit = roleLimit;
+            }
+        }
+        return limit;
+    }
+}
@@ -31,6 +31,6 @@ public class LedgerEntriesModel {
     @Column(name = "concert_id")
     private UUID concertId;
 
-    @Column(name = "recorded_at")
+    @Column(name = "recorded_at", nullable = false)
     private LocalDateTime recordedAt = LocalDateTime.now();
 }
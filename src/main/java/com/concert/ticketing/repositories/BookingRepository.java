@@ -1,18 +1,107 @@
 package com.concert.ticketing.repositories;
 
+import com.concert.ticketing.dto.analytics.EventBookingCounts;
+import com.concert.ticketing.dto.booking.ExpiredCategoryStock;
+import com.concert.ticketing.dto.booking.PendingBookingExpiry;
 import com.concert.ticketing.model.BookingsModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface BookingRepository extends JpaRepository<BookingsModel, UUID> {
     boolean existsByIdempotencyKey(String key);
 
+    @Query("SELECT b.idempotencyKey FROM BookingsModel b WHERE b.idempotencyKey IN :keys")
+    List<String> findExistingIdempotencyKeys(@Param("keys") Collection<String> keys);
+
     List<BookingsModel> findByUserId(UUID userId);
 
-    @Query("SELECT b FROM BookingsModel b WHERE b.status = 'PENDING' AND b.expiresAt < :now")
-    List<BookingsModel> findExpiredBookings(LocalDateTime now);
-}
\ No newline at end of file
+
+    /**
+     * Cancels up to {@code limit} expired PENDING bookings in one statement and
+     * returns the freed tickets per category. Rows locked by a concurrent sweep
+     * on another node are skipped, so nodes sweep disjoint chunks.
+     */
+    @Query(value = """
+    WITH expired AS (
+        SELECT id FROM bookings
+        WHERE status = 'PENDING' AND expires_at < now()
+        ORDER BY expires_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    ), cancelled AS (
+        UPDATE bookings b SET status = 'CANCELLED', expired = true
+        FROM expired
+        WHERE b.id = expired.id
+        RETURNING b.ticket_category_id, b.quantity
+    )
+    SELECT ticket_category_id AS categoryId,
+           CAST(SUM(quantity) AS integer) AS quantity,
+           CAST(COUNT(*) AS integer) AS bookings
+    FROM cancelled
+    GROUP BY ticket_category_id
+    ORDER BY ticket_category_id
+""", nativeQuery = true)
+    List<ExpiredCategoryStock> cancelExpiredBookings(@Param("limit") int limit);
+
+    /**
+     * Cancels the given bookings that are still PENDING as expired and returns
+     * the freed tickets per category.
+     */
+    @Query(value = """
+    WITH cancelled AS (
+        UPDATE bookings SET status = 'CANCELLED', expired = true
+        WHERE id IN (:ids) AND status = 'PENDING'
+        RETURNING ticket_category_id, quantity
+    )
+    SELECT ticket_category_id AS categoryId,
+           CAST(SUM(quantity) AS integer) AS quantity,
+           CAST(COUNT(*) AS integer) AS bookings
+    FROM cancelled
+    GROUP BY ticket_category_id
+    ORDER BY ticket_category_id
+""", nativeQuery = true)
+    List<ExpiredCategoryStock> cancelPendingBookings(@Param("ids") Collection<UUID> ids);
+
+    /** Keyset page of PENDING bookings in (expires_at, id) order. */
+    @Query(value = """
+    SELECT id AS id, expires_at AS expiresAt FROM bookings
+    WHERE status = 'PENDING' AND (expires_at, id) > (:afterExpiry, :afterId)
+    ORDER BY expires_at, id
+    LIMIT :limit
+""", nativeQuery = true)
+    List<PendingBookingExpiry> findPendingExpiriesAfter(@Param("afterExpiry") Instant afterExpiry,
+            @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    @Query(value = "SELECT EXTRACT(EPOCH FROM now() - MIN(expires_at)) FROM bookings "
+            + "WHERE status = 'PENDING' AND expires_at < now()", nativeQuery = true)
+    Double findOldestExpiredPendingAgeSeconds();
+
+    /** Id of the current transaction, assigning one if it has none yet. */
+    @Query(value = "SELECT CAST(pg_current_xact_id() AS text)", nativeQuery = true)
+    String currentTransactionId();
+
+    /**
+     * Tickets held by live bookings, and bookings made, cancelled and expired
+     * per event, through the booking category index (V7), with the snapshot
+     * they were counted in.
+     */
+    @Query(value = """
+    SELECT c.event_id AS eventId,
+           COALESCE(SUM(b.quantity) FILTER (WHERE b.status NOT IN ('CANCELLED', 'REFUNDED')), 0) AS sold,
+           COUNT(b.id) AS bookings,
+           COUNT(b.id) FILTER (WHERE b.status = 'CANCELLED' AND NOT b.expired) AS cancelled,
+           COUNT(b.id) FILTER (WHERE b.expired) AS expired,
+           CAST(pg_current_snapshot() AS text) AS snapshot
+    FROM ticket_categories c
+    JOIN bookings b ON b.ticket_category_id = c.id
+    WHERE c.event_id IN (:eventIds)
+    GROUP BY c.event_id
+""", nativeQuery = true)
+    List<EventBookingCounts> countBookingsByEvent(@Param("eventIds") Collection<UUID> eventIds);
+}
@@ -1,5 +1,6 @@
 package com.concert.ticketing.repositories;
 
+import com.concert.ticketing.dto.concert.ConcertSearchResult;
 import com.concert.ticketing.model.EventsModel;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,10 +28,43 @@ public interface EventRepository extends JpaRepository<EventsModel, UUID>, JpaSp
     @EntityGraph(attributePaths = { "categories", "venue" })
     List<EventsModel> findAll(Specification<EventsModel> spec);
 
-    @Query("""
-    SELECT DISTINCT e
-    FROM EventsModel e
-    LEFT JOIN FETCH e.categories
-""")
-    List<EventsModel> findAllWithCategories();
+    @Query("SELECT DISTINCT e FROM EventsModel e " +
+            "LEFT JOIN FETCH e.venue " +
+            "LEFT JOIN FETCH e.categories " +
+            "WHERE e.id IN :ids")
+    List<EventsModel> findAllWithDetailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Relevance-ranked search over event name, artist and venue name. Each arm
+     * of the union is served by a trigram GIN index (V5); :pattern is the
+     * escaped '%term%' for infix matches, :term also matches fuzzily.
+     */
+    @Query(value = """
+    WITH matches AS (
+        SELECT e.id FROM events e
+        WHERE lower(e.name) LIKE :pattern OR lower(e.name) % :term
+        UNION
+        SELECT e.id FROM events e
+        WHERE lower(e.artist) LIKE :pattern OR lower(e.artist) % :term
+        UNION
+        SELECT e.id FROM events e JOIN venues v ON v.id = e.venue_id
+        WHERE lower(v.name) LIKE :pattern OR lower(v.name) % :term
+    )
+    SELECT e.id AS id,
+           e.name AS concertName,
+           e.artist AS artist,
+           v.name AS venueName,
+           to_char(e.event_date AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS"Z"') AS datetime,
+           e.status AS status,
+           CAST(GREATEST(similarity(lower(e.name), :term),
+                         similarity(lower(e.artist), :term),
+                         similarity(lower(coalesce(v.name, '')), :term)) AS double precision) AS score
+    FROM matches m
+    JOIN events e ON e.id = m.id
+    LEFT JOIN venues v ON v.id = e.venue_id
+    ORDER BY score DESC, e.event_date, e.id
+    LIMIT :limit
+""", nativeQuery = true)
+    List<ConcertSearchResult> searchConcerts(@Param("term") String term, @Param("pattern") String pattern,
+            @Param("limit") int limit);
 }
@@ -1,11 +1,51 @@
 package com.concert.ticketing.repositories;
 
+import com.concert.ticketing.dto.settlement.LedgerTransaction;
+import com.concert.ticketing.dto.settlement.SettlementTotals;
 import com.concert.ticketing.model.LedgerEntriesModel;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface LedgerRepository extends JpaRepository<LedgerEntriesModel, UUID> {
-    List<LedgerEntriesModel> findByConcertId(UUID concertId);
+    /** Running totals maintained by the ledger insert trigger (V8); at most 16 rows per concert. */
+    @Query(value = """
+            SELECT COALESCE(SUM(total_revenue), 0) AS totalRevenue,
+                   COALESCE(SUM(total_refunds), 0) AS totalRefunds,
+                   CAST(COALESCE(SUM(debit_count), 0) AS bigint) AS debitCount,
+                   CAST(COALESCE(SUM(credit_count), 0) AS bigint) AS creditCount,
+                   CAST(COALESCE(SUM(transaction_count), 0) AS bigint) AS transactionCount
+            FROM concert_settlements
+            WHERE concert_id = :concertId
+            """, nativeQuery = true)
+    SettlementTotals findSettlementTotals(@Param("concertId") UUID concertId);
+
+    @Query("""
+            SELECT new com.concert.ticketing.dto.settlement.LedgerTransaction(l.id, l.bookingId, l.amount, l.type, l.recordedAt)
+            FROM LedgerEntriesModel l
+            WHERE l.concertId = :concertId
+            ORDER BY l.recordedAt, l.id
+            """)
+    List<LedgerTransaction> findFirstTransactions(@Param("concertId") UUID concertId, Limit limit);
+
+    /**
+     * Keyset page: (recordedAt, id) > (cursor.recordedAt, cursor.id), served by
+     * idx_ledger_concert_recorded. The plain lower bound on recordedAt lets the
+     * planner skip the monthly partitions before the cursor.
+     */
+    @Query("""
+            SELECT new com.concert.ticketing.dto.settlement.LedgerTransaction(l.id, l.bookingId, l.amount, l.type, l.recordedAt)
+            FROM LedgerEntriesModel l
+            WHERE l.concertId = :concertId
+              AND l.recordedAt >= :recordedAt
+              AND (l.recordedAt > :recordedAt OR (l.recordedAt = :recordedAt AND l.id > :id))
+            ORDER BY l.recordedAt, l.id
+            """)
+    List<LedgerTransaction> findTransactionsAfter(@Param("concertId") UUID concertId,
+            @Param("recordedAt") LocalDateTime recordedAt, @Param("id") UUID id, Limit limit);
 }
@@ -1,5 +1,7 @@
 package com.concert.ticketing.repositories;
 
+import com.concert.ticketing.dto.pricing.CategoryLedgerStock;
+import com.concert.ticketing.dto.pricing.CategoryStock;
 import com.concert.ticketing.model.TicketCategoryModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -7,13 +9,54 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TicketCategoryRepository extends JpaRepository<TicketCategoryModel, UUID> {
-    @Query("SELECT tc FROM TicketCategoryModel tc WHERE tc.event.id = :eventId")
+    @Query("SELECT tc FROM TicketCategoryModel tc JOIN FETCH tc.event WHERE tc.event.id = :eventId")
     List<TicketCategoryModel> findByEventId(@Param("eventId") UUID eventId);
 
+    @Query("SELECT c FROM TicketCategoryModel c JOIN FETCH c.event WHERE c.id = :id")
+    Optional<TicketCategoryModel> findWithEventById(@Param("id") UUID id);
+
+    @Query("SELECT c FROM TicketCategoryModel c JOIN FETCH c.event e WHERE e.eventDate > :now")
+    List<TicketCategoryModel> findAllOfUpcomingEvents(@Param("now") ZonedDateTime now);
+
+    @Query("SELECT c.id AS id, c.availableStock AS availableStock FROM TicketCategoryModel c WHERE c.id IN :ids")
+    List<CategoryStock> findAvailableStockByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /** Keyset page of categories in id order with the quantity of their live bookings. */
+    @Query(value = """
+            SELECT c.id AS id, c.event_id AS eventId, c.total_allocation AS totalAllocation,
+                   c.available_stock AS availableStock, CAST(COALESCE(b.booked, 0) AS integer) AS bookedQuantity
+            FROM (SELECT id, event_id, total_allocation, available_stock FROM ticket_categories
+                  WHERE id > :afterId ORDER BY id LIMIT :limit) c
+            LEFT JOIN LATERAL (
+                SELECT SUM(quantity) AS booked FROM bookings
+                WHERE ticket_category_id = c.id AND status NOT IN ('CANCELLED', 'REFUNDED')
+            ) b ON true
+            ORDER BY c.id
+            """, nativeQuery = true)
+    List<CategoryLedgerStock> findLedgerStockAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    /** Sets the stock only if it still holds the value the correction was computed from. */
+    @Modifying
+    @Transactional
+    @Query("""
+                UPDATE TicketCategoryModel c
+                SET c.availableStock = :corrected
+                WHERE c.id = :id
+                  AND c.availableStock = :observed
+            """)
+    int correctStock(@Param("id") UUID id, @Param("observed") Integer observed,
+            @Param("corrected") Integer corrected);
+
+    @Query(value = "SELECT available_stock FROM ticket_categories WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer findAvailableStockForUpdate(@Param("id") UUID id);
+
     @Modifying
     @Transactional
     @Query("""
@@ -1,45 +1,495 @@
 package com.concert.ticketing.services.analytics;
 
+import com.concert.ticketing.dto.analytics.DashboardStats;
+import com.concert.ticketing.dto.analytics.EventBookingCounts;
+import com.concert.ticketing.dto.analytics.EventStats;
 import com.concert.ticketing.model.TicketCategoryModel;
 import com.concert.ticketing.repositories.BookingRepository;
-import com.concert.ticketing.repositories.EventRepository;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Live admin dashboard. Bookings, cancellations and expiries are applied as
+ * increments once their transaction commits: a Lua script bumps the event's
+ * counter hash in Redis and publishes the new values, and every node copies
+ * them into memory and pushes the changed events to its SSE clients. A
+ * dashboard read only walks the upcoming events held in memory.
+ * <p>
+ * An event's hash is seeded from the booking ledger the first time a refresh
+ * sees the event. The seeding node first claims the hash, which from then on
+ * takes increments, and only then runs the count query. Increments that reach
+ * Redis before the claim are skipped, since the query counts their committed
+ * rows. Every increment carries the id of the Postgres transaction that made
+ * it, and the count query returns its snapshot, so an increment whose
+ * transaction the query already saw is not counted twice: those applied during
+ * the claim are subtracted when the counts are added, and late ones are
+ * skipped against the snapshot kept in the hash. A claim left behind by a node
+ * that died mid-seed expires after {@link #SEED_LEASE} and is taken over with
+ * fresh counters.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class AnalyticsService {
+public class AnalyticsService implements MessageListener {
+
+    public static final String DASHBOARD_CHANNEL = "dashboard-update";
+    private static final String EVENT_KEY_PREFIX = "dashboard::event::";
+    private static final String TOTAL_BOOKINGS_KEY = "dashboard::bookings";
+    // Increments applied while an event is being seeded, with their transaction ids
+    private static final String SEED_LOG_SUFFIX = "::seed-log";
+    // Counters, then the token of a seed in progress
+    private static final List<Object> FIELDS = List.of("sold", "bookings", "cancelled", "expired", "seeding");
+    private static final Duration SEED_LEASE = Duration.ofSeconds(30);
+
+    /**
+     * Whether transaction {@code xid} had committed in {@code snapshot}, a
+     * Postgres 'xmin:xmax:xip,...' snapshot. False when either is unknown.
+     */
+    private static final String VISIBLE_FUNCTION = """
+            local function visible(snapshot, xid)
+                if not snapshot or snapshot == '' or xid == '' then
+                    return false
+                end
+                local xmin, xmax, running = string.match(snapshot, '^(%d+):(%d+):(.*)$')
+                local id = tonumber(xid)
+                if id < tonumber(xmin) then
+                    return true
+                end
+                if id >= tonumber(xmax) then
+                    return false
+                end
+                for xip in string.gmatch(running, '%d+') do
+                    if tonumber(xip) == id then
+                        return false
+                    end
+                end
+                return true
+            end
+            """;
+
+    /**
+     * KEYS[1] event counters, KEYS[2] total bookings, KEYS[3] seed log. ARGV
+     * sold, bookings, cancelled and expired deltas, eventId, channel and the
+     * transaction id, or empty. Publishing from the script keeps the updates
+     * on the channel in the order they were applied.
+     */
+    private static final DefaultRedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(VISIBLE_FUNCTION + """
+            local update = { eventId = ARGV[5], totalBookings = -1 }
+            if redis.call('exists', KEYS[2]) == 1 then
+                update.totalBookings = redis.call('incrby', KEYS[2], ARGV[2])
+            end
+            -- A transaction the seed's count already saw is counted once
+            if redis.call('exists', KEYS[1]) == 1
+                    and not visible(redis.call('hget', KEYS[1], 'snapshot'), ARGV[7]) then
+                local sold = redis.call('hincrby', KEYS[1], 'sold', ARGV[1])
+                local bookings = redis.call('hincrby', KEYS[1], 'bookings', ARGV[2])
+                local cancelled = redis.call('hincrby', KEYS[1], 'cancelled', ARGV[3])
+                local expired = redis.call('hincrby', KEYS[1], 'expired', ARGV[4])
+                -- Counters being seeded only hold increments so far; the seed
+                -- drops those its count saw
+                if redis.call('hexists', KEYS[1], 'seeding') == 0 then
+                    update.sold, update.bookings, update.cancelled, update.expired = sold, bookings, cancelled, expired
+                else
+                    redis.call('rpush', KEYS[3], table.concat({ ARGV[7], ARGV[1], ARGV[2], ARGV[3], ARGV[4] }, ' '))
+                end
+            end
+            redis.call('publish', ARGV[6], cjson.encode(update))
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS event counters, then their seed logs. ARGV[1] seed token, ARGV[2]
+     * now and ARGV[3] lease in millis. Claims every hash that does not exist
+     * yet or whose claim expired, with zeroed counters and an empty log, and
+     * returns 1 or 0 per hash.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SEED_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[2])
+            local events = #KEYS / 2
+            local claimed = {}
+            for i = 1, events do
+                local key = KEYS[i]
+                local lease = redis.call('hget', key, 'seeding-until')
+                if redis.call('exists', key) == 0 or (lease and tonumber(lease) < now) then
+                    redis.call('hset', key, 'sold', 0, 'bookings', 0, 'cancelled', 0, 'expired', 0,
+                            'seeding', ARGV[1], 'seeding-until', now + tonumber(ARGV[3]))
+                    redis.call('hdel', key, 'snapshot')
+                    redis.call('del', KEYS[events + i])
+                    claimed[i] = 1
+                else
+                    claimed[i] = 0
+                end
+            end
+            return claimed
+            """, List.class);
+
+    /**
+     * KEYS[1] event counters, KEYS[2] seed log. ARGV[1] seed token, ARGV[2..5]
+     * sold, bookings, cancelled and expired counted by the ledger, ARGV[6] the
+     * snapshot they were counted in, or empty. When the claim is still held,
+     * adds the counts less the logged increments the snapshot already saw,
+     * keeps the snapshot for late increments and returns the counters and the
+     * claim.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> SEED_SCRIPT = new DefaultRedisScript<>(VISIBLE_FUNCTION + """
+            if redis.call('hget', KEYS[1], 'seeding') == ARGV[1] then
+                local counts = { tonumber(ARGV[2]), tonumber(ARGV[3]), tonumber(ARGV[4]), tonumber(ARGV[5]) }
+                for _, entry in ipairs(redis.call('lrange', KEYS[2], 0, -1)) do
+                    local xid, sold, bookings, cancelled, expired =
+                            string.match(entry, '^(%d*) (%S+) (%S+) (%S+) (%S+)$')
+                    if visible(ARGV[6], xid) then
+                        counts[1] = counts[1] - tonumber(sold)
+                        counts[2] = counts[2] - tonumber(bookings)
+                        counts[3] = counts[3] - tonumber(cancelled)
+                        counts[4] = counts[4] - tonumber(expired)
+                    end
+                end
+                redis.call('hincrby', KEYS[1], 'sold', counts[1])
+                redis.call('hincrby', KEYS[1], 'bookings', counts[2])
+                redis.call('hincrby', KEYS[1], 'cancelled', counts[3])
+                redis.call('hincrby', KEYS[1], 'expired', counts[4])
+                if ARGV[6] ~= '' then
+                    redis.call('hset', KEYS[1], 'snapshot', ARGV[6])
+                end
+                redis.call('hdel', KEYS[1], 'seeding', 'seeding-until')
+                redis.call('del', KEYS[2])
+            end
+            return redis.call('hmget', KEYS[1], 'sold', 'bookings', 'cancelled', 'expired', 'seeding')
+            """, List.class);
+
     private final BookingRepository bookingRepository;
-    private final EventRepository eventRepository;
+    private final TicketCategoryRepository categoryRepository;
+    private final BookingRollupService rollupService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
-    public Map<String, Object> getDashboardStats() {
-        long totalBookings = bookingRepository.count();
+    // Upcoming events by id, replaced as a whole on every refresh
+    private volatile Map<UUID, EventStats> events = new ConcurrentHashMap<>();
+    private volatile Map<UUID, UUID> eventOfCategory = Map.of();
+    private final AtomicLong totalBookings = new AtomicLong();
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedEvents = ConcurrentHashMap.newKeySet();
+    private long pushedTotalBookings = -1;
+
+    /** Counters of one event after an increment, as published by the apply script. */
+    public record CounterUpdate(UUID eventId, long totalBookings, Long sold, Long bookings, Long cancelled,
+            Long expired) {
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(DASHBOARD_CHANNEL));
+    }
 
-        List<Map<String, Object>> concertStats = eventRepository.findAllWithCategories().stream().map(event -> {
-            int totalAllocation = event.getCategories().stream()
-                    .mapToInt(TicketCategoryModel::getTotalAllocation).sum();
-            int currentStock = event.getCategories().stream()
-                    .mapToInt(TicketCategoryModel::getAvailableStock).sum();
+    public DashboardStats getDashboardStats() {
+        return new DashboardStats(totalBookings.get(), List.copyOf(events.values()));
+    }
+
+    /**
+     * Server-Sent Events stream: a 'dashboard' snapshot on connect, then an
+     * 'update' with the events that changed, at most once per push interval.
+     */
+    public SseEmitter streamDashboard(Duration timeout) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        try {
+            emitter.send(SseEmitter.event().name("dashboard").data(getDashboardStats()));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Applies the activity once its transaction commits, tagged with the id of
+     * that transaction so a seed can tell whether its count already saw it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookingActivity(BookingActivityEvent activity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(activity, "");
+            return;
+        }
+        String transactionId = bookingRepository.currentTransactionId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(activity, transactionId != null ? transactionId : "");
+            }
+        });
+    }
+
+    private void apply(BookingActivityEvent activity, String transactionId) {
+        UUID eventId = activity.eventId() != null ? activity.eventId() : eventOf(activity.categoryId());
+        if (eventId == null) {
+            log.warn("Dropping {} dashboard update of unknown category: {}", activity.type(), activity.categoryId());
+            return;
+        }
+        rollupService.record(activity, eventId, Instant.now());
+
+        boolean booked = activity.type() == BookingActivityEvent.Type.BOOKED;
+        String key = EVENT_KEY_PREFIX + eventId;
+        try {
+            redisTemplate.execute(APPLY_SCRIPT, List.of(key, TOTAL_BOOKINGS_KEY, key + SEED_LOG_SUFFIX),
+                    String.valueOf(booked ? activity.tickets() : -activity.tickets()),
+                    String.valueOf(booked ? activity.bookings() : 0),
+                    String.valueOf(activity.type() == BookingActivityEvent.Type.CANCELLED ? activity.bookings() : 0),
+                    String.valueOf(activity.type() == BookingActivityEvent.Type.EXPIRED ? activity.bookings() : 0),
+                    eventId.toString(), DASHBOARD_CHANNEL, transactionId);
+            meterRegistry.counter("analytics.dashboard.updates", "outcome", "applied").increment();
+        } catch (RuntimeException e) {
+            meterRegistry.counter("analytics.dashboard.updates", "outcome", "failed").increment();
+            log.warn("Failed to apply {} dashboard update for event: {}: {}", activity.type(), eventId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CounterUpdate update = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), CounterUpdate.class);
+            if (update.totalBookings() >= 0) {
+                totalBookings.set(update.totalBookings());
+            }
+            if (update.sold() != null && events.computeIfPresent(update.eventId(), (id, stats) -> stats
+                    .withCounters(update.sold(), update.bookings(), update.cancelled(), update.expired())) != null) {
+                changedEvents.add(update.eventId());
+            }
+        } catch (IOException e) {
+            log.error("Failed to read dashboard update message", e);
+        }
+    }
 
-            int sold = totalAllocation - currentStock;
-            double occupancy = totalAllocation > 0 ? (double) sold / totalAllocation * 100 : 0;
+    @Scheduled(fixedDelayString = "${analytics.dashboard.push-interval-ms:1000}")
+    public void pushChanges() {
+        long total = totalBookings.get();
+        if (changedEvents.isEmpty() && total == pushedTotalBookings) {
+            return;
+        }
+        pushedTotalBookings = total;
 
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("concertName", event.getName());
-            stats.put("soldTickets", sold);
-            stats.put("occupancyRate", String.format("%.2f%%", occupancy));
-            return stats;
-        }).collect(Collectors.toList());
+        List<EventStats> changed = new ArrayList<>();
+        for (UUID eventId : changedEvents) {
+            changedEvents.remove(eventId);
+            EventStats stats = events.get(eventId);
+            if (stats != null) {
+                changed.add(stats);
+            }
+        }
+        if (emitters.isEmpty()) {
+            return;
+        }
 
-        Map<String, Object> dashboard = new HashMap<>();
-        dashboard.put("totalBookings", totalBookings);
-        dashboard.put("concertAnalytics", concertStats);
+        DashboardStats update = new DashboardStats(total, changed);
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("update").data(update));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    /**
+     * Reloads the set of upcoming events with one query and their counters
+     * with one Redis pipeline, seeding events not counted yet. Ended events
+     * drop off the dashboard here.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${analytics.dashboard.refresh-interval-ms:60000}",
+            fixedDelayString = "${analytics.dashboard.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            Map<UUID, UUID> categories = new HashMap<>();
+            Map<UUID, EventStats> upcoming = new LinkedHashMap<>();
+            for (TicketCategoryModel category : categoryRepository.findAllOfUpcomingEvents(ZonedDateTime.now())) {
+                UUID eventId = category.getEvent().getId();
+                categories.put(category.getId(), eventId);
+                long allocation = category.getTotalAllocation() != null ? category.getTotalAllocation() : 0;
+                long stock = category.getAvailableStock() != null ? category.getAvailableStock() : 0;
+                upcoming.merge(eventId,
+                        new EventStats(eventId, category.getEvent().getName(), allocation, allocation - stock,
+                                0, 0, 0, 0),
+                        (a, b) -> new EventStats(eventId, a.concertName(), a.totalAllocation() + b.totalAllocation(),
+                                a.soldTickets() + b.soldTickets(), 0, 0, 0, 0));
+            }
+
+            Map<UUID, EventStats> refreshed = new ConcurrentHashMap<>();
+            Map<UUID, EventStats> previous = events;
+            try {
+                refreshed.putAll(readCounters(upcoming));
+                totalBookings.set(readTotalBookings());
+            } catch (DataAccessException e) {
+                log.warn("Failed to read dashboard counters from Redis, keeping local counters: {}", e.getMessage());
+                upcoming.forEach((eventId, stats) -> {
+                    EventStats known = previous.get(eventId);
+                    refreshed.put(eventId, known != null
+                            ? stats.withCounters(stats.soldTickets(), known.bookings(), known.cancelled(),
+                                    known.expired())
+                            : stats.withCounters(stats.soldTickets(), 0, 0, 0));
+                });
+            }
+            events = refreshed;
+            eventOfCategory = categories;
+            log.debug("Refreshed dashboard counters of {} upcoming events", refreshed.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to refresh dashboard events", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, EventStats> readCounters(Map<UUID, EventStats> upcoming) {
+        List<UUID> eventIds = new ArrayList<>(upcoming.keySet());
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (UUID eventId : eventIds) {
+                    ops.opsForHash().multiGet(EVENT_KEY_PREFIX + eventId, FIELDS);
+                }
+                return null;
+            }
+        });
+
+        Map<UUID, EventStats> counted = new HashMap<>();
+        List<UUID> unseeded = new ArrayList<>();
+        for (int i = 0; i < eventIds.size(); i++) {
+            List<Object> values = (List<Object>) results.get(i);
+            if (values == null || values.get(0) == null || seeding(values)) {
+                unseeded.add(eventIds.get(i));
+            } else {
+                counted.put(eventIds.get(i), withCounters(upcoming.get(eventIds.get(i)), values));
+            }
+        }
+        if (!unseeded.isEmpty()) {
+            counted.putAll(seed(unseeded, upcoming));
+        }
+        return counted;
+    }
+
+    /**
+     * Claims the hashes of {@code eventIds}, counts their bookings and adds the
+     * counts to the claimed ones. Events another node is seeding show the
+     * counted values until that node is done.
+     */
+    private Map<UUID, EventStats> seed(List<UUID> eventIds, Map<UUID, EventStats> upcoming) {
+        String token = UUID.randomUUID().toString();
+        List<String> keys = eventIds.stream().map(eventId -> EVENT_KEY_PREFIX + eventId).toList();
+        List<String> claimKeys = new ArrayList<>(keys);
+        keys.forEach(key -> claimKeys.add(key + SEED_LOG_SUFFIX));
+        List<?> claimed = redisTemplate.execute(CLAIM_SEED_SCRIPT, claimKeys, token,
+                String.valueOf(System.currentTimeMillis()), String.valueOf(SEED_LEASE.toMillis()));
+
+        // Runs after the claim, so bookings committed from here on are applied as increments;
+        // the snapshot tells the seed which of those the count includes as well
+        Map<UUID, EventBookingCounts> counts = new HashMap<>();
+        for (EventBookingCounts count : bookingRepository.countBookingsByEvent(eventIds)) {
+            counts.put(count.getEventId(), count);
+        }
+
+        Map<UUID, EventStats> seeded = new HashMap<>();
+        int seededCount = 0;
+        for (int i = 0; i < eventIds.size(); i++) {
+            UUID eventId = eventIds.get(i);
+            EventStats stats = upcoming.get(eventId);
+            EventBookingCounts count = counts.get(eventId);
+            long sold = count != null ? count.getSold() : 0;
+            long bookings = count != null ? count.getBookings() : 0;
+            long cancelled = count != null ? count.getCancelled() : 0;
+            long expired = count != null ? count.getExpired() : 0;
+            String snapshot = count != null && count.getSnapshot() != null ? count.getSnapshot() : "";
+
+            List<?> values = null;
+            if (claimed != null && Long.valueOf(1).equals(claimed.get(i))) {
+                values = redisTemplate.execute(SEED_SCRIPT, List.of(keys.get(i), keys.get(i) + SEED_LOG_SUFFIX),
+                        token, String.valueOf(sold), String.valueOf(bookings), String.valueOf(cancelled),
+                        String.valueOf(expired), snapshot);
+                seededCount++;
+            }
+            seeded.put(eventId, values == null || values.get(0) == null || seeding(values)
+                    ? stats.withCounters(sold, bookings, cancelled, expired)
+                    : withCounters(stats, values));
+        }
+        log.info("Seeded dashboard counters of {} events", seededCount);
+        return seeded;
+    }
+
+    // The full count runs once per Redis lifetime, not per dashboard read
+    private long readTotalBookings() {
+        String total = redisTemplate.opsForValue().get(TOTAL_BOOKINGS_KEY);
+        if (total == null) {
+            redisTemplate.opsForValue().setIfAbsent(TOTAL_BOOKINGS_KEY, String.valueOf(bookingRepository.count()));
+            total = redisTemplate.opsForValue().get(TOTAL_BOOKINGS_KEY);
+        }
+        return total != null ? Long.parseLong(total) : 0;
+    }
+
+    private UUID eventOf(UUID categoryId) {
+        UUID eventId = eventOfCategory.get(categoryId);
+        if (eventId != null) {
+            return eventId;
+        }
+        return categoryRepository.findWithEventById(categoryId)
+                .map(category -> category.getEvent().getId())
+                .orElse(null);
+    }
+
+    private static boolean seeding(List<?> values) {
+        return values.size() > 4 && values.get(4) != null;
+    }
+
+    private static EventStats withCounters(EventStats stats, List<?> values) {
+        return stats.withCounters(counter(values, 0), counter(values, 1), counter(values, 2), counter(values, 3));
+    }
 
-        return dashboard;
+    private static long counter(List<?> values, int index) {
+        Object value = values != null && values.size() > index ? values.get(index) : null;
+        return value != null ? Long.parseLong(value.toString()) : 0;
     }
 }
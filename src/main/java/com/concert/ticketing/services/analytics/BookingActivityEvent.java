@@ -0,0 +1,17 @@
+package com.concert.ticketing.services.analytics;
+
+import java.util.UUID;
+
+/**
+ * Published when bookings are created, cancelled or expired, carrying the
+ * booking and ticket counts of one category. Expiry sweeps only know the
+ * category, so {@code eventId} may be null.
+ */
+public record BookingActivityEvent(Type type, UUID eventId, UUID categoryId, int bookings, int tickets) {
+
+    public enum Type {
+        BOOKED,
+        CANCELLED,
+        EXPIRED
+    }
+}
@@ -0,0 +1,154 @@
+package com.concert.ticketing.services.analytics;
+
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.dto.analytics.MinuteBookings;
+import com.concert.ticketing.exception.ServiceException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bookings per event per minute. Activity is counted in memory and flushed
+ * to event_booking_minutes with additive upserts, so every node flushes its
+ * own counts without coordinating with the others, and a busy minute costs
+ * one row write per flush instead of one per booking.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingRollupService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO event_booking_minutes (event_id, minute, bookings, tickets, cancelled, expired, released)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (event_id, minute) DO UPDATE SET
+                bookings = event_booking_minutes.bookings + EXCLUDED.bookings,
+                tickets = event_booking_minutes.tickets + EXCLUDED.tickets,
+                cancelled = event_booking_minutes.cancelled + EXCLUDED.cancelled,
+                expired = event_booking_minutes.expired + EXCLUDED.expired,
+                released = event_booking_minutes.released + EXCLUDED.released
+            """;
+
+    private static final String SELECT_SQL = """
+            SELECT minute, bookings, tickets, cancelled, expired FROM event_booking_minutes
+            WHERE event_id = ? AND minute >= ? AND minute < ?
+            ORDER BY minute
+            """;
+
+    // Counter slots of a pending minute
+    private static final int BOOKINGS = 0, TICKETS = 1, CANCELLED = 2, EXPIRED = 3, RELEASED = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${analytics.rollup.max-range-hours:168}")
+    private long maxRangeHours;
+
+    record MinuteKey(UUID eventId, long epochMinute) {
+    }
+
+    private final Map<MinuteKey, long[]> pending = new ConcurrentHashMap<>();
+
+    public void record(BookingActivityEvent activity, UUID eventId, Instant at) {
+        MinuteKey key = new MinuteKey(eventId, at.getEpochSecond() / 60);
+        pending.compute(key, (k, counts) -> {
+            long[] updated = counts != null ? counts : new long[5];
+            switch (activity.type()) {
+                case BOOKED -> {
+                    updated[BOOKINGS] += activity.bookings();
+                    updated[TICKETS] += activity.tickets();
+                }
+                case CANCELLED -> {
+                    updated[CANCELLED] += activity.bookings();
+                    updated[RELEASED] += activity.tickets();
+                }
+                case EXPIRED -> {
+                    updated[EXPIRED] += activity.bookings();
+                    updated[RELEASED] += activity.tickets();
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Writes the minutes counted since the last flush. Counts that fail to
+     * write are merged back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<MinuteKey> keys = new ArrayList<>();
+        List<long[]> drained = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (MinuteKey key : pending.keySet()) {
+            long[] counts = pending.remove(key);
+            if (counts == null) {
+                continue;
+            }
+            keys.add(key);
+            drained.add(counts);
+            rows.add(new Object[] { key.eventId(), minuteStart(key.epochMinute()), counts[BOOKINGS], counts[TICKETS],
+                    counts[CANCELLED], counts[EXPIRED], counts[RELEASED] });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            log.debug("Flushed {} booking rollup minutes", rows.size());
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush {} booking rollup minutes, retrying on next flush: {}", rows.size(),
+                    e.getMessage());
+            for (int i = 0; i < keys.size(); i++) {
+                pending.merge(keys.get(i), drained.get(i), BookingRollupService::add);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /** Flushed minutes of one event in [from, to). */
+    public List<MinuteBookings> getBookingsPerMinute(UUID eventId, Instant from, Instant to) {
+        if (!from.isBefore(to) || Duration.between(from, to).toHours() > maxRangeHours) {
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.INVALID_TIME_RANGE);
+        }
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new MinuteBookings(
+                rs.getObject("minute", OffsetDateTime.class),
+                rs.getLong("bookings"),
+                rs.getLong("tickets"),
+                rs.getLong("cancelled"),
+                rs.getLong("expired")),
+                eventId, from.atOffset(ZoneOffset.UTC), to.atOffset(ZoneOffset.UTC));
+    }
+
+    private static OffsetDateTime minuteStart(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60).atOffset(ZoneOffset.UTC);
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+}
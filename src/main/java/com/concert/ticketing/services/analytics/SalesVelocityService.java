@@ -0,0 +1,210 @@
+package com.concert.ticketing.services.analytics;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.dto.analytics.CategoryVelocity;
+import com.concert.ticketing.dto.analytics.EventVelocity;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.concert.ticketing.services.kafka.BookingKafkaService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sales velocity and sell-out forecasts of upcoming events, built from the
+ * booking outcome stream. Every node is assigned every partition directly,
+ * without a consumer group, and reads from the latest offset, so each node
+ * holds the full picture in memory and leaves nothing behind on the broker
+ * when it stops. Tickets,
+ * bookings and sold-out rejections are counted per category in a fixed
+ * per-second ring buffer, and the live view is computed from those buffers
+ * without touching the database.
+ * <p>
+ * Remaining stock is reloaded from the inventory engine on every refresh and
+ * lowered by each booked outcome in between; releases by cancellation or
+ * expiry show up at the next refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesVelocityService {
+
+    private final TicketCategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${analytics.live.window-seconds:300}")
+    private int windowSeconds;
+
+    @Value("${analytics.live.short-window-seconds:60}")
+    private int shortWindowSeconds;
+
+    @Value("${analytics.live.max-categories:10000}")
+    private int maxCategories;
+
+    record CategoryTracker(UUID categoryId, String categoryName, UUID eventId, String concertName,
+            SlidingWindowCounter window, AtomicLong remaining) {
+    }
+
+    private final Map<UUID, CategoryTracker> trackers = new ConcurrentHashMap<>();
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = BookingKafkaService.OUTCOME_TOPIC,
+            partitions = "#{'0-' + (${booking.outcome-topic.partitions:3} - 1)}"),
+            containerFactory = "analyticsKafkaListenerContainerFactory",
+            autoStartup = "${analytics.live.enabled:true}")
+    public void consume(List<ConsumerRecord<String, String>> records) {
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                record(objectMapper.readValue(record.value(), BookingOutcome.class), record.timestamp());
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable booking outcome at offset {}: {}", record.offset(), e.getMessage());
+            }
+        }
+    }
+
+    void record(BookingOutcome outcome, long timestampMillis) {
+        boolean booked = outcome.status() == BookingOutcomeStatus.BOOKED;
+        if (!booked && outcome.status() != BookingOutcomeStatus.SOLD_OUT) {
+            return;
+        }
+        CategoryTracker tracker = trackers.get(outcome.categoryId());
+        int quantity = outcome.quantity() != null ? outcome.quantity() : 0;
+        if (tracker == null || !tracker.window().add(timestampMillis / 1000, booked ? quantity : 0, booked ? 1 : 0,
+                booked ? 0 : 1)) {
+            meterRegistry.counter("analytics.live.outcomes.dropped").increment();
+            return;
+        }
+        if (booked) {
+            tracker.remaining().updateAndGet(remaining -> Math.max(0, remaining - quantity));
+        }
+    }
+
+    /**
+     * Tracks the categories of upcoming events, up to
+     * {@code analytics.live.max-categories}, and resets their remaining
+     * stock. Categories of events that have started are dropped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${analytics.live.refresh-interval-ms:30000}",
+            fixedDelayString = "${analytics.live.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            List<TicketCategoryModel> categories = categoryRepository.findAllOfUpcomingEvents(ZonedDateTime.now());
+            Map<UUID, Integer> stock = inventoryService.getAvailableStock(categories);
+
+            Set<UUID> upcoming = new HashSet<>();
+            for (TicketCategoryModel category : categories) {
+                upcoming.add(category.getId());
+                CategoryTracker tracker = trackers.get(category.getId());
+                if (tracker == null) {
+                    if (trackers.size() >= maxCategories) {
+                        continue;
+                    }
+                    tracker = new CategoryTracker(category.getId(), category.getName(), category.getEvent().getId(),
+                            category.getEvent().getName(), new SlidingWindowCounter(windowSeconds), new AtomicLong());
+                    trackers.put(category.getId(), tracker);
+                }
+                tracker.remaining().set(stock.getOrDefault(category.getId(), 0));
+            }
+            trackers.keySet().retainAll(upcoming);
+            log.debug("Tracking sales velocity of {} categories", trackers.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to refresh sales velocity categories", e);
+        }
+    }
+
+    /** Live velocity of every tracked event, or of one event when {@code eventId} is given. */
+    public List<EventVelocity> getLive(UUID eventId) {
+        return getLive(eventId, System.currentTimeMillis() / 1000);
+    }
+
+    List<EventVelocity> getLive(UUID eventId, long now) {
+        Map<UUID, List<CategoryTracker>> byEvent = new LinkedHashMap<>();
+        for (CategoryTracker tracker : trackers.values()) {
+            if (eventId == null || eventId.equals(tracker.eventId())) {
+                byEvent.computeIfAbsent(tracker.eventId(), id -> new ArrayList<>()).add(tracker);
+            }
+        }
+
+        List<EventVelocity> events = new ArrayList<>(byEvent.size());
+        for (List<CategoryTracker> eventTrackers : byEvent.values()) {
+            long[] shortSums = new long[3];
+            long[] longSums = new long[3];
+            long remaining = 0;
+            List<CategoryVelocity> categories = new ArrayList<>(eventTrackers.size());
+            for (CategoryTracker tracker : eventTrackers) {
+                long[] recent = tracker.window().sum(now, shortWindowSeconds);
+                long[] average = tracker.window().sum(now, windowSeconds);
+                long left = tracker.remaining().get();
+                for (int field = 0; field < 3; field++) {
+                    shortSums[field] += recent[field];
+                    longSums[field] += average[field];
+                }
+                remaining += left;
+                categories.add(new CategoryVelocity(tracker.categoryId(), tracker.categoryName(),
+                        perMinute(recent[SlidingWindowCounter.TICKETS], shortWindowSeconds),
+                        perMinute(average[SlidingWindowCounter.TICKETS], windowSeconds),
+                        perMinute(recent[SlidingWindowCounter.BOOKINGS], shortWindowSeconds),
+                        perMinute(recent[SlidingWindowCounter.REJECTED], shortWindowSeconds),
+                        left, sellOutEta(left, recent, average)));
+            }
+            categories.sort(Comparator.comparing(CategoryVelocity::categoryName,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+
+            CategoryTracker first = eventTrackers.get(0);
+            events.add(new EventVelocity(first.eventId(), first.concertName(),
+                    perMinute(shortSums[SlidingWindowCounter.TICKETS], shortWindowSeconds),
+                    perMinute(longSums[SlidingWindowCounter.TICKETS], windowSeconds),
+                    perMinute(shortSums[SlidingWindowCounter.BOOKINGS], shortWindowSeconds),
+                    perMinute(shortSums[SlidingWindowCounter.REJECTED], shortWindowSeconds),
+                    remaining, sellOutEta(remaining, shortSums, longSums), categories));
+        }
+        events.sort(Comparator.comparing(EventVelocity::ticketsPerMinute).reversed());
+        return events;
+    }
+
+    /**
+     * Seconds until {@code remaining} tickets are gone at the recent pace,
+     * falling back to the full window when nothing sold recently. Null when
+     * nothing sold in the whole window.
+     */
+    private Long sellOutEta(long remaining, long[] recent, long[] average) {
+        if (remaining <= 0) {
+            return 0L;
+        }
+        double perSecond = recent[SlidingWindowCounter.TICKETS] > 0
+                ? (double) recent[SlidingWindowCounter.TICKETS] / shortWindowSeconds
+                : (double) average[SlidingWindowCounter.TICKETS] / windowSeconds;
+        return perSecond > 0 ? (long) Math.ceil(remaining / perSecond) : null;
+    }
+
+    private static double perMinute(long count, int seconds) {
+        return Math.round(count * 6000.0 / seconds) / 100.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.concert.ticketing.services.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer of per-second counts over the last {@code size} seconds, so its
+ * memory is fixed however long it runs. Each slot is stamped with the second
+ * it currently holds; a slot is zeroed and re-stamped when time wraps around
+ * to it.
+ * <p>
+ * Writes for one counter come from a single thread, the consumer owning the
+ * partition its category is keyed to. Reads from any thread are lock-free and
+ * only count slots whose stamp falls in the window asked for.
+ */
+final class SlidingWindowCounter {
+
+    static final int TICKETS = 0;
+    static final int BOOKINGS = 1;
+    static final int REJECTED = 2;
+    private static final int FIELDS = 3;
+
+    private final int size;
+    private final AtomicLongArray seconds;
+    private final AtomicLongArray counts;
+    private final AtomicLong newest = new AtomicLong();
+
+    SlidingWindowCounter(int size) {
+        this.size = size;
+        this.seconds = new AtomicLongArray(size);
+        this.counts = new AtomicLongArray(size * FIELDS);
+    }
+
+    /**
+     * Adds counts at {@code second}.
+     *
+     * @return false when the second is already older than the buffer holds
+     */
+    boolean add(long second, long tickets, long bookings, long rejected) {
+        if (second <= newest.get() - size) {
+            return false;
+        }
+        int slot = (int) Math.floorMod(second, (long) size);
+        long stamp = seconds.get(slot);
+        if (stamp > second) {
+            return false;
+        }
+        if (stamp < second) {
+            // Zeroed before the new stamp is visible, so readers never count stale slots as current
+            for (int field = 0; field < FIELDS; field++) {
+                counts.set(slot * FIELDS + field, 0);
+            }
+            seconds.set(slot, second);
+        }
+        counts.addAndGet(slot * FIELDS + TICKETS, tickets);
+        counts.addAndGet(slot * FIELDS + BOOKINGS, bookings);
+        counts.addAndGet(slot * FIELDS + REJECTED, rejected);
+        if (second > newest.get()) {
+            newest.set(second);
+        }
+        return true;
+    }
+
+    /** Counts of each field over the {@code window} seconds up to and including {@code now}. */
+    long[] sum(long now, int window) {
+        long[] sums = new long[FIELDS];
+        long oldest = now - Math.min(window, size);
+        for (int slot = 0; slot < size; slot++) {
+            long stamp = seconds.get(slot);
+            if (stamp > oldest && stamp <= now) {
+                for (int field = 0; field < FIELDS; field++) {
+                    sums[field] += counts.get(slot * FIELDS + field);
+                }
+            }
+        }
+        return sums;
+    }
+}
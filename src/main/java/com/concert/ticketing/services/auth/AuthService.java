@@ -30,6 +30,7 @@ public class AuthService {
     private final JwtUtils jwtUtils;
     private final AuthenticationManager authenticationManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final SessionCacheService sessionCacheService;
 
     private Gson gson = new Gson();
 
@@ -49,7 +50,7 @@ public class AuthService {
                 log.warn("Login failed: Invalid password for user '{}'", username);
                 throw new ServiceException(Origin.POSTGRE, ErrorList.INVALID_CREDENTIALS);
             }
-            TokenResponse token = jwtUtils.generateToken(username);
+            TokenResponse token = jwtUtils.generateToken(username, user.getRole());
 
             response.setStatus("Success");
             response.setCode("00");
@@ -58,10 +59,13 @@ public class AuthService {
             response.setExpiryDate(token.getExpiryDate());
 
             // Simpan session ke Redis: session::username::token -> role
-            String sessionKey = "session::" + username + "::" + token.getToken();
-            redisTemplate.opsForValue().set(sessionKey, user.getRole(), Duration.ofMinutes(15));
-            log.info("Session stored in Redis for user: {} with key suffix: ...{}", username,
-                    token.getToken().substring(token.getToken().length() - 8));
+            // (stateless mode membaca role dari token, tanpa session)
+            if (!sessionCacheService.isStateless()) {
+                String sessionKey = SessionCacheService.sessionKey(username, token.getToken());
+                redisTemplate.opsForValue().set(sessionKey, user.getRole(), Duration.ofMinutes(15));
+                log.info("Session stored in Redis for user: {} with key suffix: ...{}", username,
+                        token.getToken().substring(token.getToken().length() - 8));
+            }
 
             Long duration = System.currentTimeMillis() - startTime;
             log.info("Login successful for user: {}. Duration: {} ms", username, duration);
@@ -77,6 +81,19 @@ public class AuthService {
         }
     }
 
+    public ResponseEntity<LoginResponse> logout(String token) {
+        log.info("Starting logout process");
+        if (!sessionCacheService.logout(token)) {
+            throw new ServiceException(Origin.TOKEN, ErrorList.INVALID_CREDENTIALS);
+        }
+
+        LoginResponse response = new LoginResponse();
+        response.setStatus("Success");
+        response.setCode("00");
+        response.setMessage("Logged out");
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
     public ResponseEntity<RegisterResponse> register(String username, String password,
             String fullName, String email, String role) {
         try {
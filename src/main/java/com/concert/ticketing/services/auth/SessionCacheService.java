@@ -0,0 +1,199 @@
+package com.concert.ticketing.services.auth;
+
+import com.concert.ticketing.utils.JwtUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves a bearer token to its session. Verified sessions (subject, role)
+ * are kept in memory by token hash until the token expires or at most
+ * {@code auth.session-cache.ttl-seconds}, so a repeat request costs one hash
+ * lookup instead of a signature check and a Redis read. Logout removes the
+ * Redis session and evicts the entry on every node over pub/sub.
+ * <p>
+ * With {@code auth.session-mode=stateless} the role is taken from the signed
+ * token instead of the Redis session, and logout revokes the token id through
+ * {@link TokenRevocationService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionCacheService implements MessageListener {
+
+    public static final String SESSION_PREFIX = "session::";
+    public static final String INVALIDATION_CHANNEL = "session-invalidation";
+
+    private final JwtUtils jwtUtils;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final TokenRevocationService revocationService;
+
+    // Authorities are shared per role rather than allocated per request
+    private final Map<String, List<GrantedAuthority>> authoritiesByRole = new ConcurrentHashMap<>();
+
+    @Value("${auth.session-mode:redis}")
+    private String sessionMode;
+
+    @Value("${auth.session-cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${auth.session-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<String, AuthenticatedSession> sessions;
+
+    public record AuthenticatedSession(String username, List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        sessions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, AuthenticatedSession>() {
+                    @Override
+                    public long expireAfterCreate(String key, AuthenticatedSession session, long currentTime) {
+                        long untilExpiry = session.expiresAtMillis() - System.currentTimeMillis();
+                        return Duration.ofMillis(Math.max(0, Math.min(untilExpiry, ttlSeconds * 1000))).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, AuthenticatedSession session, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, session, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, AuthenticatedSession session, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "auth.sessions");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * @return the session of a valid, logged-in token, or null
+     */
+    public AuthenticatedSession resolve(String token) {
+        String tokenHash = hash(token);
+        AuthenticatedSession cached = sessions.getIfPresent(tokenHash);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
+        if (verified == null) {
+            return null;
+        }
+
+        String roleStr = isStateless() ? statelessRole(verified) : sessionRole(verified, token);
+        if (roleStr == null) {
+            return null;
+        }
+
+        AuthenticatedSession session = new AuthenticatedSession(verified.username(), authorities(roleStr),
+                verified.expiresAt().toEpochMilli());
+        sessions.put(tokenHash, session);
+        return session;
+    }
+
+    /**
+     * Ends the session of a token on every node.
+     *
+     * @return false when the token is not valid
+     */
+    public boolean logout(String token) {
+        JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
+        if (verified == null) {
+            return false;
+        }
+        String tokenHash = hash(token);
+        if (isStateless() && verified.tokenId() != null) {
+            revocationService.revoke(verified.tokenId(), verified.expiresAt());
+        }
+        redisTemplate.delete(sessionKey(verified.username(), token));
+        sessions.invalidate(tokenHash);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, tokenHash);
+        log.info("Session ended for user: {}", verified.username());
+        return true;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Published through the JSON value serializer, so the hash arrives quoted
+        String tokenHash = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "");
+        sessions.invalidate(tokenHash);
+    }
+
+    public boolean isStateless() {
+        return "stateless".equalsIgnoreCase(sessionMode);
+    }
+
+    private String statelessRole(JwtUtils.VerifiedToken verified) {
+        if (verified.role() == null || verified.tokenId() == null) {
+            log.warn("Token of user: {} carries no role claim", verified.username());
+            return null;
+        }
+        if (revocationService.isRevoked(verified.tokenId())) {
+            log.warn("Revoked token presented for user: {}", verified.username());
+            return null;
+        }
+        return verified.role();
+    }
+
+    private String sessionRole(JwtUtils.VerifiedToken verified, String token) {
+        Object role = redisTemplate.opsForValue().get(sessionKey(verified.username(), token));
+        if (role == null) {
+            log.warn("Session not found in Redis for user: {}. Token might be expired or logged out.",
+                    verified.username());
+            return null;
+        }
+        // Bersihkan quotes jika ada (karena Jackson serializer)
+        return role.toString().replace("\"", "");
+    }
+
+    public static String sessionKey(String username, String token) {
+        return SESSION_PREFIX + username + "::" + token;
+    }
+
+    private List<GrantedAuthority> authorities(String role) {
+        return authoritiesByRole.computeIfAbsent(role, r -> List.of(new SimpleGrantedAuthority("ROLE_" + r)));
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.concert.ticketing.services.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Revocation list for stateless tokens. Revoked token ids live in a Redis
+ * sorted set scored by token expiry, the exact source of truth. Each node
+ * mirrors it in a bloom filter rebuilt every
+ * {@code auth.revocation.sync-interval-ms} and updated over pub/sub, so a
+ * token that was never revoked is accepted without leaving the JVM.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService implements MessageListener {
+
+    public static final String REVOKED_KEY = "auth::revoked";
+    public static final String REVOCATION_CHANNEL = "token-revocation";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.session-mode:redis}")
+    private String sessionMode;
+
+    @Value("${auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${auth.revocation.min-capacity:10000}")
+    private int minCapacity;
+
+    private volatile RevocationBloomFilter filter;
+    // Filter being rebuilt by sync(); revocations are written to it as well
+    private volatile RevocationBloomFilter rebuilding;
+
+    @PostConstruct
+    void init() {
+        filter = new RevocationBloomFilter(minCapacity, falsePositiveRate);
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        redisTemplate.opsForZSet().add(REVOKED_KEY, tokenId, expiresAt.toEpochMilli());
+        remember(tokenId);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            meterRegistry.counter("auth.revocation.checks", "result", "filtered").increment();
+            return false;
+        }
+        boolean revoked = redisTemplate.opsForZSet().score(REVOKED_KEY, tokenId) != null;
+        meterRegistry.counter("auth.revocation.checks", "result", revoked ? "revoked" : "false_positive")
+                .increment();
+        return revoked;
+    }
+
+    /**
+     * Drops expired revocations and rebuilds the local filter from the set,
+     * sized to its current cardinality.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        if (!"stateless".equalsIgnoreCase(sessionMode)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+            Long size = redisTemplate.opsForZSet().zCard(REVOKED_KEY);
+
+            RevocationBloomFilter next = new RevocationBloomFilter(
+                    Math.max(minCapacity, size == null ? 0 : size.intValue() * 2), falsePositiveRate);
+            rebuilding = next;
+            Set<String> revoked = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now,
+                    Double.POSITIVE_INFINITY);
+            if (revoked != null) {
+                revoked.forEach(next::put);
+            }
+            filter = next;
+            rebuilding = null;
+            log.debug("Revocation filter rebuilt with {} token ids", revoked == null ? 0 : revoked.size());
+        } catch (Exception e) {
+            rebuilding = null;
+            log.error("Failed to sync token revocations", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        remember(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void remember(String tokenId) {
+        filter.put(tokenId);
+        RevocationBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(tokenId);
+        }
+    }
+}
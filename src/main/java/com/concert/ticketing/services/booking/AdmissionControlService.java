@@ -0,0 +1,302 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.dto.booking.BookingMessage;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.dto.booking.BookingRequest;
+import com.concert.ticketing.dto.booking.QueuePosition;
+import com.concert.ticketing.exception.ServiceException;
+import com.concert.ticketing.services.inventory.EventCategoryCatalog;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.concert.ticketing.services.kafka.BookingKafkaService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Virtual waiting room in front of the booking queue. Each event has a token
+ * bucket refilled at {@code booking.admission.rate-per-second}; a request that
+ * finds a token goes straight to Kafka, any other joins a FIFO queue in Redis
+ * and is drained in arrival order as tokens refill. Kafka therefore never
+ * receives more bookings per event than the inventory engine is sized for.
+ * <p>
+ * Requests for a category whose snapshot stock can no longer cover them are
+ * rejected with SOLD_OUT before they are queued or produced, and again when
+ * they leave the waiting room.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdmissionControlService {
+
+    private static final String BUCKET_PREFIX = "admission::bucket::";
+    private static final String QUEUE_PREFIX = "admission::queue::";
+    private static final String WAITING_PREFIX = "admission::waiting::";
+    private static final String SEQUENCE_PREFIX = "admission::sequence::";
+    // Events with a non-empty waiting room
+    public static final String ACTIVE_EVENTS_KEY = "admission::events";
+
+    /**
+     * {@code refill} tops a bucket up for the time elapsed since it was last
+     * touched; {@code save} stores it with a TTL of one full refill, after
+     * which a missing bucket reads as full anyway.
+     */
+    private static final String BUCKET_FUNCTIONS = """
+            local function refill(bucket, rate, burst, now)
+                local tokens = tonumber(redis.call('hget', bucket, 'tokens') or burst)
+                local ts = tonumber(redis.call('hget', bucket, 'ts') or now)
+                return math.min(burst, tokens + math.max(0, now - ts) * rate / 1000)
+            end
+            local function save(bucket, tokens, now, rate, burst)
+                redis.call('hset', bucket, 'tokens', tostring(tokens), 'ts', now)
+                redis.call('pexpire', bucket, math.ceil(burst / rate * 1000) + 1000)
+            end
+            """;
+
+    /**
+     * KEYS[1] bucket, KEYS[2] queue, KEYS[3] waiting payloads, KEYS[4] sequence,
+     * KEYS[5] active events. ARGV rate, burst, now (ms), idempotency key,
+     * payload, eventId. Returns 0 when admitted, otherwise the 1-based queue
+     * position. A request only takes a token while nobody is waiting, and a
+     * retried key keeps its place.
+     */
+    private static final DefaultRedisScript<Long> ADMIT_SCRIPT = new DefaultRedisScript<>(BUCKET_FUNCTIONS + """
+            local rank = redis.call('zrank', KEYS[2], ARGV[4])
+            if rank then return rank + 1 end
+            local rate, burst, now = tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])
+            local tokens = refill(KEYS[1], rate, burst, now)
+            if tokens >= 1 and redis.call('zcard', KEYS[2]) == 0 then
+                save(KEYS[1], tokens - 1, now, rate, burst)
+                return 0
+            end
+            save(KEYS[1], tokens, now, rate, burst)
+            redis.call('zadd', KEYS[2], redis.call('incr', KEYS[4]), ARGV[4])
+            redis.call('hset', KEYS[3], ARGV[4], ARGV[5])
+            redis.call('sadd', KEYS[5], ARGV[6])
+            return redis.call('zcard', KEYS[2])
+            """, Long.class);
+
+    /**
+     * Same keys without the sequence. ARGV rate, burst, now, eventId, max.
+     * Pops as many waiting requests as there are whole tokens and returns
+     * their payloads in arrival order.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>(BUCKET_FUNCTIONS + """
+            local rate, burst, now = tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])
+            local tokens = refill(KEYS[1], rate, burst, now)
+            local payloads = {}
+            local count = math.min(math.floor(tokens), tonumber(ARGV[5]))
+            if count > 0 then
+                local popped = redis.call('zpopmin', KEYS[2], count)
+                for i = 1, #popped, 2 do
+                    local payload = redis.call('hget', KEYS[3], popped[i])
+                    if payload then
+                        redis.call('hdel', KEYS[3], popped[i])
+                        payloads[#payloads + 1] = payload
+                    end
+                end
+                tokens = tokens - #popped / 2
+            end
+            save(KEYS[1], tokens, now, rate, burst)
+            if redis.call('zcard', KEYS[2]) == 0 then
+                redis.call('del', KEYS[3])
+                redis.call('srem', KEYS[5], ARGV[4])
+            end
+            return payloads
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BookingKafkaService kafkaService;
+    private final BookingOutcomeService outcomeService;
+    private final EventCategoryCatalog categoryCatalog;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.admission.rate-per-second:200}")
+    private double ratePerSecond;
+
+    @Value("${booking.admission.burst:400}")
+    private int burst;
+
+    @Value("${booking.admission.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    /**
+     * Produces the booking to Kafka when the event has capacity, otherwise
+     * parks it in the waiting room. Returns null when admitted, or the queue
+     * position. Throws SOLD_OUT when the category cannot cover the request.
+     * The event is taken from the category, never from the client, and the
+     * caller is recorded as the owner of the idempotency key.
+     */
+    public QueuePosition admit(BookingRequest submitted, String idempotencyKey) throws JsonProcessingException {
+        BookingRequest request = withEventOfCategory(submitted);
+        if (isSoldOut(request)) {
+            meterRegistry.counter("booking.admission", "outcome", "sold_out").increment();
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.SOLD_OUT);
+        }
+        outcomeService.claimOwnership(idempotencyKey);
+        if (!enabled) {
+            kafkaService.sendToQueue(request, idempotencyKey);
+            return null;
+        }
+
+        String eventId = request.eventId().toString();
+        long position;
+        try {
+            String payload = objectMapper.writeValueAsString(new BookingMessage(request, idempotencyKey));
+            Long result = redisTemplate.execute(ADMIT_SCRIPT,
+                    List.of(BUCKET_PREFIX + eventId, QUEUE_PREFIX + eventId, WAITING_PREFIX + eventId,
+                            SEQUENCE_PREFIX + eventId, ACTIVE_EVENTS_KEY),
+                    String.valueOf(ratePerSecond), String.valueOf(burst),
+                    String.valueOf(System.currentTimeMillis()), idempotencyKey, payload, eventId);
+            position = result != null ? result : 0;
+        } catch (DataAccessException e) {
+            // Without Redis there is no shared bucket; the consumer still bounds throughput
+            log.warn("Admission control unavailable, sending IdempotencyKey: {} straight to Kafka: {}",
+                    idempotencyKey, e.getMessage());
+            position = 0;
+        }
+
+        if (position == 0) {
+            meterRegistry.counter("booking.admission", "outcome", "admitted").increment();
+            kafkaService.sendToQueue(request, idempotencyKey);
+            return null;
+        }
+        meterRegistry.counter("booking.admission", "outcome", "queued").increment();
+        log.info("Booking IdempotencyKey: {} queued at position {} for EventId: {}", idempotencyKey, position,
+                eventId);
+        return toPosition(position);
+    }
+
+    private BookingRequest withEventOfCategory(BookingRequest request) {
+        if (request.categoryId() == null || request.quantity() == null || request.quantity() <= 0) {
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.INVALID_BOOKING_REQUEST);
+        }
+        UUID eventId = categoryCatalog.eventOf(request.categoryId());
+        if (eventId == null) {
+            log.warn("Rejecting booking for unknown category: {}", request.categoryId());
+            throw new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
+        }
+        return new BookingRequest(request.userId(), eventId, request.categoryId(), request.quantity());
+    }
+
+    /**
+     * Current place of a waiting request, or DATA_NOT_FOUND once it has left
+     * the waiting room or when the caller does not own it.
+     */
+    public QueuePosition position(UUID eventId, String idempotencyKey) {
+        outcomeService.checkOwnership(idempotencyKey);
+        Long rank = redisTemplate.opsForZSet().rank(QUEUE_PREFIX + eventId, idempotencyKey);
+        if (rank == null) {
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.DATA_NOT_FOUND);
+        }
+        return toPosition(rank + 1);
+    }
+
+    /**
+     * Releases waiting requests as each event's bucket refills. The drain is
+     * atomic per event, so with several nodes every request leaves once.
+     */
+    @Scheduled(fixedDelayString = "${booking.admission.drain-interval-ms:100}")
+    public void drain() {
+        Set<String> events;
+        try {
+            events = redisTemplate.opsForSet().members(ACTIVE_EVENTS_KEY);
+        } catch (DataAccessException e) {
+            log.warn("Skipping waiting room drain, Redis unavailable: {}", e.getMessage());
+            return;
+        }
+        if (events == null) {
+            return;
+        }
+        for (String eventId : events) {
+            try {
+                drainEvent(eventId);
+            } catch (DataAccessException e) {
+                log.warn("Failed to drain waiting room of EventId: {}: {}", eventId, e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainEvent(String eventId) {
+        List<String> payloads = redisTemplate.execute(DRAIN_SCRIPT,
+                List.of(BUCKET_PREFIX + eventId, QUEUE_PREFIX + eventId, WAITING_PREFIX + eventId,
+                        ACTIVE_EVENTS_KEY),
+                String.valueOf(ratePerSecond), String.valueOf(burst),
+                String.valueOf(System.currentTimeMillis()), eventId, String.valueOf(drainBatchSize));
+        if (payloads == null || payloads.isEmpty()) {
+            return;
+        }
+
+        // Payloads have already left Redis, so each one must end in Kafka or in an outcome
+        for (String payload : payloads) {
+            BookingMessage message;
+            try {
+                message = objectMapper.readValue(payload, BookingMessage.class);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to read waiting booking of EventId: {}", eventId, e);
+                continue;
+            }
+            BookingRequest request = message.request();
+            if (isSoldOut(request)) {
+                meterRegistry.counter("booking.admission", "outcome", "sold_out").increment();
+                outcomeService.publish(List.of(outcome(message, BookingOutcomeStatus.SOLD_OUT)));
+                continue;
+            }
+            try {
+                kafkaService.sendToQueue(request, message.idempotencyKey());
+                meterRegistry.counter("booking.admission", "outcome", "drained").increment();
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.error("Failed to release waiting booking IdempotencyKey: {}, rejecting it",
+                        message.idempotencyKey(), e);
+                meterRegistry.counter("booking.admission", "outcome", "rejected").increment();
+                outcomeService.publish(List.of(outcome(message, BookingOutcomeStatus.REJECTED)));
+            }
+        }
+        log.debug("Released {} waiting bookings of EventId: {}", payloads.size(), eventId);
+    }
+
+    private static BookingOutcome outcome(BookingMessage message, BookingOutcomeStatus status) {
+        BookingRequest request = message.request();
+        return new BookingOutcome(message.idempotencyKey(), status, null, request.eventId(), request.categoryId(),
+                request.quantity());
+    }
+
+    // Only a seeded snapshot counts: a missing field means the category has
+    // not been read yet, and the worker decides as before
+    private boolean isSoldOut(BookingRequest request) {
+        if (request.eventId() == null || request.categoryId() == null || request.quantity() == null) {
+            return false;
+        }
+        try {
+            Object stock = redisTemplate.opsForHash().get(InventoryService.REDIS_SNAPSHOT_PREFIX + request.eventId(),
+                    request.categoryId() + ":stock");
+            return stock != null && Integer.parseInt(stock.toString()) < request.quantity();
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private QueuePosition toPosition(long position) {
+        return new QueuePosition(position, (long) Math.ceil(position / ratePerSecond));
+    }
+}
@@ -0,0 +1,194 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.dto.booking.PendingBookingExpiry;
+import com.concert.ticketing.model.BookingsModel;
+import com.concert.ticketing.repositories.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Precise reservation expiry. Every PENDING booking is added to a Redis
+ * sorted set scored by its expiry time; a poller claims the bookings that
+ * are due and cancels them, so tickets return to stock within a poll interval
+ * of expiry instead of on the next sweep. Each tick only touches due members,
+ * however many holds are outstanding. The set is rebuilt from the database at
+ * startup; {@link ExpiredReservationSweeper} remains the safety net.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExpiryQueue {
+
+    public static final String EXPIRY_KEY = "booking::expiry";
+
+    /**
+     * Atomically takes up to ARGV[2] members due at ARGV[1], so a booking is
+     * claimed by exactly one node.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_DUE_SCRIPT = new DefaultRedisScript<>("""
+            local due = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+            if #due > 0 then redis.call('zrem', KEYS[1], unpack(due)) end
+            return due
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BookingRepository bookingRepository;
+    private final ExpiredReservationSweeper sweeper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.expiry.queue.batch-size:500}")
+    private int batchSize;
+
+    private Counter expired;
+
+    @PostConstruct
+    void registerMetrics() {
+        expired = Counter.builder("booking.expiry.queue.expired")
+                .description("Bookings cancelled by the expiry queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the expiry of new PENDING bookings once the caller's transaction
+     * commits.
+     */
+    public void schedule(Collection<BookingsModel> bookings) {
+        Map<String, Double> members = new HashMap<>();
+        for (BookingsModel booking : bookings) {
+            members.put(booking.getId().toString(), (double) epochMillis(booking.getExpiresAt()));
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> redisTemplate.opsForZSet().add(EXPIRY_KEY, toTuples(members)));
+    }
+
+    /** Drops a booking that left PENDING (confirmed, cancelled) from the queue after commit. */
+    public void unschedule(UUID bookingId) {
+        afterCommit(() -> redisTemplate.opsForZSet().remove(EXPIRY_KEY, bookingId.toString()));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.expiry.queue.poll-interval-ms:500}")
+    @SuppressWarnings("unchecked")
+    public void expireDueBookings() {
+        List<String> due;
+        do {
+            try {
+                due = redisTemplate.execute(CLAIM_DUE_SCRIPT, List.of(EXPIRY_KEY),
+                        String.valueOf(System.currentTimeMillis()), String.valueOf(batchSize));
+            } catch (DataAccessException e) {
+                log.warn("Skipping expiry poll, Redis unavailable: {}", e.getMessage());
+                return;
+            }
+            if (due == null || due.isEmpty()) {
+                return;
+            }
+            cancel(due);
+        } while (due.size() == batchSize);
+    }
+
+    /**
+     * Re-queues every PENDING booking from the database, walking the pending
+     * expiry index in pages.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            Instant afterExpiry = Instant.EPOCH;
+            UUID afterId = new UUID(0, 0);
+            int queued = 0;
+            List<PendingBookingExpiry> page;
+            do {
+                page = bookingRepository.findPendingExpiriesAfter(afterExpiry, afterId, batchSize);
+                Map<String, Double> members = new HashMap<>();
+                for (PendingBookingExpiry pending : page) {
+                    members.put(pending.getId().toString(), (double) pending.getExpiresAt().toEpochMilli());
+                }
+                if (!members.isEmpty()) {
+                    redisTemplate.opsForZSet().add(EXPIRY_KEY, toTuples(members));
+                    PendingBookingExpiry last = page.get(page.size() - 1);
+                    afterExpiry = last.getExpiresAt();
+                    afterId = last.getId();
+                    queued += members.size();
+                }
+            } while (page.size() == batchSize);
+            log.info("Rebuilt booking expiry queue with {} pending bookings", queued);
+        } catch (DataAccessException e) {
+            log.error("Failed to rebuild booking expiry queue, relying on the expiry sweep", e);
+        }
+    }
+
+    private void cancel(List<String> due) {
+        List<UUID> ids = due.stream().map(UUID::fromString).toList();
+        try {
+            Integer cancelled = transactionTemplate.execute(status ->
+                    sweeper.giveBack(bookingRepository.cancelPendingBookings(ids)));
+            expired.increment(cancelled != null ? cancelled : 0);
+            log.debug("Expiry queue cancelled {} of {} due bookings", cancelled, ids.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to cancel {} due bookings, re-queueing them", ids.size(), e);
+            long now = System.currentTimeMillis();
+            Map<String, Double> members = new HashMap<>();
+            due.forEach(id -> members.put(id, (double) now));
+            redisTemplate.opsForZSet().add(EXPIRY_KEY, toTuples(members));
+        }
+    }
+
+    private static Set<TypedTuple<String>> toTuples(Map<String, Double> members) {
+        Set<TypedTuple<String>> tuples = new HashSet<>();
+        members.forEach((member, score) -> tuples.add(TypedTuple.of(member, score)));
+        return tuples;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        Runnable safe = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to update booking expiry queue, relying on the expiry sweep", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safe.run();
+                }
+            });
+        } else {
+            safe.run();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.dto.booking.BookingResponse;
+import com.concert.ticketing.exception.ServiceException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Reply channel for asynchronous bookings. The Kafka worker publishes every
+ * outcome keyed by idempotency key; clients wait for it through a long-poll or
+ * an SSE stream. Waiting requests are parked as DeferredResult/SseEmitter, so
+ * they hold a map entry rather than a servlet thread.
+ * <p>
+ * The user who created a booking is recorded against its idempotency key, and
+ * only that user or an admin may read its outcome or queue position.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingOutcomeService implements MessageListener {
+
+    public static final String OUTCOME_CHANNEL = "booking-outcome";
+    private static final String OUTCOME_KEY_PREFIX = "booking::outcome::";
+    private static final String OWNER_KEY_PREFIX = "booking::outcome::owner::";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    // Waiters parked on this node, by idempotency key
+    private final Map<String, Set<Consumer<BookingOutcome>>> waiters = new ConcurrentHashMap<>();
+
+    @Value("${booking.outcome.ttl-minutes:10}")
+    private long outcomeTtlMinutes;
+
+    @Value("${booking.outcome.owner-ttl-minutes:60}")
+    private long ownerTtlMinutes;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(OUTCOME_CHANNEL));
+    }
+
+    /**
+     * Stores each outcome for late pollers and notifies waiters on every node.
+     * A duplicate never overwrites the outcome of the original request.
+     */
+    public void publish(List<BookingOutcome> outcomes) {
+        for (BookingOutcome outcome : outcomes) {
+            try {
+                String payload = objectMapper.writeValueAsString(outcome);
+                String key = OUTCOME_KEY_PREFIX + outcome.idempotencyKey();
+                Duration ttl = Duration.ofMinutes(outcomeTtlMinutes);
+
+                if (outcome.status() == BookingOutcomeStatus.DUPLICATE) {
+                    Boolean stored = redisTemplate.opsForValue().setIfAbsent(key, payload, ttl);
+                    if (!Boolean.TRUE.equals(stored)) {
+                        continue;
+                    }
+                } else {
+                    redisTemplate.opsForValue().set(key, payload, ttl);
+                }
+                redisTemplate.expire(OWNER_KEY_PREFIX + outcome.idempotencyKey(), ttl);
+                redisTemplate.convertAndSend(OUTCOME_CHANNEL, payload);
+            } catch (Exception e) {
+                log.error("Failed to publish booking outcome for IdempotencyKey: {}", outcome.idempotencyKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Records the caller as the owner of the booking created with this
+     * idempotency key. Throws IDEMPOTENCY_KEY_IN_USE when another user
+     * already owns it; a retry by the same user passes.
+     */
+    public void claimOwnership(String idempotencyKey) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        String key = OWNER_KEY_PREFIX + idempotencyKey;
+        boolean owned;
+        try {
+            owned = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, username,
+                    Duration.ofMinutes(ownerTtlMinutes)))
+                    || username.equals(redisTemplate.opsForValue().get(key));
+        } catch (DataAccessException e) {
+            // Without Redis nobody can read the outcome anyway; the booking itself still goes through
+            log.warn("Failed to record owner of IdempotencyKey: {}: {}", idempotencyKey, e.getMessage());
+            return;
+        }
+        if (!owned) {
+            log.warn("User {} tried to reuse IdempotencyKey: {} of another user", username, idempotencyKey);
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.IDEMPOTENCY_KEY_IN_USE);
+        }
+    }
+
+    /**
+     * Throws DATA_NOT_FOUND unless the caller created the booking with this
+     * idempotency key or is an admin, so other users cannot tell whether it
+     * exists. Throws FAILED_CONNECT_TO_BACKEND when the owner cannot be read.
+     */
+    public void checkOwnership(String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+        if (isAdmin) {
+            return;
+        }
+        String owner;
+        try {
+            owner = redisTemplate.opsForValue().get(OWNER_KEY_PREFIX + idempotencyKey);
+        } catch (DataAccessException e) {
+            log.error("Failed to read owner of IdempotencyKey: {}: {}", idempotencyKey, e.getMessage());
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.FAILED_CONNECT_TO_BACKEND);
+        }
+        if (!authentication.getName().equals(owner)) {
+            log.warn("User {} denied access to booking of IdempotencyKey: {}", authentication.getName(),
+                    idempotencyKey);
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.DATA_NOT_FOUND);
+        }
+    }
+
+    public DeferredResult<ResponseEntity<BookingResponse<BookingOutcome>>> awaitOutcome(String idempotencyKey,
+            Duration timeout) {
+        checkOwnership(idempotencyKey);
+        DeferredResult<ResponseEntity<BookingResponse<BookingOutcome>>> result = new DeferredResult<>(
+                timeout.toMillis(), this::processingResponse);
+
+        Consumer<BookingOutcome> waiter = outcome -> result.setResult(ResponseEntity.ok(
+                new BookingResponse<>("Success", "00", "Booking outcome: " + outcome.status(), outcome)));
+        register(idempotencyKey, waiter);
+        result.onCompletion(() -> unregister(idempotencyKey, waiter));
+
+        deliverStored(idempotencyKey, waiter);
+        return result;
+    }
+
+    public SseEmitter streamOutcome(String idempotencyKey, Duration timeout) {
+        checkOwnership(idempotencyKey);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<BookingOutcome> waiter = outcome -> {
+            if (!delivered.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("outcome").data(outcome));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        };
+        register(idempotencyKey, waiter);
+        emitter.onCompletion(() -> unregister(idempotencyKey, waiter));
+        emitter.onTimeout(() -> unregister(idempotencyKey, waiter));
+        emitter.onError(e -> unregister(idempotencyKey, waiter));
+
+        deliverStored(idempotencyKey, waiter);
+        return emitter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            BookingOutcome outcome = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), BookingOutcome.class);
+            Set<Consumer<BookingOutcome>> parked = waiters.remove(outcome.idempotencyKey());
+            if (parked != null) {
+                parked.forEach(waiter -> waiter.accept(outcome));
+            }
+        } catch (IOException e) {
+            log.error("Failed to read booking outcome message", e);
+        }
+    }
+
+    // Registered before the stored outcome is read, so an outcome published
+    // in between is delivered by onMessage instead of being missed
+    private void deliverStored(String idempotencyKey, Consumer<BookingOutcome> waiter) {
+        String stored = redisTemplate.opsForValue().get(OUTCOME_KEY_PREFIX + idempotencyKey);
+        if (stored == null) {
+            return;
+        }
+        try {
+            unregister(idempotencyKey, waiter);
+            waiter.accept(objectMapper.readValue(stored, BookingOutcome.class));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to read stored booking outcome for IdempotencyKey: {}", idempotencyKey, e);
+        }
+    }
+
+    private void register(String idempotencyKey, Consumer<BookingOutcome> waiter) {
+        waiters.compute(idempotencyKey, (key, parked) -> {
+            Set<Consumer<BookingOutcome>> set = parked != null ? parked : ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+    }
+
+    private void unregister(String idempotencyKey, Consumer<BookingOutcome> waiter) {
+        waiters.computeIfPresent(idempotencyKey, (key, parked) -> {
+            parked.remove(waiter);
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    private ResponseEntity<BookingResponse<BookingOutcome>> processingResponse() {
+        return ResponseEntity.status(202).body(new BookingResponse<>("Success", "00", "Booking is being processed", null));
+    }
+}
@@ -1,10 +1,12 @@
 package com.concert.ticketing.services.booking;
 
+import com.concert.ticketing.constant.BookingOutcomeStatus;
 import com.concert.ticketing.constant.BookingStatus;
 import com.concert.ticketing.constant.ErrorList;
 import com.concert.ticketing.constant.Origin;
 import com.concert.ticketing.dto.booking.BookingDetailDto;
 import com.concert.ticketing.dto.booking.BookingMessage;
+import com.concert.ticketing.dto.booking.BookingOutcome;
 import com.concert.ticketing.dto.booking.BookingResponse;
 import com.concert.ticketing.exception.ServiceException;
 import com.concert.ticketing.model.BookingsModel;
@@ -15,9 +17,11 @@ import com.concert.ticketing.repositories.BookingRepository;
 import com.concert.ticketing.repositories.LedgerRepository;
 import com.concert.ticketing.repositories.TicketCategoryRepository;
 import com.concert.ticketing.repositories.UserRepository;
+import com.concert.ticketing.services.analytics.BookingActivityEvent;
+import com.concert.ticketing.services.inventory.InventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,8 +30,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -37,6 +46,9 @@ public class BookingService {
     private final TicketCategoryRepository categoryRepository;
     private final LedgerRepository ledgerRepository;
     private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final BookingExpiryQueue expiryQueue;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public BookingResponse<BookingDetailDto> getById(UUID id) {
@@ -87,6 +99,7 @@ public class BookingService {
 
         booking.setStatus(BookingStatus.CONFIRMED.name());
         bookingRepository.save(booking);
+        expiryQueue.unschedule(id);
         log.info("Booking ID: {} is now CONFIRMED", id);
 
         return new BookingResponse<>("Success", "00", "Booking confirmed Successfully", null);
@@ -125,9 +138,11 @@ public class BookingService {
         }
 
         categoryRepository.increaseStock(booking.getCategoryId(), booking.getQuantity());
+        inventoryService.release(booking.getCategoryId(), booking.getQuantity());
 
         booking.setStatus(BookingStatus.CANCELLED.name());
         bookingRepository.save(booking);
+        expiryQueue.unschedule(id);
 
         LedgerEntriesModel refundLedger = new LedgerEntriesModel();
         refundLedger.setBookingId(booking.getId());
@@ -135,6 +150,8 @@ public class BookingService {
         refundLedger.setAmount(booking.getTotalAmount());
         refundLedger.setType("CREDIT");
         ledgerRepository.save(refundLedger);
+        eventPublisher.publishEvent(new BookingActivityEvent(BookingActivityEvent.Type.CANCELLED,
+                refundLedger.getConcertId(), booking.getCategoryId(), 1, booking.getQuantity()));
 
         log.info("Booking ID: {} has been cancelled and stock returned", id);
 
@@ -192,67 +209,151 @@ public class BookingService {
     }
 
     @Transactional
-    public void processInternalBooking(BookingMessage msg) {
+    public BookingOutcome processInternalBooking(BookingMessage msg) {
         log.info("Processing internal booking. IdempotencyKey: {}, UserId: {}, CategoryId: {}",
                 msg.idempotencyKey(), msg.request().userId(), msg.request().categoryId());
 
         if (bookingRepository.existsByIdempotencyKey(msg.idempotencyKey())) {
             log.warn("Duplicate booking detected. Skipping. IdempotencyKey: {}", msg.idempotencyKey());
-            return;
+            return outcome(msg, BookingOutcomeStatus.DUPLICATE, null, null);
         }
 
-        int updated = categoryRepository.decreaseStock(msg.request().categoryId(), msg.request().quantity());
+        boolean reserved = inventoryService.reserve(msg.request().categoryId(), msg.request().quantity(),
+                msg.idempotencyKey());
 
-        if (updated > 0) {
+        if (reserved) {
             log.debug("Stock reserved Successfully. categoryId: {}, quantity: {}", msg.request().categoryId(),
                     msg.request().quantity());
             TicketCategoryModel category = categoryRepository.getReferenceById(msg.request().categoryId());
 
-            BookingsModel booking = new BookingsModel();
-            booking.setUserId(msg.request().userId());
-            booking.setCategory(category);
-            booking.setQuantity(msg.request().quantity());
-            booking.setTotalAmount(category.getPrice().multiply(BigDecimal.valueOf(msg.request().quantity())));
-            booking.setStatus(BookingStatus.PENDING.name());
-            booking.setExpiresAt(LocalDateTime.now().plusMinutes(5));
-            booking.setIdempotencyKey(msg.idempotencyKey());
-
-            BookingsModel savedBooking = bookingRepository.save(booking);
+            BookingsModel savedBooking = bookingRepository.save(newPendingBooking(msg, category));
+            expiryQueue.schedule(List.of(savedBooking));
             log.info("Booking created Successfully. BookingId: {}, UserId: {}", savedBooking.getId(),
                     savedBooking.getUserId());
 
-            LedgerEntriesModel ledger = new LedgerEntriesModel();
-            ledger.setBookingId(savedBooking.getId());
-            ledger.setConcertId(category.getEvent().getId());
-            ledger.setAmount(savedBooking.getTotalAmount());
-            ledger.setType("DEBIT");
-
-            ledgerRepository.save(ledger);
+            ledgerRepository.save(newDebitLedger(savedBooking, category));
+            BookingOutcome booked = outcome(msg, BookingOutcomeStatus.BOOKED, savedBooking.getId(), category);
+            eventPublisher.publishEvent(new BookingActivityEvent(BookingActivityEvent.Type.BOOKED, booked.eventId(),
+                    booked.categoryId(), 1, booked.quantity()));
+            return booked;
         } else {
             log.warn("Failed to reserve stock. Insufficient quantity. categoryId: {}", msg.request().categoryId());
+            return outcome(msg, BookingOutcomeStatus.SOLD_OUT, null, null);
         }
     }
 
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Processes one Kafka poll in a single transaction: one idempotency lookup
+     * for the whole batch, one stock reservation per category and batched
+     * inserts of bookings and ledger entries. Messages of a category are
+     * granted in arrival order, exactly as if processed one at a time.
+     */
     @Transactional
-    public void cleanupExpiredReservations() {
-        log.info("Running scheduled cleanup for expired bookings...");
-        List<BookingsModel> expired = bookingRepository.findExpiredBookings(LocalDateTime.now());
+    public List<BookingOutcome> processInternalBookingBatch(List<BookingMessage> messages) {
+        log.info("Processing internal booking batch of {} messages", messages.size());
+        List<BookingOutcome> outcomes = new ArrayList<>(messages.size());
+
+        Map<String, BookingMessage> unique = new LinkedHashMap<>();
+        for (BookingMessage msg : messages) {
+            if (unique.putIfAbsent(msg.idempotencyKey(), msg) != null) {
+                log.warn("Duplicate booking detected in batch. Skipping. IdempotencyKey: {}", msg.idempotencyKey());
+            }
+        }
 
-        if (expired.isEmpty()) {
-            log.debug("No expired bookings found.");
-            return;
+        for (String existing : bookingRepository.findExistingIdempotencyKeys(unique.keySet())) {
+            log.warn("Duplicate booking detected. Skipping. IdempotencyKey: {}", existing);
+            outcomes.add(outcome(unique.remove(existing), BookingOutcomeStatus.DUPLICATE, null, null));
+        }
+
+        Map<UUID, List<BookingMessage>> byCategory = unique.values().stream()
+                .collect(Collectors.groupingBy(msg -> msg.request().categoryId(), LinkedHashMap::new,
+                        Collectors.toList()));
+
+        Map<UUID, TicketCategoryModel> categories = categoryRepository.findAllById(byCategory.keySet()).stream()
+                .collect(Collectors.toMap(TicketCategoryModel::getId, Function.identity()));
+
+        List<BookingsModel> bookings = new ArrayList<>();
+        List<BookingMessage> bookedMessages = new ArrayList<>();
+        for (Map.Entry<UUID, List<BookingMessage>> entry : byCategory.entrySet()) {
+            TicketCategoryModel category = categories.get(entry.getKey());
+            if (category == null) {
+                log.warn("Ticket category not found. Rejecting {} bookings. categoryId: {}", entry.getValue().size(),
+                        entry.getKey());
+                entry.getValue().forEach(msg -> outcomes.add(outcome(msg, BookingOutcomeStatus.REJECTED, null, null)));
+                continue;
+            }
+
+            List<BookingMessage> requests = entry.getValue();
+            boolean[] granted = inventoryService.reserveBatch(entry.getKey(),
+                    requests.stream().map(msg -> msg.request().quantity()).toList(),
+                    requests.get(0).idempotencyKey());
+
+            int grantedBookings = 0;
+            int grantedTickets = 0;
+            for (int i = 0; i < granted.length; i++) {
+                if (granted[i]) {
+                    bookings.add(newPendingBooking(requests.get(i), category));
+                    bookedMessages.add(requests.get(i));
+                    grantedBookings++;
+                    grantedTickets += requests.get(i).request().quantity();
+                } else {
+                    log.warn("Failed to reserve stock. Insufficient quantity. categoryId: {}, IdempotencyKey: {}",
+                            entry.getKey(), requests.get(i).idempotencyKey());
+                    outcomes.add(outcome(requests.get(i), BookingOutcomeStatus.SOLD_OUT, null, category));
+                }
+            }
+            if (grantedBookings > 0) {
+                eventPublisher.publishEvent(new BookingActivityEvent(BookingActivityEvent.Type.BOOKED,
+                        category.getEvent().getId(), category.getId(), grantedBookings, grantedTickets));
+            }
         }
 
-        log.info("Found {} expired bookings. Processing cancellations...", expired.size());
-        for (BookingsModel b : expired) {
-            log.info("Cancelling expired booking. BookingId: {}, CategoryId: {}, Quantity: {}", b.getId(),
-                    b.getCategoryId(), b.getQuantity());
-            b.setStatus(BookingStatus.CANCELLED.name());
-            categoryRepository.increaseStock(b.getCategoryId(), b.getQuantity());
-            bookingRepository.save(b);
+        if (bookings.isEmpty()) {
+            return outcomes;
         }
-        log.info("Expired booking cleanup completed.");
+
+        List<BookingsModel> savedBookings = bookingRepository.saveAll(bookings);
+        expiryQueue.schedule(savedBookings);
+        ledgerRepository.saveAll(savedBookings.stream()
+                .map(booking -> newDebitLedger(booking, booking.getCategory()))
+                .toList());
+        for (int i = 0; i < savedBookings.size(); i++) {
+            BookingsModel booking = savedBookings.get(i);
+            outcomes.add(outcome(bookedMessages.get(i), BookingOutcomeStatus.BOOKED, booking.getId(),
+                    booking.getCategory()));
+        }
+        log.info("Batch created {} bookings out of {} messages", savedBookings.size(), messages.size());
+        return outcomes;
+    }
+
+    private BookingOutcome outcome(BookingMessage msg, BookingOutcomeStatus status, UUID bookingId,
+            TicketCategoryModel category) {
+        UUID eventId = category != null && category.getEvent() != null
+                ? category.getEvent().getId()
+                : msg.request().eventId();
+        return new BookingOutcome(msg.idempotencyKey(), status, bookingId, eventId, msg.request().categoryId(),
+                msg.request().quantity());
+    }
+
+    private BookingsModel newPendingBooking(BookingMessage msg, TicketCategoryModel category) {
+        BookingsModel booking = new BookingsModel();
+        booking.setUserId(msg.request().userId());
+        booking.setCategory(category);
+        booking.setQuantity(msg.request().quantity());
+        booking.setTotalAmount(category.getPrice().multiply(BigDecimal.valueOf(msg.request().quantity())));
+        booking.setStatus(BookingStatus.PENDING.name());
+        booking.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        booking.setIdempotencyKey(msg.idempotencyKey());
+        return booking;
+    }
+
+    private LedgerEntriesModel newDebitLedger(BookingsModel booking, TicketCategoryModel category) {
+        LedgerEntriesModel ledger = new LedgerEntriesModel();
+        ledger.setBookingId(booking.getId());
+        ledger.setConcertId(category.getEvent().getId());
+        ledger.setAmount(booking.getTotalAmount());
+        ledger.setType("DEBIT");
+        return ledger;
     }
 
     @Transactional
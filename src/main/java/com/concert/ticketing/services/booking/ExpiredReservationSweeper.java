@@ -0,0 +1,120 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.dto.booking.ExpiredCategoryStock;
+import com.concert.ticketing.repositories.BookingRepository;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.analytics.BookingActivityEvent;
+import com.concert.ticketing.services.inventory.InventoryService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Returns the tickets of expired PENDING bookings to stock. Works in chunks,
+ * each its own short transaction: one UPDATE cancels the chunk and reports
+ * the freed tickets per category, then each category gets a single stock
+ * give-back. Chunks are claimed with SKIP LOCKED, so every node can run the
+ * sweeper without two of them cancelling the same booking.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpiredReservationSweeper {
+
+    private final BookingRepository bookingRepository;
+    private final TicketCategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.expiry.sweep.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${booking.expiry.sweep.max-chunks:100}")
+    private int maxChunks;
+
+    // Age of the oldest expired booking still PENDING after the last sweep
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private DistributionSummary rowsPerSweep;
+    private Timer sweepTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        rowsPerSweep = DistributionSummary.builder("booking.expiry.sweep.rows")
+                .description("Expired bookings cancelled per sweep")
+                .register(meterRegistry);
+        sweepTimer = Timer.builder("booking.expiry.sweep.duration")
+                .register(meterRegistry);
+        Gauge.builder("booking.expiry.sweep.lag", lagSeconds, AtomicLong::get)
+                .description("Seconds the oldest expired booking has been waiting to be swept")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.expiry.sweep.interval-ms:60000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            int cancelled = 0;
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                int swept = sweepChunk();
+                cancelled += swept;
+                if (swept < chunkSize) {
+                    break;
+                }
+            }
+            rowsPerSweep.record(cancelled);
+
+            Double lag = bookingRepository.findOldestExpiredPendingAgeSeconds();
+            lagSeconds.set(lag != null ? lag.longValue() : 0);
+            if (cancelled > 0) {
+                log.info("Expired booking sweep cancelled {} bookings", cancelled);
+            }
+        });
+    }
+
+    /**
+     * Cancels one chunk and gives its tickets back.
+     *
+     * @return the number of bookings cancelled
+     */
+    public int sweepChunk() {
+        Integer cancelled = transactionTemplate.execute(
+                status -> giveBack(bookingRepository.cancelExpiredBookings(chunkSize)));
+        return cancelled != null ? cancelled : 0;
+    }
+
+    /**
+     * Returns the tickets of cancelled bookings to stock with one update per
+     * category. Must run in the transaction that cancelled them.
+     *
+     * @return the number of bookings the tickets came from
+     */
+    public int giveBack(List<ExpiredCategoryStock> freed) {
+        int bookings = 0;
+        // Sorted by category id, so concurrent sweeps lock category rows in the same order
+        for (ExpiredCategoryStock category : freed) {
+            categoryRepository.increaseStock(category.getCategoryId(), category.getQuantity());
+            inventoryService.release(category.getCategoryId(), category.getQuantity());
+            bookings += category.getBookings();
+            eventPublisher.publishEvent(new BookingActivityEvent(BookingActivityEvent.Type.EXPIRED, null,
+                    category.getCategoryId(), category.getBookings(), category.getQuantity()));
+            log.debug("Released {} tickets of {} expired bookings for category: {}", category.getQuantity(),
+                    category.getBookings(), category.getCategoryId());
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,21 @@
+package com.concert.ticketing.services.cache;
+
+import com.concert.ticketing.dto.concert.ConcertResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached response with its logical expiry. Redis keeps the entry for a grace
+ * period past {@code softExpiresAt} so it can still be served while one
+ * caller reloads it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedConcertResponse {
+    private ConcertResponse value;
+    private long softExpiresAt;
+    // how long the last database load took, used for early refresh
+    private long loadMillis;
+}
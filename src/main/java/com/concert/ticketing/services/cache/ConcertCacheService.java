@@ -0,0 +1,362 @@
+package com.concert.ticketing.services.cache;
+
+import com.concert.ticketing.dto.concert.ConcertResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for concert listing and detail responses: a bounded
+ * in-process Caffeine cache (L1) in front of Redis (L2). An L1 hit skips the
+ * Redis round trip and the JSON deserialization.
+ *
+ * Every change to a concert is broadcast on a Redis channel after commit, so
+ * each node drops the concert's detail entry and all listing entries (a
+ * listing for any filter may contain the changed concert).
+ *
+ * Misses are loaded once per key: concurrent callers in this JVM share one
+ * in-flight load, and a short Redis lock elects one loader across nodes.
+ * Entries carry a logical expiry and outlive it in Redis by a grace period;
+ * past it (or probabilistically shortly before it, XFetch) one caller reloads
+ * while everyone else keeps getting the stale value.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConcertCacheService implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache-invalidation";
+    public static final String DETAIL_PREFIX = "concert_detail::";
+    public static final String LISTING_PREFIX = "concerts_all::";
+    // Set of every listing key written to Redis, so they can be evicted without KEYS/SCAN
+    public static final String LISTING_INDEX_KEY = "concerts_all::index";
+    private static final String ALL_LISTINGS = "*";
+    private static final String LOCK_PREFIX = "lock::";
+    private static final long LOCK_WAIT_POLL_MS = 25;
+    // XFetch beta; above 1 favours earlier refreshes
+    private static final double EARLY_REFRESH_BETA = 1.0;
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate lockTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.concert.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${cache.concert.local.ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${cache.concert.listing.ttl-minutes:5}")
+    private long listingTtlMinutes;
+
+    @Value("${cache.concert.detail.ttl-minutes:10}")
+    private long detailTtlMinutes;
+
+    @Value("${cache.concert.stale-grace-seconds:60}")
+    private long staleGraceSeconds;
+
+    @Value("${cache.concert.load-lock-ms:5000}")
+    private long loadLockMillis;
+
+    // Single-flight loads in this JVM, by cache key
+    private final Map<String, CompletableFuture<CachedConcertResponse>> inFlight = new ConcurrentHashMap<>();
+    // Bumped on every local eviction, so a load that raced an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Cache<String, CachedConcertResponse> listingCache;
+    private Cache<String, CachedConcertResponse> detailCache;
+    private Counter listingRedisHits;
+    private Counter listingRedisMisses;
+    private Counter detailRedisHits;
+    private Counter detailRedisMisses;
+    private Counter listingLoads;
+    private Counter detailLoads;
+
+    @PostConstruct
+    void init() {
+        listingCache = localCache("concerts_all");
+        detailCache = localCache("concert_detail");
+        listingRedisHits = redisCounter("concerts_all", "hit");
+        listingRedisMisses = redisCounter("concerts_all", "miss");
+        detailRedisHits = redisCounter("concert_detail", "hit");
+        detailRedisMisses = redisCounter("concert_detail", "miss");
+        listingLoads = loadCounter("concerts_all");
+        detailLoads = loadCounter("concert_detail");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public static String listingKey(String name, String artist, String venueName,
+            ZonedDateTime start, ZonedDateTime end, Integer minCap, String cursor, int limit) {
+        return LISTING_PREFIX + name + '-' + artist + '-' + venueName + '-' + start + '-' + end + '-' + minCap
+                + '-' + cursor + '-' + limit;
+    }
+
+    public ConcertResponse getListing(String key, Supplier<ConcertResponse> loader) {
+        return get(listingCache, key, Duration.ofMinutes(listingTtlMinutes), loader, listingRedisHits,
+                listingRedisMisses, listingLoads, true);
+    }
+
+    public ConcertResponse getDetail(UUID concertId, Supplier<ConcertResponse> loader) {
+        return get(detailCache, DETAIL_PREFIX + concertId, Duration.ofMinutes(detailTtlMinutes), loader,
+                detailRedisHits, detailRedisMisses, detailLoads, false);
+    }
+
+    /**
+     * Evicts the concert's detail and all listings from Redis and from L1 on
+     * every node, once the caller's transaction commits. A null id (a new
+     * concert) only evicts listings.
+     */
+    public void invalidateConcert(UUID concertId) {
+        Runnable invalidate = () -> {
+            try {
+                evictRedis(concertId);
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                        concertId != null ? concertId.toString() : ALL_LISTINGS);
+            } catch (Exception e) {
+                log.error("Failed to invalidate concert cache for ID: {}", concertId, e);
+            }
+            evictLocal(concertId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        evictLocal(ALL_LISTINGS.equals(body) ? null : UUID.fromString(body));
+    }
+
+    // Not Cache.get(key, loader): Caffeine loads inside a synchronized map bin,
+    // which would pin a virtual thread for the whole Redis/database round trip
+    private ConcertResponse get(Cache<String, CachedConcertResponse> local, String key, Duration ttl,
+            Supplier<ConcertResponse> loader, Counter redisHits, Counter redisMisses, Counter loads,
+            boolean listing) {
+        CachedConcertResponse cached = local.getIfPresent(key);
+        if (cached == null) {
+            cached = readRedis(key);
+            if (cached != null) {
+                redisHits.increment();
+                local.put(key, cached);
+            } else {
+                redisMisses.increment();
+            }
+        }
+
+        Loader load = stale -> loadOnce(local, key, ttl, loader, loads, listing, stale);
+        if (cached == null) {
+            return singleFlight(key, load, null).getValue();
+        }
+        if (shouldRefresh(cached)) {
+            return singleFlight(key, load, cached).getValue();
+        }
+        return cached.getValue();
+    }
+
+    /**
+     * The first caller for a key runs the load; concurrent callers wait for it,
+     * or get {@code stale} straight away when there is one.
+     */
+    private CachedConcertResponse singleFlight(String key, Loader load, CachedConcertResponse stale) {
+        CompletableFuture<CachedConcertResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedConcertResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return stale != null ? stale : await(running);
+        }
+
+        try {
+            CachedConcertResponse loaded = load.load(stale);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private CachedConcertResponse await(CompletableFuture<CachedConcertResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CachedConcertResponse loadOnce(Cache<String, CachedConcertResponse> local, String key, Duration ttl,
+            Supplier<ConcertResponse> loader, Counter loads, boolean listing, CachedConcertResponse stale) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        boolean locked = Boolean.TRUE.equals(
+                lockTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(loadLockMillis)));
+
+        if (!locked) {
+            // Another node is loading: serve stale, or wait for its result
+            if (stale != null) {
+                return stale;
+            }
+            CachedConcertResponse loaded = awaitOtherNode(key);
+            if (loaded != null) {
+                local.put(key, loaded);
+                return loaded;
+            }
+            log.warn("Timed out waiting for cache load of {}, loading locally", key);
+        }
+
+        try {
+            long generationAtStart = generation.get();
+            long begin = System.currentTimeMillis();
+            ConcertResponse value = loader.get();
+            long loadMillis = System.currentTimeMillis() - begin;
+            loads.increment();
+
+            CachedConcertResponse loaded = new CachedConcertResponse(value, begin + loadMillis + ttl.toMillis(),
+                    loadMillis);
+            if (generation.get() == generationAtStart) {
+                redisTemplate.opsForValue().set(key, loaded, ttl.plusSeconds(staleGraceSeconds));
+                if (listing) {
+                    redisTemplate.opsForSet().add(LISTING_INDEX_KEY, key);
+                }
+                local.put(key, loaded);
+            }
+            return loaded;
+        } finally {
+            if (locked) {
+                lockTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+            }
+        }
+    }
+
+    private CachedConcertResponse awaitOtherNode(String key) {
+        long deadline = System.currentTimeMillis() + loadLockMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_WAIT_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            CachedConcertResponse loaded = readRedis(key);
+            if (loaded != null && !isExpired(loaded)) {
+                return loaded;
+            }
+        }
+        return null;
+    }
+
+    // Entries written before the envelope was introduced count as misses
+    private CachedConcertResponse readRedis(String key) {
+        return redisTemplate.opsForValue().get(key) instanceof CachedConcertResponse cached ? cached : null;
+    }
+
+    // XFetch: refresh early with a probability that rises as expiry nears,
+    // scaled by how long a load takes
+    private boolean shouldRefresh(CachedConcertResponse cached) {
+        double jitter = cached.getLoadMillis() * EARLY_REFRESH_BETA
+                * -Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+        return System.currentTimeMillis() + jitter >= cached.getSoftExpiresAt();
+    }
+
+    private boolean isExpired(CachedConcertResponse cached) {
+        return System.currentTimeMillis() >= cached.getSoftExpiresAt();
+    }
+
+    private void evictRedis(UUID concertId) {
+        List<String> keys = new ArrayList<>();
+        if (concertId != null) {
+            keys.add(DETAIL_PREFIX + concertId);
+        }
+        Set<Object> listings = redisTemplate.opsForSet().members(LISTING_INDEX_KEY);
+        if (listings != null) {
+            listings.forEach(key -> keys.add(key.toString()));
+        }
+        keys.add(LISTING_INDEX_KEY);
+        redisTemplate.delete(keys);
+    }
+
+    private void evictLocal(UUID concertId) {
+        generation.incrementAndGet();
+        if (concertId != null) {
+            detailCache.invalidate(DETAIL_PREFIX + concertId);
+        }
+        listingCache.invalidateAll();
+        log.debug("Evicted local concert cache entries for ID: {}", concertId);
+    }
+
+    private Cache<String, CachedConcertResponse> localCache(String name) {
+        Cache<String, CachedConcertResponse> cache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .recordStats()
+                .build();
+        // cache.gets/cache.evictions/... tagged cache=<name>
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name + ".local");
+        return cache;
+    }
+
+    private Counter loadCounter(String name) {
+        return Counter.builder("cache.loads")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private Counter redisCounter(String name, String result) {
+        return Counter.builder("cache.redis.gets")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        CachedConcertResponse load(CachedConcertResponse stale);
+    }
+}
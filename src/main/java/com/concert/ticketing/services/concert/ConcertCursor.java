@@ -0,0 +1,43 @@
+package com.concert.ticketing.services.concert;
+
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the concert listing, ordered by (eventDate, id). Sent to
+ * clients as an opaque base64url token.
+ */
+record ConcertCursor(Instant eventDate, UUID id) {
+
+    static ConcertCursor after(ZonedDateTime eventDate, UUID id) {
+        return new ConcertCursor(eventDate.toInstant(), id);
+    }
+
+    ZonedDateTime eventDateUtc() {
+        return eventDate.atZone(ZoneOffset.UTC);
+    }
+
+    String encode() {
+        String raw = eventDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ConcertCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new ConcertCursor(Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.INVALID_CURSOR);
+        }
+    }
+}
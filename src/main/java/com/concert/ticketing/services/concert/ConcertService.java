@@ -4,6 +4,8 @@ import com.concert.ticketing.constant.ErrorList;
 import com.concert.ticketing.constant.Origin;
 import com.concert.ticketing.dto.concert.ConcertRequest;
 import com.concert.ticketing.dto.concert.ConcertResponse;
+import com.concert.ticketing.dto.concert.ConcertSearchResponse;
+import com.concert.ticketing.dto.concert.ConcertSearchResult;
 import com.concert.ticketing.exception.ServiceException;
 import com.concert.ticketing.model.EventsModel;
 import com.concert.ticketing.model.TicketCategoryModel;
@@ -11,19 +13,24 @@ import com.concert.ticketing.model.VenuesModel;
 import com.concert.ticketing.repositories.EventRepository;
 
 import com.concert.ticketing.repositories.VenueRepository;
+import com.concert.ticketing.services.cache.ConcertCacheService;
+import com.concert.ticketing.services.inventory.EventCategoryCatalog;
+import com.concert.ticketing.services.pricing.PricingService;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -35,116 +42,155 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ConcertService {
     private final EventRepository concertRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final ConcertCacheService concertCacheService;
+    private final PricingService pricingService;
+    private final EventCategoryCatalog categoryCatalog;
     private final VenueRepository venueRepository;
 
     public ConcertResponse getAllConcerts(String name, String artist, String venueName,
-            ZonedDateTime start, ZonedDateTime end, Integer minCap) {
+            ZonedDateTime start, ZonedDateTime end, Integer minCap, String cursor, int limit) {
         try {
             log.info("Retrieving all concerts with filters - Name: {}, Artist: {}, Venue: {}", name, artist, venueName);
-            ConcertResponse response = new ConcertResponse();
-            String cacheKey = String.format("concerts_all::%s-%s-%s-%s-%s-%s",
-                    name, artist, venueName, start, end, minCap);
-
-            // redis
-            ConcertResponse cached = (ConcertResponse) redisTemplate.opsForValue().get(cacheKey);
-            if (cached != null) {
-                log.info("Cache hit for key: {}", cacheKey);
-                return cached;
+            ConcertCursor after = cursor != null ? ConcertCursor.decode(cursor) : null;
+            String cacheKey = ConcertCacheService.listingKey(name, artist, venueName, start, end, minCap, cursor, limit);
+            return concertCacheService.getListing(cacheKey,
+                    () -> loadConcerts(name, artist, venueName, start, end, minCap, after, limit));
+        } catch (ServiceException e) {
+            log.error("ServiceException in getAllConcerts: code={}, message={}", e.getCode(), e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Unexpected error in getAllConcerts: {}", e.getMessage(), e);
+            throw new ServiceException(Origin.POSTGRE, ErrorList.FAILED_CONNECT_TO_BACKEND);
+        }
+    }
+
+    private ConcertResponse loadConcerts(String name, String artist, String venueName,
+            ZonedDateTime start, ZonedDateTime end, Integer minCap, ConcertCursor after, int limit) {
+        log.debug("Cache miss for concerts listing. Fetching from database...");
+        ConcertResponse response = new ConcertResponse();
+
+        Specification<EventsModel> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (query.getResultType() != Long.class) {
+                root.fetch("venue", JoinType.LEFT);
             }
-            log.debug("Cache miss for key: {}. Fetching from database...", cacheKey);
 
-            Specification<EventsModel> spec = (root, query, cb) -> {
-                List<Predicate> predicates = new ArrayList<>();
+            if (name != null)
+                predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            if (artist != null)
+                predicates.add(cb.equal(cb.lower(root.get("artist")), artist.toLowerCase()));
+
+            if (venueName != null) {
+                predicates.add(
+                        cb.like(cb.lower(root.join("venue").get("name")), "%" + venueName.toLowerCase() + "%"));
+            }
 
-                if (query.getResultType() != Long.class) {
-                    root.fetch("venue", JoinType.LEFT);
-                }
+            if (start != null)
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), start));
+            if (end != null)
+                predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), end));
 
-                if (name != null)
-                    predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
-                if (artist != null)
-                    predicates.add(cb.equal(cb.lower(root.get("artist")), artist.toLowerCase()));
+            if (minCap != null) {
+                // sum(categories.availableStock) >= minCap, as a correlated subquery
+                Subquery<Long> available = query.subquery(Long.class);
+                Root<TicketCategoryModel> category = available.from(TicketCategoryModel.class);
+                available.select(cb.coalesce(cb.sumAsLong(category.get("availableStock")), 0L))
+                        .where(cb.equal(category.get("event"), root));
+                predicates.add(cb.greaterThanOrEqualTo(available, minCap.longValue()));
+            }
 
-                if (venueName != null) {
-                    predicates.add(
-                            cb.like(cb.lower(root.join("venue").get("name")), "%" + venueName.toLowerCase() + "%"));
-                }
+            if (after != null) {
+                // keyset: (eventDate, id) > (cursor.eventDate, cursor.id)
+                predicates.add(cb.or(
+                        cb.greaterThan(root.get("eventDate"), after.eventDateUtc()),
+                        cb.and(cb.equal(root.get("eventDate"), after.eventDateUtc()),
+                                cb.greaterThan(root.get("id"), after.id()))));
+            }
 
-                if (start != null)
-                    predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), start));
-                if (end != null)
-                    predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), end));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        // Page the events first (one extra row tells whether there is a next page),
+        // then fetch categories for that page only; a collection fetch cannot be limited in SQL
+        List<EventsModel> page = concertRepository.findBy(spec, q -> q
+                .sortBy(Sort.by("eventDate", "id"))
+                .limit(limit + 1)
+                .all());
+        boolean hasNext = page.size() > limit;
+        if (hasNext) {
+            page = page.subList(0, limit);
+        }
 
-                if (minCap != null) {
-                    // Logic: sum(categories.availableStock) >= minCap
-                    // This is easier to filter in memory for now, or we can use a complex subquery.
-                    // Given the Specification structure, a subquery is more robust.
-                    // But for simplicity in this baseline, I'll filter the resulting list if the
-                    // list is small enough.
-                    // However, to be "correct" in JPA:
-                }
+        List<UUID> ids = page.stream().map(EventsModel::getId).toList();
+        Map<UUID, EventsModel> withDetails = concertRepository.findAllWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(EventsModel::getId, e -> e));
+        List<EventsModel> events = ids.stream().map(withDetails::get).toList();
+        log.info("Found {} concerts in database matching criteria", events.size());
+
+        List<ConcertResponse.ConcertData> dataList = events.stream().map(e -> {
+            ConcertResponse.ConcertData data = new ConcertResponse.ConcertData();
+            data.setId(e.getId());
+            data.setConcertName(e.getName());
+            data.setArtist(e.getArtist());
+
+            if (e.getVenue() != null) {
+                data.setVenueName(e.getVenue().getName());
+                data.setVenueCapacity(e.getVenue().getCapacity());
+            }
 
-                return cb.and(predicates.toArray(new Predicate[0]));
-            };
+            data.setDatetime(e.getEventDate().toString());
+            data.setStatus(e.getStatus());
+
+            if (e.getCategories() != null) {
+                List<ConcertRequest.TicketCategory> categories = e.getCategories()
+                        .stream().map(cat -> {
+                            ConcertRequest.TicketCategory catDto = new ConcertRequest.TicketCategory();
+                            catDto.setCategoryName(cat.getName());
+                            catDto.setBasePrice(cat.getPrice());
+                            catDto.setTotalAllocation(cat.getTotalAllocation());
+                            return catDto;
+                        }).toList();
+                data.setCategories(categories);
+            }
+            return data;
+        }).toList();
+
+        response.setStatus("Success");
+        response.setCode("00");
+        response.setMessage("Retrieved " + dataList.size() + " concerts");
+        response.setData(dataList);
+        if (hasNext) {
+            EventsModel last = events.get(events.size() - 1);
+            response.setNextCursor(ConcertCursor.after(last.getEventDate(), last.getId()).encode());
+        }
 
-            List<EventsModel> events = concertRepository.findAll(spec);
+        log.info("Returning {} concerts", dataList.size());
+        return response;
+    }
 
-            // Post-filtering for minCap if provided
-            if (minCap != null) {
-                events = events.stream()
-                        .filter(e -> {
-                            int totalAvailable = e.getCategories().stream()
-                                    .mapToInt(cat -> cat.getAvailableStock() != null ? cat.getAvailableStock() : 0)
-                                    .sum();
-                            return totalAvailable >= minCap;
-                        })
-                        .collect(Collectors.toList());
+    public ConcertSearchResponse searchConcerts(String query, int limit) {
+        try {
+            String term = query != null ? query.trim().toLowerCase() : "";
+            if (term.length() < 2) {
+                throw new ServiceException(Origin.MICROSERVICE, ErrorList.INVALID_SEARCH_QUERY);
             }
-            log.info("Found {} concerts in database matching criteria", events.size());
-
-            List<ConcertResponse.ConcertData> dataList = events.stream().map(e -> {
-                ConcertResponse.ConcertData data = new ConcertResponse.ConcertData();
-                data.setId(e.getId());
-                data.setConcertName(e.getName());
-                data.setArtist(e.getArtist());
-
-                if (e.getVenue() != null) {
-                    data.setVenueName(e.getVenue().getName());
-                    data.setVenueCapacity(e.getVenue().getCapacity());
-                }
-
-                data.setDatetime(e.getEventDate().toString());
-                data.setStatus(e.getStatus());
-
-                if (e.getCategories() != null) {
-                    List<ConcertRequest.TicketCategory> categories = e.getCategories()
-                            .stream().map(cat -> {
-                                ConcertRequest.TicketCategory catDto = new ConcertRequest.TicketCategory();
-                                catDto.setCategoryName(cat.getName());
-                                catDto.setBasePrice(cat.getPrice());
-                                catDto.setTotalAllocation(cat.getTotalAllocation());
-                                return catDto;
-                            }).toList();
-                    data.setCategories(categories);
-                }
-                return data;
-            }).toList();
+            log.info("Searching concerts for: {}", term);
+
+            String pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            List<ConcertSearchResult> results = concertRepository.searchConcerts(term, pattern, limit);
 
+            ConcertSearchResponse response = new ConcertSearchResponse();
             response.setStatus("Success");
             response.setCode("00");
-            response.setMessage("Retrieved " + dataList.size() + " concerts");
-            response.setData(dataList);
-
-            log.info("Returning {} concerts. Saving to cache with key: {}", dataList.size(), cacheKey);
-            redisTemplate.opsForValue().set(cacheKey, response, Duration.ofMinutes(5));
+            response.setMessage("Found " + results.size() + " concerts");
+            response.setData(results);
             return response;
-
         } catch (ServiceException e) {
-            log.error("ServiceException in getAllConcerts: code={}, message={}", e.getCode(), e.getMessage());
+            log.error("ServiceException in searchConcerts: code={}, message={}", e.getCode(), e.getMessage());
             throw e;
         } catch (Exception e) {
-            log.error("Unexpected error in getAllConcerts: {}", e.getMessage(), e);
+            log.error("Unexpected error in searchConcerts: {}", e.getMessage(), e);
             throw new ServiceException(Origin.POSTGRE, ErrorList.FAILED_CONNECT_TO_BACKEND);
         }
     }
@@ -152,56 +198,7 @@ public class ConcertService {
     public ConcertResponse getConcertDetail(UUID id) {
         try {
             log.info("Retrieving detail for concert ID: {}", id);
-            ConcertResponse response = new ConcertResponse();
-            ConcertResponse.ConcertData concertData = new ConcertResponse.ConcertData();
-
-            String cacheKey = "concert_detail::" + id;
-            ConcertResponse cached = (ConcertResponse) redisTemplate.opsForValue().get(cacheKey);
-            if (cached != null) {
-                log.info("Cache hit for concert detail: {}", id);
-                return cached;
-            }
-            log.debug("Cache miss for concert detail: {}. Fetching from database...", id);
-
-            EventsModel events = concertRepository.findByIdWithDetails(id)
-                    .orElseThrow(() -> {
-                        log.warn("Concert detail not found for ID: {}", id);
-                        return new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
-                    });
-            log.info("Successfully retrieved concert: {} ({})", events.getName(), events.getArtist());
-
-            concertData.setConcertName(events.getName());
-            concertData.setArtist(events.getArtist());
-            concertData.setDatetime(events.getEventDate().toString());
-            concertData.setStatus(events.getStatus());
-
-            // cek tbl vanue
-            if (events.getVenue() != null) {
-                concertData.setVenueName(events.getVenue().getName());
-                concertData.setVenueCapacity(events.getVenue().getCapacity());
-            }
-
-            // cek tbl tix cat
-            if (events.getCategories() != null) {
-                List<ConcertRequest.TicketCategory> getTikcketCategories = events.getCategories().stream()
-                        .map(ticketCategoryModel -> {
-                            ConcertRequest.TicketCategory ticketDto = new ConcertRequest.TicketCategory();
-                            ticketDto.setCategoryName(ticketCategoryModel.getName());
-                            ticketDto.setBasePrice(ticketCategoryModel.getPrice());
-                            ticketDto.setTotalAllocation(ticketCategoryModel.getTotalAllocation());
-                            return ticketDto;
-                        }).toList();
-                concertData.setCategories(getTikcketCategories);
-            }
-
-            response.setStatus("Success");
-            response.setCode("00");
-            response.setMessage("Concert detail retrieved successfully");
-            response.setData(List.of(concertData));
-
-            log.info("Returning detail for concert: {}. Saving to cache.", events.getName());
-            redisTemplate.opsForValue().set(cacheKey, response, Duration.ofMinutes(10));
-            return response;
+            return concertCacheService.getDetail(id, () -> loadConcertDetail(id));
         } catch (ServiceException e) {
             log.error("ServiceException in getConcertDetail for ID {}: code={}, message={}", id, e.getCode(),
                     e.getMessage());
@@ -212,6 +209,51 @@ public class ConcertService {
         }
     }
 
+    private ConcertResponse loadConcertDetail(UUID id) {
+        log.debug("Cache miss for concert detail: {}. Fetching from database...", id);
+        ConcertResponse response = new ConcertResponse();
+        ConcertResponse.ConcertData concertData = new ConcertResponse.ConcertData();
+
+        EventsModel events = concertRepository.findByIdWithDetails(id)
+                .orElseThrow(() -> {
+                    log.warn("Concert detail not found for ID: {}", id);
+                    return new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
+                });
+        log.info("Successfully retrieved concert: {} ({})", events.getName(), events.getArtist());
+
+        concertData.setConcertName(events.getName());
+        concertData.setArtist(events.getArtist());
+        concertData.setDatetime(events.getEventDate().toString());
+        concertData.setStatus(events.getStatus());
+
+        // cek tbl vanue
+        if (events.getVenue() != null) {
+            concertData.setVenueName(events.getVenue().getName());
+            concertData.setVenueCapacity(events.getVenue().getCapacity());
+        }
+
+        // cek tbl tix cat
+        if (events.getCategories() != null) {
+            List<ConcertRequest.TicketCategory> getTikcketCategories = events.getCategories().stream()
+                    .map(ticketCategoryModel -> {
+                        ConcertRequest.TicketCategory ticketDto = new ConcertRequest.TicketCategory();
+                        ticketDto.setCategoryName(ticketCategoryModel.getName());
+                        ticketDto.setBasePrice(ticketCategoryModel.getPrice());
+                        ticketDto.setTotalAllocation(ticketCategoryModel.getTotalAllocation());
+                        return ticketDto;
+                    }).toList();
+            concertData.setCategories(getTikcketCategories);
+        }
+
+        response.setStatus("Success");
+        response.setCode("00");
+        response.setMessage("Concert detail retrieved successfully");
+        response.setData(List.of(concertData));
+
+        log.info("Returning detail for concert: {}", events.getName());
+        return response;
+    }
+
     @Transactional
     public void createConcert(ConcertRequest request) {
         try {
@@ -253,6 +295,7 @@ public class ConcertService {
             }
 
             concertRepository.save(event);
+            concertCacheService.invalidateConcert(null);
             log.info("Successfully created concert: {} (ID: {})", event.getName(), event.getId());
 
         } catch (ServiceException e) {
@@ -310,8 +353,9 @@ public class ConcertService {
 
             concertRepository.save(event);
 
-            String detailCacheKey = "concert_detail::" + id;
-            redisTemplate.delete(detailCacheKey);
+            concertCacheService.invalidateConcert(id);
+            pricingService.invalidate(id);
+            categoryCatalog.invalidate(id);
 
             log.info("Successfully updated concert: {} (ID: {})", event.getName(), event.getId());
 
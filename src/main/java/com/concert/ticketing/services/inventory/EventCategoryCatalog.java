@@ -0,0 +1,100 @@
+package com.concert.ticketing.services.inventory;
+
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory copy of the static part of an event's ticket categories (names,
+ * prices, allocations), so a stock read only has to fetch the counters
+ * themselves.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventCategoryCatalog {
+
+    private final TicketCategoryRepository categoryRepository;
+
+    @Value("${inventory.catalog.max-size:10000}")
+    private long maxSize;
+
+    @Value("${inventory.catalog.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<UUID, List<CategoryInfo>> categoriesByEvent;
+
+    // A category never moves to another event, so this mapping only expires to bound memory
+    private Cache<UUID, UUID> eventByCategory;
+
+    public record CategoryInfo(UUID id, UUID eventId, String name, BigDecimal basePrice, int totalAllocation,
+            String concertName, String artistName) {
+
+        public static CategoryInfo of(TicketCategoryModel category) {
+            return new CategoryInfo(category.getId(), category.getEvent() != null ? category.getEvent().getId() : null,
+                    category.getName(), category.getPrice(),
+                    category.getTotalAllocation() != null ? category.getTotalAllocation() : 0,
+                    category.getEvent() != null ? category.getEvent().getName() : null,
+                    category.getEvent() != null ? category.getEvent().getArtist() : null);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        categoriesByEvent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        eventByCategory = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public List<CategoryInfo> categories(UUID eventId) {
+        List<CategoryInfo> cached = categoriesByEvent.getIfPresent(eventId);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<CategoryInfo> categories = categoryRepository.findByEventId(eventId).stream()
+                .map(CategoryInfo::of)
+                .toList();
+        // Unknown events are not cached, so lookups of random ids cannot fill the cache
+        if (!categories.isEmpty()) {
+            categoriesByEvent.put(eventId, categories);
+        }
+        return categories;
+    }
+
+    /** Event a category belongs to, or null for an unknown category. */
+    public UUID eventOf(UUID categoryId) {
+        UUID cached = eventByCategory.getIfPresent(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+
+        UUID eventId = categoryRepository.findWithEventById(categoryId)
+                .map(category -> category.getEvent().getId())
+                .orElse(null);
+        // Unknown categories are not cached, for the same reason as unknown events
+        if (eventId != null) {
+            eventByCategory.put(categoryId, eventId);
+        }
+        return eventId;
+    }
+
+    public void invalidate(UUID eventId) {
+        categoriesByEvent.invalidate(eventId);
+    }
+}
@@ -0,0 +1,286 @@
+package com.concert.ticketing.services.inventory;
+
+import com.concert.ticketing.dto.pricing.CategoryLedgerStock;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the two inventory stores against the booking ledger. For each
+ * category the truth is {@code total_allocation - SUM(quantity)} of its live
+ * bookings: the Redis counters should hold exactly that, and
+ * {@code ticket_categories.available_stock} that plus the reservations still
+ * pending or in flight write-behind. Categories are streamed in keyset pages, each with one
+ * SQL query and one pipelined Redis round trip.
+ * <p>
+ * Drift is corrected only when the next pass sees the same drift and nothing
+ * about the category moved in between: same ledger quantity, same stock in
+ * both stores, same pending write-behind and the same snapshot version, which
+ * every Redis stock change bumps. A steady stream of bookings can hold the
+ * drift at one value while the stores lag the ledger; it never holds all of
+ * those still. Settled drift within {@code inventory.reconcile.max-correction}
+ * tickets is corrected, larger drift is only reported. Corrections are compare-and-set, so concurrent nodes or bookings
+ * never apply one twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryReconciler {
+
+    /**
+     * KEYS[1..n] shard keys, KEYS[n+1] event snapshot. ARGV[1] the shard sum the
+     * correction was computed from, ARGV[2] delta, ARGV[3] categoryId. Returns
+     * the new sum, or -1 when the counters moved in the meantime.
+     */
+    private static final DefaultRedisScript<Long> CORRECT_SCRIPT = new DefaultRedisScript<>(
+            InventoryService.SNAPSHOT_FUNCTIONS + """
+                    local shards = #KEYS - 1
+                    local sum = 0
+                    for i = 1, shards do sum = sum + tonumber(redis.call('get', KEYS[i]) or '0') end
+                    if sum ~= tonumber(ARGV[1]) then return -1 end
+                    local delta = tonumber(ARGV[2])
+                    if delta > 0 then
+                        redis.call('incrby', KEYS[1], delta)
+                    else
+                        local remaining = -delta
+                        for i = 1, shards do
+                            if remaining == 0 then break end
+                            local take = math.min(tonumber(redis.call('get', KEYS[i]) or '0'), remaining)
+                            redis.call('decrby', KEYS[i], take)
+                            remaining = remaining - take
+                        end
+                    end
+                    touch(KEYS[#KEYS], ARGV[3], delta)
+                    return sum + delta
+                    """, Long.class);
+
+    private final TicketCategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Drift per category seen on the previous pass
+    private Map<UUID, Drift> previousDrift = new HashMap<>();
+    private final AtomicInteger driftingRedis = new AtomicInteger();
+    private final AtomicInteger driftingDatabase = new AtomicInteger();
+
+    @Value("${inventory.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.reconcile.auto-correct:true}")
+    private boolean autoCorrect;
+
+    @Value("${inventory.reconcile.max-correction:10}")
+    private int maxCorrection;
+
+    /** Drift of a category together with everything observed to compute it. */
+    record Drift(int redis, int database, Integer redisStock, int available, int booked, int pending,
+            String version) {
+
+        boolean settledSince(Drift previous) {
+            return previous != null && equals(previous);
+        }
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        meterRegistry.gauge("inventory.reconcile.drifting", Tags.of("store", "redis"), driftingRedis);
+        meterRegistry.gauge("inventory.reconcile.drifting", Tags.of("store", "database"), driftingDatabase);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconcile.interval-ms:60000}",
+            initialDelayString = "${inventory.reconcile.interval-ms:60000}")
+    public void reconcile() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<UUID, Drift> drift = new HashMap<>();
+        int scanned = 0;
+        try {
+            UUID afterId = new UUID(0, 0);
+            List<CategoryLedgerStock> page;
+            do {
+                page = categoryRepository.findLedgerStockAfter(afterId, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                reconcilePage(page, drift);
+                scanned += page.size();
+                afterId = page.get(page.size() - 1).getId();
+            } while (page.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.error("Inventory reconciliation aborted after {} categories", scanned, e);
+            return;
+        } finally {
+            sample.stop(meterRegistry.timer("inventory.reconcile.duration"));
+        }
+
+        previousDrift = drift;
+        driftingRedis.set((int) drift.values().stream().filter(d -> d.redis() != 0).count());
+        driftingDatabase.set((int) drift.values().stream().filter(d -> d.database() != 0).count());
+        log.info("Inventory reconciliation checked {} categories, {} drifting", scanned, drift.size());
+    }
+
+    private void reconcilePage(List<CategoryLedgerStock> page, Map<UUID, Drift> drift) {
+        RedisView redis = readRedis(page);
+
+        for (int i = 0; i < page.size(); i++) {
+            CategoryLedgerStock row = page.get(i);
+            int total = row.getTotalAllocation() != null ? row.getTotalAllocation() : 0;
+            int available = row.getAvailableStock() != null ? row.getAvailableStock() : 0;
+            int expected = total - row.getBookedQuantity();
+
+            Integer redisStock = redis != null ? redis.stock().get(i) : null;
+            int pending = redis != null ? redis.pending().get(i) : 0;
+            String version = redis != null ? redis.versions().get(i) : null;
+
+            int redisDrift = redisStock != null ? redisStock - expected : 0;
+            int databaseDrift = available - (expected + pending);
+            if (redisDrift == 0 && databaseDrift == 0) {
+                continue;
+            }
+
+            Drift current = new Drift(redisDrift, databaseDrift, redisStock, available, row.getBookedQuantity(),
+                    pending, version);
+            drift.put(row.getId(), current);
+            boolean settled = current.settledSince(previousDrift.get(row.getId()));
+            if (redisDrift != 0) {
+                meterRegistry.summary("inventory.reconcile.drift", "store", "redis").record(Math.abs(redisDrift));
+                if (settled) {
+                    correctRedis(row.getId(), redisStock, -redisDrift);
+                }
+            }
+            if (databaseDrift != 0) {
+                meterRegistry.summary("inventory.reconcile.drift", "store", "database")
+                        .record(Math.abs(databaseDrift));
+                if (settled) {
+                    correctDatabase(row.getId(), available, available - databaseDrift);
+                }
+            }
+        }
+    }
+
+    private void correctRedis(UUID categoryId, int observed, int delta) {
+        if (!withinBounds("redis", categoryId, delta)) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(inventoryService.shardKeys(categoryId));
+        keys.add(inventoryService.snapshotKey(categoryId));
+        Long corrected = redisTemplate.execute(CORRECT_SCRIPT, keys, String.valueOf(observed),
+                String.valueOf(delta), categoryId.toString());
+        record("redis", categoryId, delta, corrected != null && corrected >= 0);
+    }
+
+    private void correctDatabase(UUID categoryId, int observed, int corrected) {
+        if (!withinBounds("database", categoryId, corrected - observed)) {
+            return;
+        }
+        boolean applied = categoryRepository.correctStock(categoryId, observed, corrected) > 0;
+        record("database", categoryId, corrected - observed, applied);
+    }
+
+    private boolean withinBounds(String store, UUID categoryId, int delta) {
+        if (autoCorrect && Math.abs(delta) <= maxCorrection) {
+            return true;
+        }
+        meterRegistry.counter("inventory.reconcile.corrections", "store", store, "outcome", "skipped").increment();
+        log.error("Persistent {} stock drift of {} tickets for category: {} needs manual review",
+                store, -delta, categoryId);
+        return false;
+    }
+
+    private void record(String store, UUID categoryId, int delta, boolean applied) {
+        meterRegistry.counter("inventory.reconcile.corrections", "store", store,
+                "outcome", applied ? "corrected" : "raced").increment();
+        if (applied) {
+            log.warn("Corrected {} stock of category: {} by {} tickets", store, categoryId, delta);
+        }
+    }
+
+    private record RedisView(List<Integer> stock, List<Integer> pending, List<String> versions) {
+    }
+
+    /**
+     * Shard counters (MGET), pending and in-flight write-behind (HMGET) and
+     * snapshot versions (HGET per category) of a page in one pipelined round
+     * trip. Stock is null for categories not seeded in Redis;
+     * the whole view is null when Redis is not the engine or unreachable.
+     */
+    @SuppressWarnings("unchecked")
+    private RedisView readRedis(List<CategoryLedgerStock> page) {
+        if (!inventoryService.isRedisEngine()) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>();
+        List<Object> fields = new ArrayList<>();
+        for (CategoryLedgerStock row : page) {
+            keys.addAll(inventoryService.shardKeys(row.getId()));
+            fields.add(row.getId().toString());
+        }
+        int shards = keys.size() / page.size();
+
+        try {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.opsForValue().multiGet(keys);
+                    ops.opsForHash().multiGet(InventoryService.REDIS_PENDING_KEY, fields);
+                    ops.opsForHash().multiGet(InventoryService.REDIS_IN_FLIGHT_KEY, fields);
+                    for (CategoryLedgerStock row : page) {
+                        ops.opsForHash().get(InventoryService.REDIS_SNAPSHOT_PREFIX + row.getEventId(),
+                                row.getId() + ":version");
+                    }
+                    return null;
+                }
+            });
+            List<String> values = (List<String>) results.get(0);
+            List<Object> pendingValues = (List<Object>) results.get(1);
+            List<Object> inFlightValues = (List<Object>) results.get(2);
+
+            List<Integer> stock = new ArrayList<>(page.size());
+            List<Integer> pending = new ArrayList<>(page.size());
+            List<String> versions = new ArrayList<>(page.size());
+            for (int c = 0; c < page.size(); c++) {
+                if (values.get(c * shards) == null) {
+                    stock.add(null);
+                } else {
+                    int sum = 0;
+                    for (int shard = 0; shard < shards; shard++) {
+                        String value = values.get(c * shards + shard);
+                        sum += value != null ? Integer.parseInt(value) : 0;
+                    }
+                    stock.add(sum);
+                }
+                Object value = pendingValues.get(c);
+                Object inFlight = inFlightValues.get(c);
+                pending.add((value != null ? Integer.parseInt(value.toString()) : 0)
+                        + (inFlight != null ? Integer.parseInt(inFlight.toString()) : 0));
+                Object version = results.get(3 + c);
+                versions.add(version != null ? version.toString() : null);
+            }
+            return new RedisView(stock, pending, versions);
+        } catch (DataAccessException e) {
+            log.warn("Skipping Redis reconciliation for {} categories, Redis unavailable: {}",
+                    page.size(), e.getMessage());
+            return null;
+        }
+    }
+}
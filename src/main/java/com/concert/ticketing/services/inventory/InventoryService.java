@@ -1,21 +1,35 @@
 package com.concert.ticketing.services.inventory;
 
 import com.concert.ticketing.dto.pricing.AvailabilityItem;
-import com.concert.ticketing.exception.ConcurrentUpdateException;
-import com.concert.ticketing.exception.InsufficientStockException;
+import com.concert.ticketing.dto.pricing.CategoryStock;
 import com.concert.ticketing.model.TicketCategoryModel;
 import com.concert.ticketing.repositories.TicketCategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,55 +37,736 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class InventoryService {
 
+    public static final String REDIS_STOCK_PREFIX = "stock::";
+    // Hash of categoryId -> tickets reserved in Redis but not yet applied to
+    // ticket_categories.available_stock (negative when rollbacks are pending)
+    public static final String REDIS_PENDING_KEY = "stock::pending";
+    // Deltas claimed by a flush whose database update has not committed yet, with the claim time in <category>:at
+    public static final String REDIS_IN_FLIGHT_KEY = "stock::pending::in-flight";
+    // In-flight deltas older than this were left behind by a node that died mid-flush
+    private static final Duration FLUSH_CLAIM_LEASE = Duration.ofMinutes(1);
+
+    // Hash per event with <categoryId>:stock|total|price|tier|version fields,
+    // kept in step with the counters by every script that moves stock
+    public static final String REDIS_SNAPSHOT_PREFIX = "stock::event::";
+
+    private static final long NOT_SEEDED = -2L;
+    private static final String SHARD_SEPARATOR = "::";
+
+    /**
+     * Shared by the stock scripts: {@code touch} applies a stock delta to a
+     * category of the event snapshot and recomputes its surge tier (same
+     * thresholds as PricingService). Categories the snapshot does not hold are
+     * left alone; they are written in full when seeded.
+     */
+    static final String SNAPSHOT_FUNCTIONS = """
+            local function tier(stock, total)
+                if total <= 0 then return 1 end
+                local occupancy = (total - stock) / total
+                if occupancy > 0.9 then return 4
+                elseif occupancy > 0.7 then return 3
+                elseif occupancy > 0.4 then return 2
+                elseif occupancy < 0.1 then return 0
+                else return 1 end
+            end
+            local function touch(snapshot, category, delta)
+                local total = redis.call('hget', snapshot, category .. ':total')
+                if not total then return end
+                local stock = redis.call('hincrby', snapshot, category .. ':stock', delta)
+                redis.call('hset', snapshot, category .. ':tier', tier(stock, tonumber(total)))
+                redis.call('hincrby', snapshot, category .. ':version', 1)
+            end
+            """;
+
+    /**
+     * KEYS[1] stock key, KEYS[2] pending hash, KEYS[3] event snapshot. ARGV[1] categoryId, ARGV[2..n]
+     * requested quantities in arrival order. Each request is granted while it
+     * still fits, so a batch ends up exactly as if reserved one by one. Returns
+     * {remaining, granted_1 .. granted_n} or {-2} when the key is not seeded.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>(SNAPSHOT_FUNCTIONS + """
+            local stock = redis.call('get', KEYS[1])
+            if not stock then return {-2} end
+            stock = tonumber(stock)
+            local result = {0}
+            local taken = 0
+            for i = 2, #ARGV do
+                local qty = tonumber(ARGV[i])
+                if qty <= stock then
+                    stock = stock - qty
+                    taken = taken + qty
+                    result[i] = 1
+                else
+                    result[i] = 0
+                end
+            end
+            if taken > 0 then
+                redis.call('decrby', KEYS[1], taken)
+                redis.call('hincrby', KEYS[2], ARGV[1], taken)
+                touch(KEYS[3], ARGV[1], -taken)
+            end
+            result[1] = stock
+            return result
+            """, List.class);
+
+    private static final DefaultRedisScript<Long> ROLLBACK_SCRIPT = new DefaultRedisScript<>(SNAPSHOT_FUNCTIONS + """
+            redis.call('hincrby', KEYS[2], ARGV[2], -tonumber(ARGV[1]))
+            touch(KEYS[3], ARGV[2], tonumber(ARGV[1]))
+            return redis.call('incrby', KEYS[1], ARGV[1])
+            """, Long.class);
+
+    /** KEYS[1] stock key, KEYS[2] event snapshot. ARGV[1] quantity, ARGV[2] categoryId. */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(SNAPSHOT_FUNCTIONS + """
+            if redis.call('exists', KEYS[1]) == 0 then return -2 end
+            touch(KEYS[2], ARGV[2], tonumber(ARGV[1]))
+            return redis.call('incrby', KEYS[1], ARGV[1])
+            """, Long.class);
+
+    /**
+     * Seeds the shard keys KEYS[1..n] (KEYS[n+1] pending hash, KEYS[n+2]
+     * in-flight hash, KEYS[n+3] event snapshot) from the database value ARGV[1]
+     * minus whatever is still pending or in flight write-behind, so a re-seed after eviction never double counts. Stock is
+     * split evenly across shards; shard 0 is written last and marks the
+     * category as seeded. When shard 0 already exists only missing shards are
+     * created, empty. Either way the category's snapshot fields are rewritten
+     * from the shard sum, ARGV[3] total and ARGV[4] base price, and the
+     * snapshot expires at ARGV[5] (epoch millis), after the event.
+     */
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(SNAPSHOT_FUNCTIONS + """
+            local shards = #KEYS - 3
+            local category = ARGV[2]
+            local snapshot = KEYS[#KEYS]
+            local result = -1
+            if redis.call('exists', KEYS[1]) == 1 then
+                for i = 2, shards do redis.call('setnx', KEYS[i], 0) end
+            else
+                local pending = tonumber(redis.call('hget', KEYS[shards + 1], category) or '0')
+                        + tonumber(redis.call('hget', KEYS[shards + 2], category) or '0')
+                local stock = math.max(tonumber(ARGV[1]) - pending, 0)
+                local share = math.floor(stock / shards)
+                for i = shards, 1, -1 do
+                    local amount = share
+                    if i == 1 then amount = stock - share * (shards - 1) end
+                    redis.call('set', KEYS[i], amount)
+                end
+                result = stock
+            end
+            local sum = 0
+            for i = 1, shards do sum = sum + tonumber(redis.call('get', KEYS[i]) or '0') end
+            local total = tonumber(ARGV[3])
+            redis.call('hset', snapshot, category .. ':stock', sum, category .. ':total', total,
+                    category .. ':price', ARGV[4], category .. ':tier', tier(sum, total))
+            redis.call('hincrby', snapshot, category .. ':version', 1)
+            redis.call('pexpireat', snapshot, ARGV[5])
+            return result
+            """, Long.class);
+
+    /**
+     * Redistributes the stock of shard keys KEYS[1..n]. ARGV[1] is the total
+     * below which everything is merged into shard 0, so the last tickets of a
+     * category are not stranded in shards too small for a request.
+     */
+    private static final DefaultRedisScript<Long> REBALANCE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then return -2 end
+            local total = 0
+            for i = 1, #KEYS do total = total + tonumber(redis.call('get', KEYS[i]) or '0') end
+            if total < tonumber(ARGV[1]) then
+                for i = 2, #KEYS do redis.call('set', KEYS[i], 0) end
+                redis.call('set', KEYS[1], total)
+                return total
+            end
+            local share = math.floor(total / #KEYS)
+            for i = 2, #KEYS do redis.call('set', KEYS[i], share) end
+            redis.call('set', KEYS[1], total - share * (#KEYS - 1))
+            return total
+            """, Long.class);
+
+    /**
+     * KEYS[1] pending hash, KEYS[2] in-flight hash. ARGV[1] categoryId, ARGV[2]
+     * now and ARGV[3] lease in millis. Moves the pending delta of one category
+     * in flight, so only one node flushes it and a re-seed keeps subtracting it
+     * until the database update commits. Returns the claimed delta and the
+     * delta of an abandoned claim it dropped; nothing is claimed while another
+     * flush of the category is in flight.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_PENDING_SCRIPT = new DefaultRedisScript<>("""
+            local category = ARGV[1]
+            local now = tonumber(ARGV[2])
+            local abandoned = 0
+            local claimedAt = redis.call('hget', KEYS[2], category .. ':at')
+            if claimedAt then
+                if tonumber(claimedAt) + tonumber(ARGV[3]) > now then return { 0, 0 } end
+                abandoned = tonumber(redis.call('hget', KEYS[2], category) or '0')
+                redis.call('hdel', KEYS[2], category, category .. ':at')
+            end
+            local pending = tonumber(redis.call('hget', KEYS[1], category) or '0')
+            if pending == 0 then
+                redis.call('hdel', KEYS[1], category)
+                return { 0, abandoned }
+            end
+            redis.call('hincrby', KEYS[1], category, -pending)
+            redis.call('hset', KEYS[2], category, pending, category .. ':at', ARGV[2])
+            return { pending, abandoned }
+            """, List.class);
+
+    /**
+     * KEYS[1] pending hash, KEYS[2] in-flight hash. ARGV[1] categoryId, ARGV[2]
+     * claim time, ARGV[3] delta to put back to pending (0 once applied). Ends
+     * the flush unless its claim was taken over meanwhile.
+     */
+    private static final DefaultRedisScript<Long> FINISH_FLUSH_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('hget', KEYS[2], ARGV[1] .. ':at') ~= ARGV[2] then return 0 end
+            if tonumber(ARGV[3]) ~= 0 then redis.call('hincrby', KEYS[1], ARGV[1], ARGV[3]) end
+            redis.call('hdel', KEYS[2], ARGV[1], ARGV[1] .. ':at')
+            return 1
+            """, Long.class);
+
     private final RedisTemplate<String, String> redisTemplate;
     private final TicketCategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventCategoryCatalog categoryCatalog;
+
+    // Categories reserved through the database while Redis was down; their
+    // Redis counters are stale and get re-seeded once Redis is reachable again
+    private final Set<UUID> fallbackCategories = ConcurrentHashMap.newKeySet();
+
+    // Categories with sharded counters reserved on this node, for the rebalancer
+    private final Set<UUID> shardedCategories = ConcurrentHashMap.newKeySet();
+
+    private final Map<UUID, UUID> eventOfCategory = new ConcurrentHashMap<>();
+
+    @Value("${inventory.engine:redis}")
+    private String engine;
+
+    // Redis counters per category; shard 0 is stock::<categoryId>, shard n stock::<categoryId>::<n>
+    @Value("${inventory.shards:1}")
+    private int shards;
+
+    // Remaining stock (summed over shards) below which the rebalancer merges it into one shard
+    @Value("${inventory.shards.merge-below:100}")
+    private int mergeBelow;
+
+    // How long an event snapshot outlives the event itself
+    @Value("${inventory.snapshot.retention-hours:24}")
+    private long snapshotRetentionHours;
 
     public List<AvailabilityItem> getAvailability(UUID eventId) {
         log.info("Getting availability for all categories in event: {}", eventId);
 
-        List<TicketCategoryModel> categories = categoryRepository.findByEventId(eventId);
+        List<EventCategoryCatalog.CategoryInfo> categories = categoryCatalog.categories(eventId);
+        Map<UUID, Integer> stock = getEventStock(eventId, categories);
 
         return categories.stream()
-                .map(this::buildAvailabilityResponse)
+                .map(category -> buildAvailabilityResponse(category, stock.get(category.id())))
                 .collect(Collectors.toList());
     }
 
-    private AvailabilityItem buildAvailabilityResponse(TicketCategoryModel category) {
-        String stockKey = "stock::" + category.getId();
-        Integer availableStock;
+    /**
+     * Reserves {@code quantity} tickets of a category. Uses the atomic Redis
+     * counter when the Redis engine is active and falls back to a conditional
+     * database update when Redis is unreachable. Must be called inside the
+     * booking transaction: a Redis reservation is handed back automatically if
+     * that transaction rolls back.
+     *
+     * @param bookingKey picks the counter shard, e.g. the idempotency key
+     * @return true when the tickets were reserved, false when stock ran out
+     */
+    public boolean reserve(UUID categoryId, int quantity, String bookingKey) {
+        return reserveBatch(categoryId, List.of(quantity), bookingKey)[0];
+    }
+
+    /**
+     * Reserves several requests against one category with a single stock
+     * decrement. Requests are granted in order while they still fit, so a
+     * request that does not fit is rejected without blocking smaller ones
+     * behind it.
+     *
+     * @param bookingKey picks the counter shard, e.g. the idempotency key of the first request
+     * @return per request whether it was granted
+     */
+    public boolean[] reserveBatch(UUID categoryId, List<Integer> quantities, String bookingKey) {
+        if (!"redis".equalsIgnoreCase(engine)) {
+            boolean[] granted = reserveFromDatabaseOnly(categoryId, quantities);
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+            return granted;
+        }
 
+        boolean[] granted = new boolean[quantities.size()];
+        int taken;
+        if (shards > 1) {
+            shardedCategories.add(categoryId);
+        }
         try {
-            String stockStr = redisTemplate.opsForValue().get(stockKey);
-            availableStock = (stockStr != null) ? Integer.parseInt(stockStr) : category.getAvailableStock();
-        } catch (Exception e) {
-            log.warn("Failed to get Redis stock for category: {}. Using DB value.", category.getId());
-            availableStock = category.getAvailableStock();
+            invalidateFallbackCategories();
+            int first = Math.floorMod(bookingKey.hashCode(), shards);
+            taken = reserveOnShards(categoryId, quantities, granted, List.of(first));
+            if (taken < 0) {
+                return reserveFromFallback(categoryId, quantities);
+            }
+            if (shards > 1 && !allGranted(granted)) {
+                taken += reserveOnSiblings(categoryId, quantities, granted, first);
+            }
+        } catch (RedisConnectionFailureException e) {
+            // Shards reached before the failure may already have granted tickets; those stay
+            // reserved in Redis (and pending write-behind), only the rest goes to the database
+            int grantedInRedis = grantedQuantity(quantities, granted);
+            if (grantedInRedis > 0) {
+                registerRollback(shardKey(categoryId, 0), categoryId, grantedInRedis);
+            }
+            return reserveRemainderFromFallback(categoryId, quantities, granted);
+        }
+
+        if (taken > 0) {
+            registerRollback(shardKey(categoryId, 0), categoryId, taken);
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+        } else {
+            log.debug("Redis stock exhausted for category: {}", categoryId);
+        }
+        return granted;
+    }
+
+    private boolean[] reserveRemainderFromFallback(UUID categoryId, List<Integer> quantities, boolean[] granted) {
+        List<Integer> open = new ArrayList<>();
+        List<Integer> openIndexes = new ArrayList<>();
+        for (int i = 0; i < granted.length; i++) {
+            if (!granted[i]) {
+                open.add(quantities.get(i));
+                openIndexes.add(i);
+            }
+        }
+        if (open.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+            return granted;
+        }
+        boolean[] fallback = reserveFromFallback(categoryId, open);
+        for (int j = 0; j < fallback.length; j++) {
+            granted[openIndexes.get(j)] = fallback[j];
+        }
+        return granted;
+    }
+
+    private static int grantedQuantity(List<Integer> quantities, boolean[] granted) {
+        int quantity = 0;
+        for (int i = 0; i < granted.length; i++) {
+            if (granted[i]) {
+                quantity += quantities.get(i);
+            }
+        }
+        return quantity;
+    }
+
+    /**
+     * Stock of each category as the sum of its Redis shards, read with one
+     * MGET. Categories not seeded in Redis (or all of them when Redis is
+     * unavailable or not the engine) report their database value.
+     */
+    public Map<UUID, Integer> getAvailableStock(List<TicketCategoryModel> categories) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        for (TicketCategoryModel category : categories) {
+            stock.put(category.getId(), category.getAvailableStock() != null ? category.getAvailableStock() : 0);
+        }
+        stock.putAll(readRedisStock(categories.stream().map(TicketCategoryModel::getId).toList()));
+        return stock;
+    }
+
+    /**
+     * Stock of every category of an event from its Redis snapshot, one
+     * HGETALL. Categories the snapshot does not hold yet are seeded and read
+     * from the database for this call, as is everything when Redis is
+     * unavailable or not the engine.
+     */
+    public Map<UUID, Integer> getEventStock(UUID eventId, List<EventCategoryCatalog.CategoryInfo> categories) {
+        List<UUID> categoryIds = categories.stream().map(EventCategoryCatalog.CategoryInfo::id).toList();
+        if (!"redis".equalsIgnoreCase(engine) || categoryIds.isEmpty()) {
+            return readDatabaseStock(categoryIds);
+        }
+
+        Map<UUID, Integer> stock = new HashMap<>();
+        try {
+            Map<Object, Object> snapshot = redisTemplate.opsForHash().entries(REDIS_SNAPSHOT_PREFIX + eventId);
+            for (UUID categoryId : categoryIds) {
+                Object value = snapshot.get(categoryId + ":stock");
+                if (value != null) {
+                    stock.put(categoryId, Integer.parseInt(value.toString()));
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to read stock snapshot of event: {}. Using DB values.", eventId);
+            return readDatabaseStock(categoryIds);
+        }
+
+        List<UUID> missing = categoryIds.stream()
+                .filter(categoryId -> !stock.containsKey(categoryId))
+                .toList();
+        if (!missing.isEmpty()) {
+            stock.putAll(readDatabaseStock(missing));
+            for (UUID categoryId : missing) {
+                try {
+                    seedRedis(categoryId);
+                } catch (Exception e) {
+                    log.warn("Failed to seed stock snapshot for category: {}", categoryId, e);
+                }
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Seeds the counters and snapshots of every upcoming event from one
+     * database query, so the first reads and reservations after a start or a
+     * Redis flush do not each pay for seeding.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmSnapshots() {
+        if (!"redis".equalsIgnoreCase(engine)) {
+            return;
+        }
+        try {
+            List<TicketCategoryModel> categories = categoryRepository.findAllOfUpcomingEvents(ZonedDateTime.now());
+            for (TicketCategoryModel category : categories) {
+                seedRedis(category);
+            }
+            log.info("Warmed stock snapshots for {} categories of upcoming events", categories.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to warm stock snapshots, categories will be seeded on first use", e);
+        }
+    }
+
+    /**
+     * Evens out the shards of every category reserved on this node and merges
+     * the stock of nearly sold-out categories into one shard.
+     */
+    @Scheduled(fixedDelayString = "${inventory.shards.rebalance-interval-ms:5000}")
+    public void rebalanceShards() {
+        if (!"redis".equalsIgnoreCase(engine) || shards <= 1) {
+            return;
+        }
+        try {
+            for (UUID categoryId : shardedCategories) {
+                Long remaining = rebalance(categoryId);
+                if (remaining == null || remaining == NOT_SEEDED || remaining == 0) {
+                    shardedCategories.remove(categoryId);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Skipping shard rebalance, Redis unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hands tickets given back to ticket_categories (cancellation, expiry) to
+     * the Redis counter once the caller's transaction commits.
+     */
+    public void release(UUID categoryId, int quantity) {
+        if (!"redis".equalsIgnoreCase(engine)) {
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+            return;
+        }
+        Runnable releaseRedis = () -> {
+            releaseToRedis(shardKey(categoryId, 0), categoryId, quantity);
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseRedis.run();
+                }
+            });
+        } else {
+            releaseRedis.run();
+        }
+    }
+
+    /**
+     * Write-behind: applies the stock reserved in Redis to
+     * ticket_categories.available_stock with one UPDATE per category. A delta
+     * the database rejects or fails on goes back to pending and is retried.
+     */
+    @Scheduled(fixedDelayString = "${inventory.write-behind.flush-interval-ms:1000}")
+    public void flushPendingReservations() {
+        if (!"redis".equalsIgnoreCase(engine)) {
+            return;
+        }
+
+        Set<String> categories = new HashSet<>();
+        try {
+            invalidateFallbackCategories();
+            for (Object field : redisTemplate.opsForHash().keys(REDIS_PENDING_KEY)) {
+                categories.add(field.toString());
+            }
+            // Abandoned claims are only found through the in-flight hash once nothing is pending
+            for (Object field : redisTemplate.opsForHash().keys(REDIS_IN_FLIGHT_KEY)) {
+                if (!field.toString().endsWith(":at")) {
+                    categories.add(field.toString());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Skipping write-behind flush, Redis unavailable: {}", e.getMessage());
+            return;
+        }
+
+        for (String category : categories) {
+            flushPending(UUID.fromString(category));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flushPending(UUID categoryId) {
+        List<String> keys = List.of(REDIS_PENDING_KEY, REDIS_IN_FLIGHT_KEY);
+        String claimedAt = String.valueOf(System.currentTimeMillis());
+        List<Long> claim = redisTemplate.execute(CLAIM_PENDING_SCRIPT, keys, categoryId.toString(), claimedAt,
+                String.valueOf(FLUSH_CLAIM_LEASE.toMillis()));
+        if (claim == null) {
+            return;
+        }
+        if (claim.get(1) != 0) {
+            log.error("Dropped write-behind of {} tickets for category: {} left in flight by a failed flush. "
+                    + "It is assumed applied; reconciliation corrects it if not.", claim.get(1), categoryId);
+        }
+        long delta = claim.get(0);
+        if (delta == 0) {
+            return;
         }
 
+        long requeue = 0;
+        try {
+            int updated = delta > 0
+                    ? categoryRepository.decreaseStock(categoryId, (int) delta)
+                    : categoryRepository.increaseStock(categoryId, (int) -delta);
+            if (updated == 0) {
+                log.error("Write-behind of {} tickets rejected by database for category: {}. Re-queueing it "
+                        + "until reconciliation corrects the database stock.", delta, categoryId);
+                requeue = delta;
+            } else {
+                log.debug("Flushed {} reserved tickets to database for category: {}", delta, categoryId);
+            }
+        } catch (DataAccessException e) {
+            log.error("Write-behind flush failed for category: {}. Re-queueing {} tickets.", categoryId, delta, e);
+            requeue = delta;
+        }
+
+        try {
+            redisTemplate.execute(FINISH_FLUSH_SCRIPT, keys, categoryId.toString(), claimedAt,
+                    String.valueOf(requeue));
+        } catch (DataAccessException e) {
+            log.error("Failed to finish write-behind of {} tickets for category: {}", delta, categoryId, e);
+        }
+    }
+
+    private AvailabilityItem buildAvailabilityResponse(EventCategoryCatalog.CategoryInfo category,
+            Integer availableStock) {
         AvailabilityItem response = new AvailabilityItem();
-        response.setCategoryId(category.getId());
-        response.setCategoryName(category.getName());
-        response.setConcertName(category.getEvent() != null ? category.getEvent().getName() : null);
-        response.setArtistName(category.getEvent() != null ? category.getEvent().getArtist() : null);
-        response.setTotalAllocation(category.getTotalAllocation() != null ? category.getTotalAllocation() : 0);
+        response.setCategoryId(category.id());
+        response.setCategoryName(category.name());
+        response.setConcertName(category.concertName());
+        response.setArtistName(category.artistName());
+        response.setTotalAllocation(category.totalAllocation());
         response.setAvailableStock(availableStock != null ? availableStock : 0);
         response.setStatus((availableStock != null && availableStock > 0) ? "AVAILABLE" : "SOLD_OUT");
 
         return response;
     }
 
-    private Long reserveFromRedis(String stockKey) {
+    /**
+     * Offers the still ungranted requests to the given shards in turn. Returns
+     * the quantity taken, or -1 when Redis could not be used and nothing was
+     * taken.
+     */
+    private int reserveOnShards(UUID categoryId, List<Integer> quantities, boolean[] granted,
+            List<Integer> shardOrder) {
+        int taken = 0;
+        for (int shard : shardOrder) {
+            if (allGranted(granted)) {
+                break;
+            }
+            String stockKey = shardKey(categoryId, shard);
+
+            List<Integer> open = new ArrayList<>();
+            List<Integer> openIndexes = new ArrayList<>();
+            for (int i = 0; i < granted.length; i++) {
+                if (!granted[i]) {
+                    open.add(quantities.get(i));
+                    openIndexes.add(i);
+                }
+            }
+
+            List<Long> result = reserveFromRedis(stockKey, categoryId, open);
+            if (result != null && result.get(0) == NOT_SEEDED) {
+                seedRedis(categoryId);
+                result = reserveFromRedis(stockKey, categoryId, open);
+            }
+            if (result == null || result.get(0) == NOT_SEEDED) {
+                if (taken > 0) {
+                    // Keep what other shards granted, the rest is rejected
+                    return taken;
+                }
+                return -1;
+            }
+
+            for (int j = 0; j < open.size(); j++) {
+                if (result.get(j + 1) == 1L) {
+                    granted[openIndexes.get(j)] = true;
+                    taken += open.get(j);
+                }
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Offers what the booking's own shard could not grant to the sibling
+     * shards that, by one MGET of all shards, still hold enough for an open
+     * request. When the summed stock fits no open request the category is sold
+     * out and no other shard is touched. Stock stranded in shards too small
+     * for every request is merged into shard 0 here only once the category is
+     * below the merge threshold; above it the scheduled rebalancer evens the
+     * shards out.
+     */
+    private int reserveOnSiblings(UUID categoryId, List<Integer> quantities, boolean[] granted, int first) {
+        List<String> values = redisTemplate.opsForValue().multiGet(shardKeys(categoryId));
+        if (values == null) {
+            return 0;
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i < granted.length; i++) {
+            if (!granted[i]) {
+                smallest = Math.min(smallest, quantities.get(i));
+            }
+        }
+
+        long stock = 0;
+        List<Integer> candidates = new ArrayList<>();
+        for (int attempt = 0; attempt < shards; attempt++) {
+            int shard = (first + attempt) % shards;
+            long value = values.get(shard) != null ? Long.parseLong(values.get(shard)) : 0;
+            stock += value;
+            if (attempt > 0 && value >= smallest) {
+                candidates.add(shard);
+            }
+        }
+        if (stock < smallest) {
+            log.debug("Redis stock exhausted across {} shards for category: {}", shards, categoryId);
+            return 0;
+        }
+        if (candidates.isEmpty()) {
+            if (stock >= mergeBelow) {
+                return 0;
+            }
+            rebalance(categoryId);
+            candidates = List.of(0);
+        }
+        return Math.max(reserveOnShards(categoryId, quantities, granted, candidates), 0);
+    }
+
+    // One batched query, whatever the number of categories
+    private Map<UUID, Integer> readDatabaseStock(List<UUID> categoryIds) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        if (categoryIds.isEmpty()) {
+            return stock;
+        }
+        for (CategoryStock row : categoryRepository.findAvailableStockByIdIn(categoryIds)) {
+            stock.put(row.getId(), row.getAvailableStock() != null ? row.getAvailableStock() : 0);
+        }
+        return stock;
+    }
+
+    // Summed shard stock of the categories seeded in Redis, read with one MGET;
+    // empty when Redis is not the engine or cannot be reached
+    private Map<UUID, Integer> readRedisStock(List<UUID> categoryIds) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        if (!"redis".equalsIgnoreCase(engine) || categoryIds.isEmpty()) {
+            return stock;
+        }
+
+        List<String> keys = new ArrayList<>(categoryIds.size() * shards);
+        for (UUID categoryId : categoryIds) {
+            keys.addAll(shardKeys(categoryId));
+        }
         try {
-            String script = "if redis.call('get', KEYS[1]) == false or tonumber(redis.call('get', KEYS[1])) <= 0 then "
-                    +
-                    "return -1 " +
-                    "else " +
-                    "return redis.call('decr', KEYS[1]) " +
-                    "end";
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return stock;
+            }
+            for (int c = 0; c < categoryIds.size(); c++) {
+                if (values.get(c * shards) == null) {
+                    continue; // not seeded
+                }
+                int sum = 0;
+                for (int shard = 0; shard < shards; shard++) {
+                    String value = values.get(c * shards + shard);
+                    sum += value != null ? Integer.parseInt(value) : 0;
+                }
+                stock.put(categoryIds.get(c), sum);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to get Redis stock for {} categories. Using DB values.", categoryIds.size());
+        }
+        return stock;
+    }
 
-            Long result = redisTemplate.execute(
-                    new DefaultRedisScript<>(script, Long.class),
-                    Collections.singletonList(stockKey));
+    private Long rebalance(UUID categoryId) {
+        Long total = redisTemplate.execute(REBALANCE_SCRIPT, shardKeys(categoryId), String.valueOf(mergeBelow));
+        log.debug("Rebalanced {} shards of category: {}, total stock {}", shards, categoryId, total);
+        return total;
+    }
+
+    private static boolean allGranted(boolean[] granted) {
+        for (boolean g : granted) {
+            if (!g) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String shardKey(UUID categoryId, int shard) {
+        return shard == 0
+                ? REDIS_STOCK_PREFIX + categoryId
+                : REDIS_STOCK_PREFIX + categoryId + SHARD_SEPARATOR + shard;
+    }
+
+    boolean isRedisEngine() {
+        return "redis".equalsIgnoreCase(engine);
+    }
+
+    String snapshotKey(UUID categoryId) {
+        UUID eventId = eventOfCategory.get(categoryId);
+        if (eventId == null) {
+            // Looked up outside the map so no bin lock is held across the query
+            eventId = categoryRepository.findById(categoryId)
+                    .map(category -> category.getEvent().getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryId));
+            eventOfCategory.put(categoryId, eventId);
+        }
+        return REDIS_SNAPSHOT_PREFIX + eventId;
+    }
+
+    private static Object[] snapshotFields(UUID categoryId) {
+        return new Object[] { categoryId + ":stock", categoryId + ":total", categoryId + ":price",
+                categoryId + ":tier", categoryId + ":version" };
+    }
+
+    List<String> shardKeys(UUID categoryId) {
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(categoryId, shard));
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> reserveFromRedis(String stockKey, UUID categoryId, List<Integer> quantities) {
+        try {
+            String[] args = new String[quantities.size() + 1];
+            args[0] = categoryId.toString();
+            for (int i = 0; i < quantities.size(); i++) {
+                args[i + 1] = String.valueOf(quantities.get(i));
+            }
+            List<Long> result = redisTemplate.execute(RESERVE_SCRIPT,
+                    List.of(stockKey, REDIS_PENDING_KEY, snapshotKey(categoryId)), (Object[]) args);
 
             log.debug("Redis script execution result for key {}: {}", stockKey, result);
             return result;
@@ -85,33 +780,116 @@ public class InventoryService {
         }
     }
 
-    private void rollbackRedis(String stockKey) {
+    private void seedRedis(UUID categoryId) {
+        seedRedis(categoryRepository.findWithEventById(categoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryId)));
+    }
+
+    private void seedRedis(TicketCategoryModel category) {
+        UUID categoryId = category.getId();
+        eventOfCategory.put(categoryId, category.getEvent().getId());
+        int dbStock = category.getAvailableStock() != null ? category.getAvailableStock() : 0;
+        int total = category.getTotalAllocation() != null ? category.getTotalAllocation() : 0;
+        ZonedDateTime eventDate = category.getEvent().getEventDate();
+        long expireAt = (eventDate != null ? eventDate.toInstant() : Instant.now())
+                .plus(Duration.ofHours(snapshotRetentionHours)).toEpochMilli();
+
+        List<String> keys = new ArrayList<>(shardKeys(categoryId));
+        keys.add(REDIS_PENDING_KEY);
+        keys.add(REDIS_IN_FLIGHT_KEY);
+        keys.add(snapshotKey(categoryId));
+        Long seeded = redisTemplate.execute(SEED_SCRIPT, keys, String.valueOf(dbStock), categoryId.toString(),
+                String.valueOf(total), category.getPrice() != null ? category.getPrice().toPlainString() : "0",
+                String.valueOf(expireAt));
+        if (seeded != null && seeded >= 0) {
+            log.info("Seeded Redis stock for category: {} with {} tickets over {} shards", categoryId, seeded, shards);
+        }
+    }
+
+    private void registerRollback(String stockKey, UUID categoryId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    rollbackRedis(stockKey, categoryId, quantity);
+                }
+            }
+        });
+    }
+
+    private void rollbackRedis(String stockKey, UUID categoryId, int quantity) {
         try {
-            Long newValue = redisTemplate.opsForValue().increment(stockKey);
+            Long newValue = redisTemplate.execute(ROLLBACK_SCRIPT,
+                    List.of(stockKey, REDIS_PENDING_KEY, snapshotKey(categoryId)),
+                    String.valueOf(quantity), categoryId.toString());
             log.info("Rolled back Redis stock for key: {}. New value: {}", stockKey, newValue);
+            eventPublisher.publishEvent(new StockChangedEvent(categoryId));
         } catch (Exception e) {
             log.error("Failed to rollback Redis for key: {}. Manual intervention may be required.",
                     stockKey, e);
         }
     }
 
-    private void reserveFromDatabaseOnly(UUID categoryId) {
-        log.warn("Using database-only reservation mode for category: {}", categoryId);
+    private void releaseToRedis(String stockKey, UUID categoryId, int quantity) {
+        try {
+            Long newValue = redisTemplate.execute(RELEASE_SCRIPT, List.of(stockKey, snapshotKey(categoryId)),
+                    String.valueOf(quantity), categoryId.toString());
+            log.debug("Released {} tickets to Redis key: {}. New value: {}", quantity, stockKey, newValue);
+        } catch (Exception e) {
+            log.error("Failed to release Redis stock for key: {}. Manual intervention may be required.",
+                    stockKey, e);
+        }
+    }
 
-        TicketCategoryModel category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryId));
+    private boolean[] reserveFromFallback(UUID categoryId, List<Integer> quantities) {
+        log.warn("Redis reservation unavailable, falling back to database for category: {}", categoryId);
+        boolean[] granted = reserveFromDatabaseOnly(categoryId, quantities);
+        fallbackCategories.add(categoryId);
+        eventPublisher.publishEvent(new StockChangedEvent(categoryId));
+        return granted;
+    }
 
-        if (category.getAvailableStock() <= 0) {
-            throw new InsufficientStockException("Stock not available");
+    private void invalidateFallbackCategories() {
+        if (fallbackCategories.isEmpty()) {
+            return;
+        }
+        for (UUID categoryId : fallbackCategories) {
+            redisTemplate.delete(shardKeys(categoryId));
+            redisTemplate.opsForHash().delete(snapshotKey(categoryId), snapshotFields(categoryId));
+            fallbackCategories.remove(categoryId);
+            log.info("Invalidated stale Redis stock for category: {} after database fallback", categoryId);
         }
+    }
 
-        category.setAvailableStock(category.getAvailableStock() - 1);
+    private boolean[] reserveFromDatabaseOnly(UUID categoryId, List<Integer> quantities) {
+        log.debug("Using database-only reservation mode for category: {}", categoryId);
+        boolean[] granted = new boolean[quantities.size()];
 
-        try {
-            categoryRepository.save(category);
-            log.info("Successfully reserved ticket (DB-only) for category: {}", categoryId);
-        } catch (ObjectOptimisticLockingFailureException e) {
-            throw new ConcurrentUpdateException("Stock update conflict, please try again");
+        if (quantities.size() == 1) {
+            granted[0] = categoryRepository.decreaseStock(categoryId, quantities.get(0)) > 0;
+            return granted;
+        }
+
+        // Lock the row once, grant what fits, then take the total in one UPDATE
+        Integer available = categoryRepository.findAvailableStockForUpdate(categoryId);
+        int stock = available != null ? available : 0;
+        int taken = 0;
+        for (int i = 0; i < granted.length; i++) {
+            int qty = quantities.get(i);
+            if (qty <= stock) {
+                stock -= qty;
+                taken += qty;
+                granted[i] = true;
+            }
+        }
+
+        if (taken > 0) {
+            categoryRepository.decreaseStock(categoryId, taken);
+            log.debug("Successfully reserved {} tickets (DB-only) for category: {}", taken, categoryId);
         }
+        return granted;
     }
 }
@@ -0,0 +1,10 @@
+package com.concert.ticketing.services.inventory;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link InventoryService} whenever the stock of a category
+ * moves: reservations, rollbacks and releases.
+ */
+public record StockChangedEvent(UUID categoryId) {
+}
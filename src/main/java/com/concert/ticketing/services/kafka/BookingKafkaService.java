@@ -1,7 +1,10 @@
 package com.concert.ticketing.services.kafka;
 
+import com.concert.ticketing.constant.BookingOutcomeStatus;
 import com.concert.ticketing.dto.booking.BookingMessage;
+import com.concert.ticketing.dto.booking.BookingOutcome;
 import com.concert.ticketing.dto.booking.BookingRequest;
+import com.concert.ticketing.services.booking.BookingOutcomeService;
 import com.concert.ticketing.services.booking.BookingService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,14 +12,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingKafkaService {
+    public static final String OUTCOME_TOPIC = "booking-outcome-topic";
+
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
 
@@ -36,11 +45,38 @@ public class BookingKafkaService {
                 });
     }
 
+    /**
+     * Forwards booked and sold-out outcomes to the outcome topic for
+     * analytics, keyed by category like the booking topic.
+     */
+    public void sendOutcomes(List<BookingOutcome> outcomes) {
+        for (BookingOutcome outcome : outcomes) {
+            if (outcome.status() != BookingOutcomeStatus.BOOKED && outcome.status() != BookingOutcomeStatus.SOLD_OUT) {
+                continue;
+            }
+            try {
+                kafkaTemplate.send(OUTCOME_TOPIC, outcome.categoryId().toString(),
+                        objectMapper.writeValueAsString(outcome))
+                        .whenComplete((result, ex) -> {
+                            if (ex != null) {
+                                log.warn("Failed to send booking outcome to Kafka. IdempotencyKey: {}",
+                                        outcome.idempotencyKey(), ex);
+                            }
+                        });
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize booking outcome. IdempotencyKey: {}", outcome.idempotencyKey(), e);
+            }
+        }
+    }
+
     @Service
     @RequiredArgsConstructor
+    @ConditionalOnProperty(name = "booking.consumer.mode", havingValue = "single")
     public static class BookingWorker {
         private static final Logger log = LoggerFactory.getLogger(BookingWorker.class);
         private final BookingService bookingService;
+        private final BookingOutcomeService outcomeService;
+        private final BookingKafkaService kafkaService;
         private final ObjectMapper objectMapper;
 
         @KafkaListener(topics = "booking-topic", groupId = "booking-group")
@@ -49,7 +85,9 @@ public class BookingKafkaService {
             try {
                 BookingMessage msg = objectMapper.readValue(message, BookingMessage.class);
                 log.debug("Processing booking message for IdempotencyKey: {}", msg.idempotencyKey());
-                bookingService.processInternalBooking(msg);
+                List<BookingOutcome> outcomes = List.of(bookingService.processInternalBooking(msg));
+                outcomeService.publish(outcomes);
+                kafkaService.sendOutcomes(outcomes);
                 log.info("Successfully processed booking message for IdempotencyKey: {}", msg.idempotencyKey());
             } catch (JsonProcessingException e) {
                 log.error("Failed to deserialize booking message: {}", message, e);
@@ -58,4 +96,50 @@ public class BookingKafkaService {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Service
+    @RequiredArgsConstructor
+    @ConditionalOnProperty(name = "booking.consumer.mode", havingValue = "batch", matchIfMissing = true)
+    public static class BookingBatchWorker {
+        private static final Logger log = LoggerFactory.getLogger(BookingBatchWorker.class);
+        private final BookingService bookingService;
+        private final BookingOutcomeService outcomeService;
+        private final BookingKafkaService kafkaService;
+        private final ObjectMapper objectMapper;
+
+        @KafkaListener(topics = "booking-topic", groupId = "booking-group", containerFactory = "batchKafkaListenerContainerFactory")
+        public void consume(List<String> messages) {
+            log.info("Received batch of {} booking messages from Kafka", messages.size());
+            List<BookingMessage> batch = new ArrayList<>(messages.size());
+            for (String message : messages) {
+                try {
+                    batch.add(objectMapper.readValue(message, BookingMessage.class));
+                } catch (JsonProcessingException e) {
+                    log.error("Failed to deserialize booking message: {}", message, e);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<BookingOutcome> outcomes = bookingService.processInternalBookingBatch(batch);
+                outcomeService.publish(outcomes);
+                kafkaService.sendOutcomes(outcomes);
+                log.info("Successfully processed batch of {} booking messages", batch.size());
+            } catch (Exception e) {
+                // One bad message must not sink the rest of the poll
+                log.error("Batch processing failed, retrying {} messages one by one", batch.size(), e);
+                for (BookingMessage msg : batch) {
+                    try {
+                        List<BookingOutcome> outcomes = List.of(bookingService.processInternalBooking(msg));
+                        outcomeService.publish(outcomes);
+                        kafkaService.sendOutcomes(outcomes);
+                    } catch (Exception ex) {
+                        log.error("Error processing booking message for IdempotencyKey: {}", msg.idempotencyKey(), ex);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.concert.ticketing.services.ledger;
+
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a concert's ledger, ordered by (recordedAt, id). Sent to
+ * clients as an opaque base64url token.
+ */
+record LedgerCursor(LocalDateTime recordedAt, UUID id) {
+
+    String encode() {
+        String raw = recordedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static LedgerCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new LedgerCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ServiceException(Origin.MICROSERVICE, ErrorList.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.concert.ticketing.services.ledger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams ledger entries to the client as JSON Lines or CSV. Rows are read
+ * through a server-side cursor ({@code ledger.export.fetch-size} rows per
+ * round trip) and written as they arrive, so memory stays constant whatever
+ * the size of the journal. Every row carries a keyset cursor: an export cut
+ * off at any point resumes after the last row received.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerExportService {
+
+    public enum Format {
+        JSONL, CSV
+    }
+
+    public record ExportFilter(UUID concertId, ZonedDateTime from, ZonedDateTime to, String cursor, Long limit) {
+    }
+
+    private static final String CSV_HEADER = "id,bookingId,concertId,type,amount,recordedAt,cursor\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ledger.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Validates the filter before the response is committed; an invalid
+     * cursor is reported as a normal error rather than a cut-off stream.
+     */
+    public ExportFilter validate(ExportFilter filter) {
+        if (filter.cursor() != null) {
+            LedgerCursor.decode(filter.cursor());
+        }
+        return filter;
+    }
+
+    public long export(ExportFilter filter, Format format, OutputStream out) throws IOException {
+        LedgerCursor after = filter.cursor() != null ? LedgerCursor.decode(filter.cursor()) : null;
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, booking_id, concert_id, type, amount, recorded_at FROM ledger_entries WHERE true");
+        List<Object> args = new ArrayList<>();
+        if (filter.concertId() != null) {
+            sql.append(" AND concert_id = ?");
+            args.add(filter.concertId());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND recorded_at >= ?");
+            args.add(filter.from().toOffsetDateTime());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND recorded_at < ?");
+            args.add(filter.to().toOffsetDateTime());
+        }
+        if (after != null) {
+            // The plain bound prunes the monthly partitions before the cursor
+            sql.append(" AND recorded_at >= ? AND (recorded_at, id) > (?, ?)");
+            args.add(Timestamp.valueOf(after.recordedAt()));
+            args.add(Timestamp.valueOf(after.recordedAt()));
+            args.add(after.id());
+        }
+        // Served by idx_ledger_concert_recorded or idx_ledger_recorded, partition by partition
+        sql.append(" ORDER BY recorded_at, id");
+        if (filter.limit() != null) {
+            sql.append(" LIMIT ?");
+            args.add(filter.limit());
+        }
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new JsonLinesRowWriter(out);
+        // PostgreSQL only streams with a fetch size inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        long[] rows = { 0 };
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString());
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.write(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            // Client went away; the transaction and cursor are released above
+            throw e.getCause();
+        }
+        writer.close();
+        log.info("Exported {} ledger entries as {}", rows[0], format);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException, IOException;
+
+        void close() throws IOException;
+    }
+
+    private static Row read(ResultSet resultSet) throws SQLException {
+        LocalDateTime recordedAt = resultSet.getTimestamp("recorded_at").toLocalDateTime();
+        UUID id = resultSet.getObject("id", UUID.class);
+        return new Row(id, resultSet.getObject("booking_id", UUID.class),
+                resultSet.getObject("concert_id", UUID.class), resultSet.getString("type"),
+                resultSet.getBigDecimal("amount"), recordedAt, new LedgerCursor(recordedAt, id).encode());
+    }
+
+    record Row(UUID id, UUID bookingId, UUID concertId, String type, BigDecimal amount, LocalDateTime recordedAt,
+            String cursor) {
+    }
+
+    private final class JsonLinesRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        // Flushed by the generator's buffer filling up, not after every row
+        private final ObjectWriter rowWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        JsonLinesRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            rowWriter.writeValue(generator, read(row));
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            Row row = read(resultSet);
+            writer.write(row.id() + "," + row.bookingId() + "," + (row.concertId() != null ? row.concertId() : "")
+                    + "," + escape(row.type()) + "," + row.amount().toPlainString() + "," + row.recordedAt() + ","
+                    + row.cursor() + "\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.concert.ticketing.services.ledger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of ledger_entries (V10): partitions are
+ * created {@code ledger.partitions.months-ahead} months in advance, and with
+ * {@code ledger.partitions.archive-after-months} set, months older than that
+ * are written to a gzipped CSV in {@code ledger.partitions.archive-dir},
+ * detached and dropped. Settlement totals are kept in concert_settlements and
+ * stay complete after a month is archived.
+ * <p>
+ * Runs on every node under a Postgres advisory lock, so one node works at a
+ * time. A partition is detached under a short lock timeout, so a busy parent
+ * table is retried on the next run rather than blocking bookings.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerPartitionService {
+
+    private static final long ADVISORY_LOCK_ID = 0x1ED6E7L;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    static final String PARTITION_PREFIX = "ledger_entries_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerExportService exportService;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong defaultPartitionRows = new AtomicLong();
+
+    @Value("${ledger.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${ledger.partitions.archive-after-months:0}")
+    private int archiveAfterMonths;
+
+    @Value("${ledger.partitions.archive-dir:archive/ledger}")
+    private String archiveDir;
+
+    @Value("${ledger.partitions.detach-lock-timeout:5s}")
+    private String detachLockTimeout;
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("ledger.partitions.default.rows", defaultPartitionRows);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${ledger.partitions.maintenance-cron:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                    lock.setLong(1, ADVISORY_LOCK_ID);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next() || !rs.getBoolean(1)) {
+                            return false;
+                        }
+                    }
+                }
+                try {
+                    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+                    createPartitions(current);
+                    checkDefaultPartition();
+                    if (archiveAfterMonths > 0) {
+                        archivePartitions(connection, current.minusMonths(archiveAfterMonths));
+                    }
+                    return true;
+                } finally {
+                    try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                        unlock.setLong(1, ADVISORY_LOCK_ID);
+                        unlock.execute();
+                    }
+                }
+            });
+            if (!Boolean.TRUE.equals(ran)) {
+                log.debug("Ledger partition maintenance running on another node");
+            }
+        } catch (DataAccessException e) {
+            log.error("Ledger partition maintenance failed", e);
+        }
+    }
+
+    void createPartitions(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForObject("SELECT create_ledger_partition(?)", String.class,
+                    current.plusMonths(i).atDay(1));
+        }
+    }
+
+    // Rows land here only when maintenance fell behind; they block creating
+    // the partition for their month and have to be moved by hand
+    private void checkDefaultPartition() {
+        Long stray = jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entries_default", Long.class);
+        defaultPartitionRows.set(stray != null ? stray : 0);
+        if (stray != null && stray > 0) {
+            log.error("{} ledger entries are in the default partition; create their monthly partitions", stray);
+        }
+    }
+
+    /** Archives every monthly partition before {@code cutoff}, oldest first. */
+    void archivePartitions(Connection connection, YearMonth cutoff) throws SQLException {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'ledger_entries'::regclass AND c.relname ~ '^ledger_entries_[0-9]{4}_[0-9]{2}$'
+                ORDER BY c.relname
+                """, String.class);
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            try {
+                archive(connection, partition, month);
+            } catch (IOException e) {
+                log.error("Failed to archive ledger partition {}, keeping it attached", partition, e);
+                return;
+            }
+        }
+    }
+
+    private void archive(Connection connection, String partition, YearMonth month)
+            throws IOException, SQLException {
+        Path directory = Path.of(archiveDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(partition + ".csv.gz");
+        Path partial = directory.resolve(partition + ".csv.gz.partial");
+
+        // Bounded to one month, so only this partition is scanned
+        LedgerExportService.ExportFilter filter = new LedgerExportService.ExportFilter(null,
+                month.atDay(1).atStartOfDay(ZoneOffset.UTC),
+                month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC), null, null);
+        long exported;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+            exported = exportService.export(filter, LedgerExportService.Format.CSV, out);
+        }
+
+        // Old months receive no inserts, so the count still holds after the detach.
+        // CONCURRENTLY is not available while the default partition exists.
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL lock_timeout = '" + detachLockTimeout.replace("'", "") + "'");
+            statement.execute("ALTER TABLE ledger_entries DETACH PARTITION " + partition);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        long rows;
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + partition)) {
+            rs.next();
+            rows = rs.getLong(1);
+        }
+        if (rows != exported) {
+            log.error("Ledger partition {} has {} rows but {} were archived; left detached for review",
+                    partition, rows, exported);
+            return;
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + partition);
+        }
+        meterRegistry.counter("ledger.partitions.archived").increment();
+        log.info("Archived {} ledger entries of {} to {}", exported, month, file);
+    }
+}
@@ -1,14 +1,17 @@
 package com.concert.ticketing.services.ledger;
 
-import com.concert.ticketing.model.LedgerEntriesModel;
+import com.concert.ticketing.dto.settlement.LedgerTransaction;
+import com.concert.ticketing.dto.settlement.SettlementReport;
+import com.concert.ticketing.dto.settlement.SettlementTotals;
+import com.concert.ticketing.dto.settlement.TransactionPage;
 import com.concert.ticketing.repositories.LedgerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -16,45 +19,46 @@ import java.util.UUID;
 public class SettlementService {
     private final LedgerRepository ledgerRepository;
 
-    public Map<String, Object> getSettlementReport(UUID concertId) {
-        List<LedgerEntriesModel> entries = ledgerRepository.findByConcertId(concertId);
-
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        BigDecimal totalRefunds = BigDecimal.ZERO;
-        int debitCount = 0;
-        int creditCount = 0;
-
-        for (LedgerEntriesModel entry : entries) {
-            if ("DEBIT".equals(entry.getType())) {
-                totalRevenue = totalRevenue.add(entry.getAmount());
-                debitCount++;
-            } else if ("CREDIT".equals(entry.getType())) {
-                totalRefunds = totalRefunds.add(entry.getAmount());
-                creditCount++;
-            }
-        }
+    /**
+     * Reads the running totals kept by the ledger insert trigger, so the cost
+     * does not grow with the number of transactions.
+     */
+    @Transactional(readOnly = true)
+    public SettlementReport getSettlementReport(UUID concertId) {
+        SettlementTotals totals = ledgerRepository.findSettlementTotals(concertId);
+
+        BigDecimal totalRevenue = orZero(totals != null ? totals.getTotalRevenue() : null);
+        BigDecimal totalRefunds = orZero(totals != null ? totals.getTotalRefunds() : null);
+        return new SettlementReport(
+                concertId,
+                totalRevenue,
+                totalRefunds,
+                totalRevenue.subtract(totalRefunds),
+                totals != null && totals.getTransactionCount() != null ? totals.getTransactionCount() : 0,
+                totals != null && totals.getDebitCount() != null ? totals.getDebitCount() : 0,
+                totals != null && totals.getCreditCount() != null ? totals.getCreditCount() : 0);
+    }
 
-        Map<String, Object> report = new HashMap<>();
-        report.put("concertId", concertId);
-        report.put("totalRevenue", totalRevenue);
-        report.put("totalRefunds", totalRefunds);
-        report.put("netRevenue", totalRevenue.subtract(totalRefunds));
-        report.put("transactionCount", entries.size());
-        report.put("bookingCount", debitCount);
-        report.put("refundCount", creditCount);
-        report.put("transactions", entries.stream().map(e -> {
-            Map<String, Object> m = new HashMap<>();
-            m.put("bookingId", e.getBookingId());
-            m.put("amount", e.getAmount());
-            m.put("type", e.getType());
-            m.put("recordedAt", e.getRecordedAt());
-            return m;
-        }).toList());
-
-        return report;
+    /** One page of a concert's transactions in recording order. */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactions(UUID concertId, String cursor, int limit) {
+        LedgerCursor after = cursor != null ? LedgerCursor.decode(cursor) : null;
+
+        // One extra row tells whether there is a next page
+        List<LedgerTransaction> page = after == null
+                ? ledgerRepository.findFirstTransactions(concertId, Limit.of(limit + 1))
+                : ledgerRepository.findTransactionsAfter(concertId, after.recordedAt(), after.id(),
+                        Limit.of(limit + 1));
+
+        if (page.size() <= limit) {
+            return new TransactionPage(page, null);
+        }
+        List<LedgerTransaction> transactions = page.subList(0, limit);
+        LedgerTransaction last = transactions.get(limit - 1);
+        return new TransactionPage(transactions, new LedgerCursor(last.recordedAt(), last.id()).encode());
     }
 
-    public List<LedgerEntriesModel> getAllTransactions() {
-        return ledgerRepository.findAll();
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
     }
 }
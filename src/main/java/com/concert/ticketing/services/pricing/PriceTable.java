@@ -0,0 +1,35 @@
+package com.concert.ticketing.services.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Materialized prices of one event. Prices only change when the occupancy of
+ * a category crosses a surge tier, so the table is rebuilt on tier changes
+ * rather than per read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceTable {
+    private UUID eventId;
+    private List<CategoryPrice> categories;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryPrice {
+        private UUID categoryId;
+        private String concertName;
+        private String artistName;
+        private int tier;
+        private BigDecimal currentPrice;
+        // stock when the price was last computed
+        private int availableStock;
+    }
+}
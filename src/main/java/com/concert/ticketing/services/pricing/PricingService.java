@@ -2,97 +2,285 @@ package com.concert.ticketing.services.pricing;
 
 import com.concert.ticketing.constant.ErrorList;
 import com.concert.ticketing.constant.Origin;
-import com.concert.ticketing.dto.pricing.PricingAuditDTO;
 import com.concert.ticketing.dto.pricing.PricingItem;
 import com.concert.ticketing.exception.ServiceException;
 import com.concert.ticketing.model.TicketCategoryModel;
 import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.inventory.EventCategoryCatalog;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.concert.ticketing.services.inventory.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Surge pricing served from a materialized per-event {@link PriceTable}, held
+ * in memory and in Redis. Stock changes only mark their event; a refresh job
+ * recomputes the marked events and replaces a table only when a category
+ * crossed an occupancy tier, then tells every node to drop its copy. A
+ * pricing read is a local lookup of the prices plus the event's current stock,
+ * which moves with every booking and so is never taken from the table.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class PricingService {
+public class PricingService implements MessageListener {
+
+    public static final String PRICE_TABLE_PREFIX = "pricing::";
+    public static final String INVALIDATION_CHANNEL = "pricing-invalidation";
+
+    // Surge multiplier per tier: occupancy < 0.1, up to 0.4, 0.7, 0.9 and above 0.9
+    private static final double[] TIER_MULTIPLIERS = { 0.1, 1.0, 1.3, 1.8, 2.5 };
+
     private final TicketCategoryRepository ticketCategoryRepository;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final InventoryService inventoryService;
+    private final EventCategoryCatalog categoryCatalog;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
 
-    private static final String REDIS_STOCK_PREFIX = "stock::";
+    // Categories whose stock moved since the last refresh
+    private final Set<UUID> changedCategories = ConcurrentHashMap.newKeySet();
 
-    public List<PricingItem> getRealTimePricing(UUID eventId) {
-        log.info("Getting real-time pricing for all categories in event: {}", eventId);
+    @Value("${pricing.table.max-size:10000}")
+    private long maxSize;
 
-        List<TicketCategoryModel> categories = ticketCategoryRepository.findByEventId(eventId);
+    @Value("${pricing.table.ttl-minutes:60}")
+    private long ttlMinutes;
 
-        if (categories.isEmpty()) {
-            log.warn("No ticket categories found for event: {}", eventId);
-            throw new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
-        }
+    private Cache<UUID, PriceTable> tables;
 
-        return categories.stream()
-                .map(category -> getRealTimePricingForCategory(category))
-                .collect(Collectors.toList());
+    @PostConstruct
+    void init() {
+        tables = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public List<PricingItem> getRealTimePricing(UUID eventId) {
+        log.debug("Getting real-time pricing for all categories in event: {}", eventId);
+
+        PriceTable table = tables.getIfPresent(eventId);
+        if (table == null) {
+            table = readRedis(eventId);
+            if (table == null) {
+                // Built from the current stock, so no second read is needed
+                table = buildTable(eventId);
+                writeRedis(table);
+                tables.put(eventId, table);
+                meterRegistry.counter("pricing.table.builds", "reason", "load").increment();
+                return table.getCategories().stream()
+                        .map(price -> toItem(price, price.getAvailableStock()))
+                        .toList();
+            }
+            tables.put(eventId, table);
+        }
+        return withCurrentStock(table);
     }
 
     public PricingItem getRealTimePricingForCategory(UUID categoryId) {
-        TicketCategoryModel ticketCategory = ticketCategoryRepository.findById(categoryId)
+        TicketCategoryModel ticketCategory = ticketCategoryRepository.findWithEventById(categoryId)
                 .orElseThrow(() -> {
                     log.warn("Failed to inquiry ticket category id '{}'", categoryId);
                     return new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
                 });
-        return getRealTimePricingForCategory(ticketCategory);
+        Map<UUID, Integer> stock = inventoryService.getAvailableStock(List.of(ticketCategory));
+        PriceTable.CategoryPrice price = price(EventCategoryCatalog.CategoryInfo.of(ticketCategory),
+                stock.get(categoryId));
+        return toItem(price, price.getAvailableStock());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        changedCategories.add(event.categoryId());
     }
 
-    private PricingItem getRealTimePricingForCategory(TicketCategoryModel ticketCategory) {
-        UUID categoryId = ticketCategory.getId();
-        String stockKey = REDIS_STOCK_PREFIX + categoryId;
-        String availableStockStr = redisTemplate.opsForValue().get(stockKey);
+    /**
+     * Recomputes the tables of events whose stock moved and publishes those
+     * where a category changed tier. Events nobody has priced yet are skipped;
+     * their first read builds a current table.
+     */
+    @Scheduled(fixedDelayString = "${pricing.refresh-interval-ms:250}")
+    public void refreshChangedTables() {
+        if (changedCategories.isEmpty()) {
+            return;
+        }
+        Set<UUID> events = new HashSet<>();
+        for (UUID categoryId : changedCategories) {
+            changedCategories.remove(categoryId);
+            UUID eventId = categoryCatalog.eventOf(categoryId);
+            if (eventId != null) {
+                events.add(eventId);
+            }
+        }
 
-        Integer availableStock;
+        for (UUID eventId : events) {
+            try {
+                refresh(eventId);
+            } catch (Exception e) {
+                log.error("Failed to refresh price table for event: {}", eventId, e);
+            }
+        }
+    }
 
-        if (availableStockStr == null) {
-            availableStock = ticketCategory.getAvailableStock();
-            if (availableStock == null)
-                availableStock = 0;
-            redisTemplate.opsForValue().set(stockKey, String.valueOf(availableStock), Duration.ofMinutes(10));
+    /**
+     * Drops the table of an event on every node, after the caller's
+     * transaction commits, e.g. when the event details changed.
+     */
+    public void invalidate(UUID eventId) {
+        Runnable invalidate = () -> {
+            tables.invalidate(eventId);
+            try {
+                redisTemplate.delete(PRICE_TABLE_PREFIX + eventId);
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, eventId.toString());
+            } catch (Exception e) {
+                log.warn("Failed to invalidate price table for event: {}", eventId, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
         } else {
-            availableStock = Integer.parseInt(availableStockStr);
+            invalidate.run();
         }
+    }
 
-        BigDecimal currentPrice = calculateSurge(ticketCategory.getPrice(),
-                ticketCategory.getTotalAllocation() != null ? ticketCategory.getTotalAllocation() : 0,
-                availableStock);
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Published through the JSON value serializer, so the id arrives quoted
+        String eventId = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "");
+        tables.invalidate(UUID.fromString(eventId));
+    }
 
-        String concertName = ticketCategory.getEvent() != null ? ticketCategory.getEvent().getName() : null;
-        String artistName = ticketCategory.getEvent() != null ? ticketCategory.getEvent().getArtist() : null;
+    private void refresh(UUID eventId) {
+        PriceTable current = tables.getIfPresent(eventId);
+        if (current == null) {
+            current = readRedis(eventId);
+        }
+        if (current == null) {
+            return;
+        }
 
-        return new PricingItem(categoryId, concertName, artistName, currentPrice, availableStock);
+        PriceTable next = buildTable(eventId);
+        Map<UUID, Integer> currentTiers = current.getCategories().stream().collect(Collectors.toMap(
+                PriceTable.CategoryPrice::getCategoryId, PriceTable.CategoryPrice::getTier));
+        boolean tierChanged = next.getCategories().stream()
+                .anyMatch(category -> !Integer.valueOf(category.getTier())
+                        .equals(currentTiers.get(category.getCategoryId())));
+        if (!tierChanged) {
+            return;
+        }
+
+        writeRedis(next);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, eventId.toString());
+        tables.put(eventId, next);
+        meterRegistry.counter("pricing.table.builds", "reason", "tier").increment();
+        log.info("Price table of event: {} rebuilt after a tier change", eventId);
+    }
+
+    // Static category data comes from the in-memory catalog and stock from the
+    // event's Redis snapshot, so a build is one HGETALL
+    private PriceTable buildTable(UUID eventId) {
+        List<EventCategoryCatalog.CategoryInfo> categories = categoryCatalog.categories(eventId);
+
+        if (categories.isEmpty()) {
+            log.warn("No ticket categories found for event: {}", eventId);
+            throw new ServiceException(Origin.POSTGRE, ErrorList.DATA_NOT_FOUND);
+        }
+
+        Map<UUID, Integer> stock = inventoryService.getEventStock(eventId, categories);
+        List<PriceTable.CategoryPrice> prices = categories.stream()
+                .map(category -> price(category, stock.get(category.id())))
+                .collect(Collectors.toList());
+        return new PriceTable(eventId, prices);
     }
 
-    private BigDecimal calculateSurge(BigDecimal basePrice, int total, int available) {
+    private PriceTable.CategoryPrice price(EventCategoryCatalog.CategoryInfo category, Integer availableStock) {
+        int available = availableStock != null ? availableStock : 0;
+        int tier = tier(category.totalAllocation(), available);
+        BigDecimal currentPrice = category.basePrice().multiply(BigDecimal.valueOf(1 + TIER_MULTIPLIERS[tier]));
+
+        return new PriceTable.CategoryPrice(category.id(), category.concertName(), category.artistName(), tier,
+                currentPrice, available);
+    }
+
+    static int tier(int total, int available) {
         double occupancyRate = (double) (total - available) / total;
-        double multiplier;
 
         if (occupancyRate > 0.9)
-            multiplier = 2.5;
+            return 4;
         else if (occupancyRate > 0.7)
-            multiplier = 1.8;
+            return 3;
         else if (occupancyRate > 0.4)
-            multiplier = 1.3;
+            return 2;
         else if (occupancyRate < 0.1)
-            multiplier = 0.1;
+            return 0;
         else
-            multiplier = 1.0;
+            return 1;
+    }
 
-        return basePrice.multiply(BigDecimal.valueOf(1 + multiplier));
+    // The table's stock is only as fresh as its last tier change; one HGETALL of
+    // the event's snapshot gives the current count of every category
+    private List<PricingItem> withCurrentStock(PriceTable table) {
+        Map<UUID, Integer> stock = inventoryService.getEventStock(table.getEventId(),
+                categoryCatalog.categories(table.getEventId()));
+        return table.getCategories().stream()
+                .map(price -> toItem(price, stock.getOrDefault(price.getCategoryId(), price.getAvailableStock())))
+                .toList();
+    }
+
+    private PricingItem toItem(PriceTable.CategoryPrice price, Integer availableStock) {
+        return new PricingItem(price.getCategoryId(), price.getConcertName(), price.getArtistName(),
+                price.getCurrentPrice(), availableStock);
+    }
+
+    private PriceTable readRedis(UUID eventId) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(PRICE_TABLE_PREFIX + eventId);
+            return cached instanceof PriceTable table ? table : null;
+        } catch (Exception e) {
+            log.warn("Failed to read price table of event: {} from Redis", eventId, e);
+            return null;
+        }
+    }
+
+    private void writeRedis(PriceTable table) {
+        try {
+            redisTemplate.opsForValue().set(PRICE_TABLE_PREFIX + table.getEventId(), table,
+                    Duration.ofMinutes(ttlMinutes));
+        } catch (Exception e) {
+            log.warn("Failed to write price table of event: {} to Redis", table.getEventId(), e);
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.concert.ticketing.services.ratelimit;
+
+import com.concert.ticketing.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generic cell rate algorithm (GCRA) over in-memory state. Each key holds a
+ * single theoretical arrival time updated with a CAS, so a decision costs no
+ * lock and no network call. Budgets are cluster-wide: nodes announce
+ * themselves in Redis every {@code rate-limit.sync-interval-ms} and each
+ * enforces its share of every limit. With a round-robin load balancer that
+ * adds up to the configured rate; if Redis is unreachable the last known
+ * node count is kept.
+ */
+@Slf4j
+@Service
+public class GcraRateLimiter {
+
+    static final String NODES_KEY = "ratelimit::nodes";
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RateLimitProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Theoretical arrival time per key, in System.nanoTime() units
+    private final Cache<String, AtomicLong> arrivals;
+    private volatile int nodes = 1;
+
+    public GcraRateLimiter(RedisTemplate<String, String> redisTemplate, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * Takes one request from the budget of {@code key}. Returns 0 when
+     * allowed, otherwise the nanoseconds until the next request would be.
+     */
+    public long tryAcquire(String key, int perMinute, int burst) {
+        return tryAcquire(key, perMinute, burst, System.nanoTime());
+    }
+
+    long tryAcquire(String key, int perMinute, int burst, long now) {
+        int share = nodes;
+        long interval = MINUTE_NANOS * share / perMinute;
+        long tolerance = interval * (Math.max(1, burst / share) - 1);
+
+        AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long tat = arrival.get();
+            long start = Math.max(tat, now);
+            long allowAt = start - tolerance;
+            if (allowAt > now) {
+                return allowAt - now;
+            }
+            if (arrival.compareAndSet(tat, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    int nodes() {
+        return nodes;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sync-interval-ms:5000}")
+    public void syncNodes() {
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - 3 * properties.getSyncIntervalMs());
+            Long count = redisTemplate.opsForZSet().zCard(NODES_KEY);
+            int current = count != null && count > 0 ? count.intValue() : 1;
+            if (current != nodes) {
+                log.info("Rate limit budgets now split across {} nodes", current);
+                nodes = current;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to sync rate limit nodes, keeping {}: {}", nodes, e.getMessage());
+        }
+    }
+}
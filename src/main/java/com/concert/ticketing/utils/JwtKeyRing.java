@@ -0,0 +1,128 @@
+package com.concert.ticketing.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * HMAC signing keys shared by every node, read from the JSON file at
+ * {@code jwt.keyring.path}:
+ *
+ * <pre>
+ * [ { "kid": "2026-10", "secret": "&lt;base64, 32+ bytes&gt;", "notBefore": "2026-10-01T00:00:00Z" } ]
+ * </pre>
+ *
+ * Tokens are signed with the newest key whose {@code notBefore} has passed and
+ * verified with whichever key their {@code kid} header names. A key is
+ * rotated in by adding it ahead of its {@code notBefore} and retired by
+ * removing it once the tokens it signed have expired. The file is re-read
+ * when it changes; verification itself is a map lookup.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private final ObjectMapper objectMapper;
+    private final String path;
+
+    private volatile Ring ring;
+    private volatile FileTime loadedModifiedTime;
+
+    public record KeyEntry(String kid, String secret, Instant notBefore) {
+    }
+
+    public record SigningKey(String kid, SecretKey key) {
+    }
+
+    private record Ring(Map<String, SecretKey> keys, List<KeyEntry> bySchedule) {
+    }
+
+    public JwtKeyRing(ObjectMapper objectMapper, @Value("${jwt.keyring.path:}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        if (path == null || path.isBlank()) {
+            // Tanpa key file: key acak per proses, token hanya valid di node ini
+            String secret = Base64.getEncoder()
+                    .encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+            this.ring = build(List.of(new KeyEntry("ephemeral", secret, Instant.EPOCH)));
+            log.warn("jwt.keyring.path is not set, tokens are signed with an ephemeral key of this node only");
+        } else {
+            reload();
+            if (ring == null) {
+                throw new IllegalStateException("Failed to load JWT key ring from " + path);
+            }
+        }
+    }
+
+    /** Newest key already in effect, used to sign new tokens. */
+    public SigningKey signingKey() {
+        Instant now = Instant.now();
+        Ring current = ring;
+        KeyEntry active = current.bySchedule().stream()
+                .filter(entry -> !entry.notBefore().isAfter(now))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new IllegalStateException("No JWT signing key is in effect yet"));
+        return new SigningKey(active.kid(), current.keys().get(active.kid()));
+    }
+
+    /** @return the key with this id, or null when the ring does not hold it */
+    public SecretKey verificationKey(String kid) {
+        return kid == null ? null : ring.keys().get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keyring.reload-interval-ms:60000}")
+    public void reload() {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        try {
+            Path file = Path.of(path);
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(loadedModifiedTime)) {
+                return;
+            }
+            List<KeyEntry> entries = objectMapper.readValue(file.toFile(), new TypeReference<List<KeyEntry>>() {
+            });
+            ring = build(entries);
+            loadedModifiedTime = modified;
+            log.info("Loaded JWT key ring with key ids {}", ring.keys().keySet());
+        } catch (IOException | RuntimeException e) {
+            // Ring lama tetap dipakai sampai file valid lagi
+            log.error("Failed to load JWT key ring from {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static Ring build(List<KeyEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("key ring is empty");
+        }
+        for (KeyEntry entry : entries) {
+            if (entry.kid() == null || entry.secret() == null || entry.notBefore() == null) {
+                throw new IllegalArgumentException("every key needs kid, secret and notBefore");
+            }
+        }
+        Map<String, SecretKey> keys = entries.stream().collect(Collectors.toUnmodifiableMap(KeyEntry::kid,
+                entry -> Keys.hmacShaKeyFor(Base64.getDecoder().decode(entry.secret()))));
+        List<KeyEntry> bySchedule = entries.stream()
+                .sorted(Comparator.comparing(KeyEntry::notBefore))
+                .toList();
+        return new Ring(keys, bySchedule);
+    }
+}
@@ -1,31 +1,64 @@
 package com.concert.ticketing.utils;
 
 import com.concert.ticketing.dto.auth.TokenResponse;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtUtils {
-    private final SecretKey key;
+    private final JwtKeyRing keyRing;
+    // Immutable and thread-safe, built once instead of per verification
+    private final JwtParser parser;
 
-    public JwtUtils() {
-        this.key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-        log.info("JwtUtils initialized with a new SecretKey");
+    public JwtUtils(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        SecretKey key = keyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private static final String ROLE_CLAIM = "role";
+
+    /**
+     * Claims of a token whose signature and expiry have been checked. Role and
+     * token id are null on tokens issued without them.
+     */
+    public record VerifiedToken(String username, String role, String tokenId, Instant expiresAt) {
     }
 
     private static final long expire = 1000 * 60 * 15; // 15 menit
 
-    public TokenResponse generateToken(String username) {
+    /**
+     * Issues a token carrying the role and a unique token id, so it can be
+     * authorized and revoked without a server-side session.
+     */
+    public TokenResponse generateToken(String username, String role) {
         long now = System.currentTimeMillis();
         Date expiryDate = new Date(now + expire);
 
@@ -33,11 +66,15 @@ public class JwtUtils {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         String formattedExpiry = localExpiry.format(formatter);
 
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(ROLE_CLAIM, role)
                 .setIssuedAt(new Date(now))
                 .setExpiration(expiryDate)
-                .signWith(key)
+                .signWith(signingKey.key(), SignatureAlgorithm.HS256)
                 .compact();
 
         return TokenResponse.builder()
@@ -46,28 +83,22 @@ public class JwtUtils {
                 .build();
     }
 
-    public boolean isTokenValid(String token) {
+    /**
+     * Verifies the token once and returns its subject and expiry.
+     *
+     * @return the verified token, or null when it is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new VerifiedToken(claims.getSubject(), claims.get(ROLE_CLAIM, String.class), claims.getId(),
+                    claims.getExpiration().toInstant());
         } catch (JwtException e) {
             log.warn("JWT Validation failed: {}", e.getMessage());
-            return false;
+            return null;
         } catch (IllegalArgumentException e) {
             log.warn("JWT claims string is empty: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
-
-    public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
 }
@@ -0,0 +1,69 @@
+-- V10__partition_ledger_entries.sql
+-- Convert the append-only ledger to monthly range partitions on recorded_at
+-- (UTC months). Partitions ahead of time are created by LedgerPartitionService
+-- through create_ledger_partition(); old ones can be archived and detached.
+
+ALTER TABLE ledger_entries RENAME TO ledger_entries_legacy;
+DROP TRIGGER IF EXISTS trg_ledger_settlements ON ledger_entries_legacy;
+DROP INDEX IF EXISTS idx_ledger_booking;
+DROP INDEX IF EXISTS idx_ledger_concert_recorded;
+DROP INDEX IF EXISTS idx_ledger_recorded;
+ALTER TABLE ledger_entries_legacy RENAME CONSTRAINT ledger_entries_pkey TO ledger_entries_legacy_pkey;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE ledger_entries (
+    id UUID NOT NULL DEFAULT uuid_generate_v4(),
+    booking_id UUID NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    concert_id UUID,
+    recorded_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+CREATE INDEX idx_ledger_booking ON ledger_entries(booking_id);
+CREATE INDEX idx_ledger_concert_recorded ON ledger_entries(concert_id, recorded_at, id);
+CREATE INDEX idx_ledger_recorded ON ledger_entries(recorded_at, id);
+
+-- Creates the partition of the UTC month starting at month_start if missing
+CREATE OR REPLACE FUNCTION create_ledger_partition(month_start DATE) RETURNS text AS $$
+DECLARE
+    partition_name text := 'ledger_entries_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF ledger_entries FOR VALUES FROM (%L) TO (%L)',
+                       partition_name,
+                       date_trunc('month', month_start::timestamp) AT TIME ZONE 'UTC',
+                       (date_trunc('month', month_start::timestamp) + INTERVAL '1 month') AT TIME ZONE 'UTC');
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Every month that holds entries, through three months ahead
+DO $$
+DECLARE
+    partition_month DATE := date_trunc('month', COALESCE(
+            (SELECT min(recorded_at) FROM ledger_entries_legacy), now()) AT TIME ZONE 'UTC')::date;
+BEGIN
+    WHILE partition_month <= (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date LOOP
+        PERFORM create_ledger_partition(partition_month);
+        partition_month := (partition_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Safety net should maintenance fall behind; it is expected to stay empty,
+-- since a new partition cannot be created over rows it holds
+CREATE TABLE ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+
+INSERT INTO ledger_entries (id, booking_id, amount, type, concert_id, recorded_at)
+SELECT id, booking_id, amount, type, concert_id, recorded_at FROM ledger_entries_legacy;
+
+DROP TABLE ledger_entries_legacy;
+
+-- Recreated after the copy: the settlement totals already include those rows.
+-- Statement triggers on the parent see the rows of every partition.
+CREATE TRIGGER trg_ledger_settlements
+    AFTER INSERT ON ledger_entries
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_ledger_to_settlements();
@@ -0,0 +1,14 @@
+-- V11__add_event_booking_minutes.sql
+-- Bookings per event per minute for the analytics dashboard, written by
+-- additive upserts from every node's in-memory rollup.
+
+CREATE TABLE event_booking_minutes (
+    event_id UUID NOT NULL,
+    minute TIMESTAMPTZ NOT NULL,
+    bookings INTEGER NOT NULL DEFAULT 0,
+    tickets INTEGER NOT NULL DEFAULT 0,
+    cancelled INTEGER NOT NULL DEFAULT 0,
+    expired INTEGER NOT NULL DEFAULT 0,
+    released INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (event_id, minute)
+);
@@ -0,0 +1,6 @@
+-- V12__add_booking_expired_flag.sql
+-- Expiry sweeps cancel bookings like a user would; the flag tells the two apart
+-- so dashboard counters can be seeded with expiries separately. Bookings that
+-- expired before this migration count as cancelled.
+
+ALTER TABLE bookings ADD COLUMN expired BOOLEAN NOT NULL DEFAULT false;
@@ -0,0 +1,6 @@
+-- V4__add_concert_listing_indexes.sql
+-- Keyset pagination of the concert listing orders by (event_date, id)
+CREATE INDEX IF NOT EXISTS idx_events_date_id ON events(event_date, id);
+
+-- Lets the minCapacity SUM(available_stock) subquery run as an index-only scan
+CREATE INDEX IF NOT EXISTS idx_ticket_categories_event_stock ON ticket_categories(event_id) INCLUDE (available_stock);
@@ -0,0 +1,9 @@
+-- V5__add_concert_search_indexes.sql
+-- Trigram indexes for concert search: serve infix LIKE '%x%' and fuzzy (%) matches
+-- on event name, artist and venue name without a sequential scan
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_events_name_trgm ON events USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_artist_trgm ON events USING GIN (lower(artist) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_venues_name_trgm ON venues USING GIN (lower(name) gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- V6__add_pending_booking_expiry_index.sql
+-- Expiry sweeps only ever look at PENDING bookings ordered by expires_at
+
+CREATE INDEX IF NOT EXISTS idx_bookings_pending_expires ON bookings(expires_at) WHERE status = 'PENDING';
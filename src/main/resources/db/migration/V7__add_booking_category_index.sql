@@ -0,0 +1,5 @@
+-- V7__add_booking_category_index.sql
+-- Inventory reconciliation sums live booked quantity per category; covering
+-- index so the sum is an index-only scan per category
+
+CREATE INDEX IF NOT EXISTS idx_bookings_category ON bookings(ticket_category_id) INCLUDE (quantity, status);
@@ -0,0 +1,71 @@
+-- V8__add_concert_settlements.sql
+-- Running settlement totals per concert, maintained by a trigger in the same
+-- transaction as every ledger insert, so reports no longer scan the ledger
+
+-- Keyset pages of a concert's transactions in (recorded_at, id) order
+UPDATE ledger_entries SET recorded_at = now() WHERE recorded_at IS NULL;
+ALTER TABLE ledger_entries ALTER COLUMN recorded_at SET DEFAULT now();
+ALTER TABLE ledger_entries ALTER COLUMN recorded_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_ledger_concert_recorded ON ledger_entries(concert_id, recorded_at, id);
+
+-- Each concert is spread over up to 16 slots (by backend pid), so concurrent
+-- booking transactions for one concert do not queue on a single row lock.
+-- A report sums the slots.
+CREATE TABLE IF NOT EXISTS concert_settlements (
+    concert_id UUID NOT NULL,
+    slot SMALLINT NOT NULL,
+    total_revenue DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    total_refunds DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    debit_count BIGINT NOT NULL DEFAULT 0,
+    credit_count BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (concert_id, slot)
+);
+
+INSERT INTO concert_settlements (concert_id, slot, total_revenue, total_refunds, debit_count, credit_count,
+                                 transaction_count)
+SELECT concert_id, 0,
+       COALESCE(SUM(amount) FILTER (WHERE type = 'DEBIT'), 0),
+       COALESCE(SUM(amount) FILTER (WHERE type = 'CREDIT'), 0),
+       COUNT(*) FILTER (WHERE type = 'DEBIT'),
+       COUNT(*) FILTER (WHERE type = 'CREDIT'),
+       COUNT(*)
+FROM ledger_entries
+WHERE concert_id IS NOT NULL
+GROUP BY concert_id
+ON CONFLICT (concert_id, slot) DO NOTHING;
+
+-- Statement-level: a multi-row INSERT of a booking batch is folded in with
+-- one upsert per concert. Ledger entries are never updated or deleted.
+CREATE OR REPLACE FUNCTION apply_ledger_to_settlements() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO concert_settlements AS s (concert_id, slot, total_revenue, total_refunds, debit_count,
+                                          credit_count, transaction_count, updated_at)
+    SELECT concert_id, (pg_backend_pid() % 16)::smallint,
+           COALESCE(SUM(amount) FILTER (WHERE type = 'DEBIT'), 0),
+           COALESCE(SUM(amount) FILTER (WHERE type = 'CREDIT'), 0),
+           COUNT(*) FILTER (WHERE type = 'DEBIT'),
+           COUNT(*) FILTER (WHERE type = 'CREDIT'),
+           COUNT(*),
+           now()
+    FROM inserted
+    WHERE concert_id IS NOT NULL
+    GROUP BY concert_id
+    ORDER BY concert_id
+    ON CONFLICT (concert_id, slot) DO UPDATE SET
+        total_revenue = s.total_revenue + EXCLUDED.total_revenue,
+        total_refunds = s.total_refunds + EXCLUDED.total_refunds,
+        debit_count = s.debit_count + EXCLUDED.debit_count,
+        credit_count = s.credit_count + EXCLUDED.credit_count,
+        transaction_count = s.transaction_count + EXCLUDED.transaction_count,
+        updated_at = EXCLUDED.updated_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_ledger_settlements ON ledger_entries;
+CREATE TRIGGER trg_ledger_settlements
+    AFTER INSERT ON ledger_entries
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_ledger_to_settlements();
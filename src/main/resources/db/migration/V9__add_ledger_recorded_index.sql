@@ -0,0 +1,4 @@
+-- V9__add_ledger_recorded_index.sql
+-- Keyset order of the transaction export across all concerts
+
+CREATE INDEX IF NOT EXISTS idx_ledger_recorded ON ledger_entries(recorded_at, id);
@@ -34,5 +34,7 @@ public abstract class AbstractIntegrationTest {
 
         registry.add("spring.data.redis.host", redis::getHost);
         registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+
+        registry.add("rate-limit.enabled", () -> "false");
     }
 }
@@ -0,0 +1,93 @@
+package com.concert.ticketing.benchmark;
+
+import com.concert.ticketing.filter.JwtAuthFilter;
+import com.concert.ticketing.integration.BaseIntegrationTest;
+import com.concert.ticketing.services.auth.SessionCacheService;
+import com.concert.ticketing.utils.JwtUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Filter-chain latency of JWT authentication with the Redis session lookup vs
+ * stateless role claims. Every request carries a token not seen before, so the
+ * in-memory session cache never hides the per-token cost. Disabled unless run
+ * with -Dbenchmark=true.
+ */
+@DisplayName("Auth Filter Benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuthFilterBenchmark extends BaseIntegrationTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int WARMUP = 2_000;
+
+    @Autowired
+    private JwtAuthFilter jwtAuthFilter;
+
+    @Autowired
+    private SessionCacheService sessionCacheService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Test
+    @DisplayName("Filter latency per session mode")
+    void filterLatency() throws Exception {
+        System.out.printf("%n%-10s %10s %10s %10s%n", "mode", "p50 (us)", "p99 (us)", "req/s");
+        for (String mode : List.of("redis", "stateless")) {
+            ReflectionTestUtils.setField(sessionCacheService, "sessionMode", mode);
+            run(mode, WARMUP);
+            long[] micros = run(mode, REQUESTS);
+
+            Arrays.sort(micros);
+            double totalSeconds = Arrays.stream(micros).sum() / 1_000_000.0;
+            System.out.printf("%-10s %10d %10d %10.0f%n", mode, micros[micros.length / 2],
+                    micros[(int) (micros.length * 0.99)], micros.length / totalSeconds);
+        }
+    }
+
+    private long[] run(String mode, int requests) throws Exception {
+        List<String> tokens = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            String username = "bench-user-" + i;
+            String token = jwtUtils.generateToken(username, "USER").getToken();
+            if ("redis".equals(mode)) {
+                redisTemplate.opsForValue().set(SessionCacheService.sessionKey(username, token), "USER",
+                        Duration.ofMinutes(15));
+            }
+            tokens.add(token);
+        }
+
+        long[] micros = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/bookings");
+            request.setServletPath("/api/v1/bookings");
+            request.addHeader("Authorization", "Bearer " + tokens.get(i));
+
+            long begin = System.nanoTime();
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            micros[i] = (System.nanoTime() - begin) / 1_000;
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                throw new IllegalStateException("Request was not authenticated in mode " + mode);
+            }
+            SecurityContextHolder.clearContext();
+        }
+        return micros;
+    }
+}
@@ -0,0 +1,87 @@
+package com.concert.ticketing.benchmark;
+
+import com.concert.ticketing.integration.BaseIntegrationTest;
+import com.concert.ticketing.services.cache.ConcertCacheService;
+import com.concert.ticketing.services.concert.ConcertService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Listing-specification filter vs trigram search on a catalog of 100k seeded
+ * events. Disabled unless run with -Dbenchmark=true.
+ */
+@DisplayName("Concert Search Benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConcertSearchBenchmark extends BaseIntegrationTest {
+
+    private static final int EVENTS = 100_000;
+    private static final int ITERATIONS = 50;
+    private static final String SEED_MARKER = "search-benchmark";
+    private static final List<String> TERMS = List.of("concert 4711", "artist 123", "arena", "festival");
+
+    @Autowired
+    private ConcertService concertService;
+
+    @Autowired
+    private ConcertCacheService concertCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedCatalog() {
+        jdbcTemplate.update("""
+                INSERT INTO venues (name, address, capacity)
+                SELECT 'Benchmark Arena ' || i, ?, 10000 FROM generate_series(1, 100) i
+                """, SEED_MARKER);
+        jdbcTemplate.update("""
+                INSERT INTO events (venue_id, name, description, event_date, timezone, status, artist)
+                SELECT (SELECT id FROM venues WHERE address = ? ORDER BY name OFFSET (i % 100) LIMIT 1),
+                       'Concert ' || i || ' ' || md5(i::text), ?, now() + i * interval '1 hour', 'UTC',
+                       'UPCOMING', 'Artist ' || (i % 5000)
+                FROM generate_series(1, ?) i
+                """, SEED_MARKER, SEED_MARKER, EVENTS);
+        jdbcTemplate.execute("ANALYZE events");
+        jdbcTemplate.execute("ANALYZE venues");
+    }
+
+    @AfterEach
+    void removeCatalog() {
+        jdbcTemplate.update("DELETE FROM events WHERE description = ?", SEED_MARKER);
+        jdbcTemplate.update("DELETE FROM venues WHERE address = ?", SEED_MARKER);
+        concertCacheService.invalidateConcert(null);
+    }
+
+    @Test
+    @DisplayName("Milliseconds per query, specification filter vs trigram search")
+    void searchLatency() {
+        // The listing is cached, so every specification run starts with an eviction
+        double specification = run(term -> {
+            concertCacheService.invalidateConcert(null);
+            concertService.getAllConcerts(term, null, null, null, null, null, null, 20);
+        });
+        double search = run(term -> concertService.searchConcerts(term, 20));
+
+        System.out.printf("%n%-15s %10s%n", "path", "ms/query");
+        System.out.printf("%-15s %10.2f%n", "specification", specification);
+        System.out.printf("%-15s %10.2f%n", "trigram search", search);
+    }
+
+    private double run(Consumer<String> query) {
+        TERMS.forEach(query); // warm up
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.accept(TERMS.get(i % TERMS.size()));
+        }
+        return (System.nanoTime() - begin) / 1_000_000.0 / ITERATIONS;
+    }
+}
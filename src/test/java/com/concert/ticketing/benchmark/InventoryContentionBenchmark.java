@@ -0,0 +1,95 @@
+package com.concert.ticketing.benchmark;
+
+import com.concert.ticketing.integration.BaseIntegrationTest;
+import com.concert.ticketing.services.inventory.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for the reservation engines: many threads reserving
+ * from one hot category. Disabled unless run with -Dbenchmark=true.
+ */
+@DisplayName("Inventory Contention Benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryContentionBenchmark extends BaseIntegrationTest {
+
+    // FESTIVAL PASS of Rock Festival 2026 from V2__seed_data.sql
+    private static final UUID HOT_CATEGORY = UUID.fromString("e1f2a3b4-c5d6-7890-5678-901234567890");
+    private static final int THREADS = 64;
+    private static final long DURATION_MS = 10_000;
+    private static final int[] SHARD_COUNTS = { 1, 4, 16 };
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void resetStock() {
+        jdbcTemplate.update("UPDATE ticket_categories SET available_stock = 10000000 WHERE id = ?", HOT_CATEGORY);
+        redisTemplate.delete(redisTemplate.keys(InventoryService.REDIS_STOCK_PREFIX + HOT_CATEGORY + "*"));
+        redisTemplate.delete(InventoryService.REDIS_PENDING_KEY);
+    }
+
+    @Test
+    @DisplayName("Reservations per second on one hot category, per engine and shard count")
+    void reservationsPerSecond() throws InterruptedException {
+        double database = run("database", 1);
+        System.out.printf("%n%-10s %7s %15s%n", "engine", "shards", "reservations/s");
+        System.out.printf("%-10s %7d %15.0f%n", "database", 1, database);
+
+        for (int shards : SHARD_COUNTS) {
+            resetStock();
+            System.out.printf("%-10s %7d %15.0f%n", "redis", shards, run("redis", shards));
+        }
+    }
+
+    private double run(String engine, int shards) throws InterruptedException {
+        ReflectionTestUtils.setField(inventoryService, "engine", engine);
+        ReflectionTestUtils.setField(inventoryService, "shards", shards);
+        inventoryService.reserve(HOT_CATEGORY, 1, UUID.randomUUID().toString()); // warm up and seed
+
+        LongAdder reserved = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+
+        for (int i = 0; i < THREADS; i++) {
+            pool.submit(() -> {
+                start.await();
+                while (System.currentTimeMillis() < deadline) {
+                    if (inventoryService.reserve(HOT_CATEGORY, 1, UUID.randomUUID().toString())) {
+                        reserved.increment();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(DURATION_MS * 2, TimeUnit.MILLISECONDS);
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        inventoryService.flushPendingReservations();
+        return reserved.sum() / seconds;
+    }
+}
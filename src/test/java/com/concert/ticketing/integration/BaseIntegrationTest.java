@@ -55,6 +55,9 @@ public abstract class BaseIntegrationTest {
 
         // Disable Docker Compose for tests
         registry.add("spring.docker.compose.enabled", () -> "false");
+
+        // Every test request comes from one address
+        registry.add("rate-limit.enabled", () -> "false");
     }
 
     @BeforeAll
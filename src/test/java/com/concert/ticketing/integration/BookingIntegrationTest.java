@@ -1,13 +1,22 @@
 package com.concert.ticketing.integration;
 
 import com.concert.ticketing.dto.booking.BookingRequest;
+import com.concert.ticketing.model.EventsModel;
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.model.VenuesModel;
+import com.concert.ticketing.repositories.EventRepository;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.repositories.VenueRepository;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 import static io.restassured.RestAssured.given;
@@ -21,8 +30,17 @@ import static org.hamcrest.Matchers.*;
 @DisplayName("Booking API Integration Tests")
 class BookingIntegrationTest extends BaseIntegrationTest {
 
+        @Autowired
+        private VenueRepository venueRepository;
+        @Autowired
+        private EventRepository eventRepository;
+        @Autowired
+        private TicketCategoryRepository categoryRepository;
+
         private String jwtToken;
         private UUID userId;
+        private UUID eventId;
+        private UUID categoryId;
 
         @BeforeEach
         void setUpTest() {
@@ -31,6 +49,31 @@ class BookingIntegrationTest extends BaseIntegrationTest {
 
                 // Register and login to get JWT token
                 registerAndLogin();
+                seedCategory();
+        }
+
+        // Admission resolves the event from the category, so bookings need a real one
+        private void seedCategory() {
+                VenuesModel venue = new VenuesModel();
+                venue.setName("Integration Venue");
+                venue.setCapacity(1000);
+                venue = venueRepository.save(venue);
+
+                EventsModel concert = new EventsModel();
+                concert.setName("Integration Concert");
+                concert.setArtist("Integration Artist");
+                concert.setVenue(venue);
+                concert.setEventDate(ZonedDateTime.now().plusDays(5));
+                concert.setTimezone("UTC");
+                eventId = eventRepository.save(concert).getId();
+
+                TicketCategoryModel category = new TicketCategoryModel();
+                category.setName("General");
+                category.setPrice(new BigDecimal("500000"));
+                category.setTotalAllocation(100);
+                category.setAvailableStock(100);
+                category.setEvent(concert);
+                categoryId = categoryRepository.save(category).getId();
         }
 
         private void registerAndLogin() {
@@ -73,8 +116,8 @@ class BookingIntegrationTest extends BaseIntegrationTest {
                 // Arrange
                 BookingRequest request = new BookingRequest(
                                 UUID.randomUUID(), // userId
-                                UUID.randomUUID(), // eventId
-                                UUID.randomUUID(), // categoryId
+                                eventId,
+                                categoryId,
                                 2 // quantity
                 );
 
@@ -94,6 +137,48 @@ class BookingIntegrationTest extends BaseIntegrationTest {
                                 .body("message", containsString("being processed"));
         }
 
+        @Test
+        @DisplayName("Should reject booking of unknown category before queueing")
+        void createBooking_UnknownCategory() {
+                BookingRequest request = new BookingRequest(
+                                UUID.randomUUID(), // userId
+                                eventId,
+                                UUID.randomUUID(), // categoryId
+                                2); // quantity
+
+                given()
+                                .header("Authorization", "Bearer " + jwtToken)
+                                .header("X-Idempotency-Key", UUID.randomUUID().toString())
+                                .contentType(ContentType.JSON)
+                                .body(request)
+                                .when()
+                                .post("/api/v1/bookings")
+                                .then()
+                                .statusCode(404)
+                                .body("code", equalTo("44"));
+        }
+
+        @Test
+        @DisplayName("Should reject booking without category")
+        void createBooking_MissingCategory() {
+                BookingRequest request = new BookingRequest(
+                                UUID.randomUUID(), // userId
+                                eventId,
+                                null, // categoryId
+                                2); // quantity
+
+                given()
+                                .header("Authorization", "Bearer " + jwtToken)
+                                .header("X-Idempotency-Key", UUID.randomUUID().toString())
+                                .contentType(ContentType.JSON)
+                                .body(request)
+                                .when()
+                                .post("/api/v1/bookings")
+                                .then()
+                                .statusCode(400)
+                                .body("code", equalTo("40"));
+        }
+
         @Test
         @DisplayName("Should get booking by ID")
         void getBookingById_Success() {
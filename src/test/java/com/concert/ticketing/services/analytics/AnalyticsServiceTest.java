@@ -0,0 +1,289 @@
+package com.concert.ticketing.services.analytics;
+
+import com.concert.ticketing.dto.analytics.DashboardStats;
+import com.concert.ticketing.dto.analytics.EventBookingCounts;
+import com.concert.ticketing.dto.analytics.EventStats;
+import com.concert.ticketing.model.EventsModel;
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.repositories.BookingRepository;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AnalyticsServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TicketCategoryRepository categoryRepository;
+
+    @Mock
+    private BookingRollupService rollupService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AnalyticsService analyticsService;
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID vipId = UUID.randomUUID();
+    private final UUID regularId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new AnalyticsService(bookingRepository, categoryRepository, rollupService, redisTemplate,
+                listenerContainer, objectMapper, new SimpleMeterRegistry());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("dashboard::bookings")).thenReturn("12");
+
+        EventsModel event = new EventsModel();
+        event.setId(eventId);
+        event.setName("Rock Festival 2026");
+        when(categoryRepository.findAllOfUpcomingEvents(any())).thenReturn(List.of(
+                category(vipId, event, 100, 80), category(regularId, event, 50, 40)));
+    }
+
+    @Test
+    void shouldSeedUnseenEventsFromLedgerOnRefresh() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(Arrays.asList(null, null, null, null, null)));
+        // Stock in the database lags the ledger: 30 tickets are booked, not 150 - 120
+        when(bookingRepository.countBookingsByEvent(List.of(eventId))).thenReturn(List.of(counts(eventId, 30, 4, 1, 2)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L), Arrays.asList("31", "5", "1", "2", null));
+
+        analyticsService.refresh();
+
+        InOrder order = inOrder(redisTemplate, bookingRepository);
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("dashboard::event::" + eventId,
+                "dashboard::event::" + eventId + "::seed-log")), any(), any(), any());
+        order.verify(bookingRepository).countBookingsByEvent(List.of(eventId));
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("dashboard::event::" + eventId,
+                "dashboard::event::" + eventId + "::seed-log")), any(), eq("30"), eq("4"), eq("1"), eq("2"),
+                eq("900:900:"));
+        DashboardStats dashboard = analyticsService.getDashboardStats();
+        assertEquals(12, dashboard.totalBookings());
+        EventStats stats = dashboard.concertAnalytics().get(0);
+        assertEquals(150, stats.totalAllocation());
+        // One booking committed after the claim was applied on top of the counts
+        assertEquals(31, stats.soldTickets());
+        assertEquals(5, stats.bookings());
+        assertEquals(2, stats.expired());
+    }
+
+    @Test
+    void shouldTagIncrementOfBookingCommittedBeforeClaimForTheSeedSnapshot() {
+        BookingActivityEvent activity = new BookingActivityEvent(BookingActivityEvent.Type.BOOKED, eventId, vipId,
+                1, 2);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(Arrays.asList(null, null, null, null, null)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L), 1L, Arrays.asList("30", "4", "1", "2", null));
+        when(bookingRepository.currentTransactionId()).thenReturn("741");
+        // The booking committed before the claim, its increment lands after the claim and the
+        // count runs after that, so transaction 741 is both counted and applied
+        when(bookingRepository.countBookingsByEvent(List.of(eventId))).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            return List.of(counts(eventId, 30, 4, 1, 2, "742:742:"));
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            analyticsService.onBookingActivity(activity);
+            verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+            analyticsService.refresh();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        String key = "dashboard::event::" + eventId;
+        InOrder order = inOrder(redisTemplate, bookingRepository);
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(key, key + "::seed-log")), any(),
+                any(), any());
+        order.verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(key, "dashboard::bookings", key + "::seed-log")), eq("2"), eq("1"), eq("0"), eq("0"),
+                eq(eventId.toString()), eq(AnalyticsService.DASHBOARD_CHANNEL), eq("741"));
+        // The seed drops the logged increment of 741, which its snapshot saw, and keeps the counts as queried
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(key, key + "::seed-log")), any(),
+                eq("30"), eq("4"), eq("1"), eq("2"), eq("742:742:"));
+        assertEquals(30, analyticsService.getDashboardStats().concertAnalytics().get(0).soldTickets());
+    }
+
+    @Test
+    void shouldShowCountsWhileAnotherNodeSeeds() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(Arrays.asList("1", "1", "0", "0", "other-node")));
+        when(bookingRepository.countBookingsByEvent(List.of(eventId))).thenReturn(List.of(counts(eventId, 30, 4, 1, 2)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(0L));
+
+        analyticsService.refresh();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any(), any(), any(),
+                any());
+        EventStats stats = analyticsService.getDashboardStats().concertAnalytics().get(0);
+        assertEquals(30, stats.soldTickets());
+        assertEquals(4, stats.bookings());
+    }
+
+    @Test
+    void shouldReadSeededCountersWithoutTouchingBookings() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(List.of("45", "20", "2", "3")));
+
+        analyticsService.refresh();
+
+        verify(bookingRepository, never()).countBookingsByEvent(anyList());
+        verify(bookingRepository, never()).count();
+        assertEquals(45, analyticsService.getDashboardStats().concertAnalytics().get(0).soldTickets());
+    }
+
+    @Test
+    void shouldApplyBookingAsIncrementsAndRollup() {
+        BookingActivityEvent activity = new BookingActivityEvent(BookingActivityEvent.Type.BOOKED, eventId, vipId,
+                2, 5);
+
+        analyticsService.onBookingActivity(activity);
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("dashboard::event::" + eventId, "dashboard::bookings",
+                        "dashboard::event::" + eventId + "::seed-log")),
+                eq("5"), eq("2"), eq("0"), eq("0"), eq(eventId.toString()), eq(AnalyticsService.DASHBOARD_CHANNEL),
+                eq(""));
+        verify(rollupService).record(eq(activity), eq(eventId), any());
+    }
+
+    @Test
+    void shouldResolveEventOfExpiredCategory() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(List.of("45", "20", "2", "3")));
+        analyticsService.refresh();
+
+        analyticsService.onBookingActivity(
+                new BookingActivityEvent(BookingActivityEvent.Type.EXPIRED, null, regularId, 2, 3));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("dashboard::event::" + eventId, "dashboard::bookings",
+                        "dashboard::event::" + eventId + "::seed-log")),
+                eq("-3"), eq("0"), eq("0"), eq("2"), eq(eventId.toString()), eq(AnalyticsService.DASHBOARD_CHANNEL),
+                eq(""));
+        verify(categoryRepository, never()).findWithEventById(any());
+    }
+
+    @Test
+    void shouldDropActivityOfUnknownCategory() {
+        UUID unknown = UUID.randomUUID();
+        when(categoryRepository.findWithEventById(unknown)).thenReturn(Optional.empty());
+
+        analyticsService.onBookingActivity(
+                new BookingActivityEvent(BookingActivityEvent.Type.EXPIRED, null, unknown, 1, 1));
+
+        verify(rollupService, never()).record(any(), any(), any());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void shouldApplyPublishedCountersToUpcomingEvents() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(List.of("45", "20", "2", "3")));
+        analyticsService.refresh();
+
+        String payload = "{\"eventId\":\"" + eventId + "\",\"totalBookings\":13,\"sold\":75,\"bookings\":21,"
+                + "\"cancelled\":2,\"expired\":3}";
+        analyticsService.onMessage(new DefaultMessage("dashboard-update".getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8)), null);
+
+        DashboardStats dashboard = analyticsService.getDashboardStats();
+        assertEquals(13, dashboard.totalBookings());
+        assertEquals(75, dashboard.concertAnalytics().get(0).soldTickets());
+        assertEquals(50.0, dashboard.concertAnalytics().get(0).occupancyRate());
+    }
+
+    private static TicketCategoryModel category(UUID id, EventsModel event, int allocation, int stock) {
+        TicketCategoryModel category = new TicketCategoryModel();
+        category.setId(id);
+        category.setEvent(event);
+        category.setTotalAllocation(allocation);
+        category.setAvailableStock(stock);
+        return category;
+    }
+
+    private static EventBookingCounts counts(UUID eventId, long sold, long bookings, long cancelled, long expired) {
+        return counts(eventId, sold, bookings, cancelled, expired, "900:900:");
+    }
+
+    private static EventBookingCounts counts(UUID eventId, long sold, long bookings, long cancelled, long expired,
+            String snapshot) {
+        return new EventBookingCounts() {
+            @Override
+            public UUID getEventId() {
+                return eventId;
+            }
+
+            @Override
+            public Long getSold() {
+                return sold;
+            }
+
+            @Override
+            public Long getBookings() {
+                return bookings;
+            }
+
+            @Override
+            public Long getCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public Long getExpired() {
+                return expired;
+            }
+
+            @Override
+            public String getSnapshot() {
+                return snapshot;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.concert.ticketing.services.analytics;
+
+import com.concert.ticketing.exception.ServiceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingRollupServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingRollupService rollupService;
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+    private final Instant minute = Instant.parse("2026-10-18T10:15:00Z");
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new BookingRollupService(jdbcTemplate);
+        ReflectionTestUtils.setField(rollupService, "maxRangeHours", 168L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFlushOneUpsertPerMinute() {
+        rollupService.record(booked(2, 5), eventId, minute.plusSeconds(5));
+        rollupService.record(booked(1, 1), eventId, minute.plusSeconds(50));
+        rollupService.record(new BookingActivityEvent(BookingActivityEvent.Type.EXPIRED, null, categoryId, 1, 4),
+                eventId, minute.plusSeconds(59));
+
+        rollupService.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(new Object[] { eventId, OffsetDateTime.ofInstant(minute, ZoneOffset.UTC), 3L, 6L, 0L, 1L,
+                4L }, rows.getValue().get(0));
+
+        rollupService.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepCountsOfFailedFlush() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[] { 1 });
+        rollupService.record(booked(2, 5), eventId, minute);
+        rollupService.flush();
+
+        rollupService.record(booked(1, 1), eventId, minute);
+        rollupService.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        assertEquals(3L, rows.getValue().get(0)[2]);
+        assertEquals(6L, rows.getValue().get(0)[3]);
+    }
+
+    @Test
+    void shouldRejectInvertedOrTooWideRange() {
+        assertThrows(ServiceException.class,
+                () -> rollupService.getBookingsPerMinute(eventId, minute, minute.minusSeconds(60)));
+        assertThrows(ServiceException.class,
+                () -> rollupService.getBookingsPerMinute(eventId, minute, minute.plus(8, ChronoUnit.DAYS)));
+    }
+
+    private BookingActivityEvent booked(int bookings, int tickets) {
+        return new BookingActivityEvent(BookingActivityEvent.Type.BOOKED, eventId, categoryId, bookings, tickets);
+    }
+}
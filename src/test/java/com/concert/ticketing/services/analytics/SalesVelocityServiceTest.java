@@ -0,0 +1,156 @@
+package com.concert.ticketing.services.analytics;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.dto.analytics.CategoryVelocity;
+import com.concert.ticketing.dto.analytics.EventVelocity;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.model.EventsModel;
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesVelocityServiceTest {
+
+    private static final long NOW = 1_790_000_000L;
+
+    @Mock
+    private TicketCategoryRepository categoryRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SalesVelocityService velocityService;
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID vipId = UUID.randomUUID();
+    private final UUID regularId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        velocityService = new SalesVelocityService(categoryRepository, inventoryService, objectMapper,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(velocityService, "windowSeconds", 300);
+        ReflectionTestUtils.setField(velocityService, "shortWindowSeconds", 60);
+        ReflectionTestUtils.setField(velocityService, "maxCategories", 100);
+
+        EventsModel event = new EventsModel();
+        event.setId(eventId);
+        event.setName("Rock Festival 2026");
+        when(categoryRepository.findAllOfUpcomingEvents(any())).thenReturn(List.of(
+                category(vipId, "VIP", event), category(regularId, "REGULAR", event)));
+        when(inventoryService.getAvailableStock(anyList())).thenReturn(Map.of(vipId, 120, regularId, 0));
+    }
+
+    @Test
+    void shouldForecastSellOutFromRecentPace() {
+        velocityService.refresh();
+        // 30 tickets in the last minute, 60 more earlier in the window
+        for (int i = 0; i < 30; i++) {
+            velocityService.record(booked(vipId, 1), (NOW - i) * 1000);
+            velocityService.record(booked(vipId, 2), (NOW - 120 - i) * 1000);
+        }
+        velocityService.record(outcome(regularId, BookingOutcomeStatus.SOLD_OUT, 2), NOW * 1000);
+
+        EventVelocity event = velocityService.getLive(null, NOW).get(0);
+        assertEquals(eventId, event.eventId());
+        assertEquals(30.0, event.ticketsPerMinute());
+        assertEquals(18.0, event.averageTicketsPerMinute());
+        assertEquals(1.0, event.soldOutRejectionsPerMinute());
+        assertEquals(30, event.remaining());
+        assertEquals(60L, event.sellOutEtaSeconds());
+
+        CategoryVelocity regular = event.categories().get(0);
+        assertEquals("REGULAR", regular.categoryName());
+        assertEquals(0L, regular.sellOutEtaSeconds());
+    }
+
+    @Test
+    void shouldFallBackToWindowAverageAndGiveNoForecastWithoutSales() {
+        velocityService.refresh();
+        velocityService.record(booked(vipId, 10), (NOW - 200) * 1000);
+
+        CategoryVelocity vip = velocityService.getLive(eventId, NOW).get(0).categories().get(1);
+        assertEquals(0.0, vip.ticketsPerMinute());
+        assertEquals(2.0, vip.averageTicketsPerMinute());
+        assertEquals(110, vip.remaining());
+        assertEquals(3300L, vip.sellOutEtaSeconds());
+
+        velocityService.refresh();
+        assertNull(velocityService.getLive(eventId, NOW + 300).get(0).categories().get(1).sellOutEtaSeconds());
+    }
+
+    @Test
+    void shouldReuseSlotsAsTimeWrapsAndDropOutcomesOlderThanWindow() {
+        velocityService.refresh();
+        velocityService.record(booked(vipId, 5), NOW * 1000);
+        velocityService.record(booked(vipId, 1), (NOW + 300) * 1000);
+        velocityService.record(booked(vipId, 7), NOW * 1000);
+
+        CategoryVelocity vip = velocityService.getLive(eventId, NOW + 300).get(0).categories().get(1);
+        assertEquals(0.2, vip.averageTicketsPerMinute());
+    }
+
+    @Test
+    void shouldBoundTrackedCategories() {
+        ReflectionTestUtils.setField(velocityService, "maxCategories", 1);
+        velocityService.refresh();
+
+        assertEquals(1, velocityService.getLive(eventId, NOW).get(0).categories().size());
+    }
+
+    @Test
+    void shouldConsumeOutcomeRecordsAtTheirTimestamp() throws Exception {
+        velocityService.refresh();
+        String payload = objectMapper.writeValueAsString(booked(vipId, 4));
+
+        velocityService.consume(List.of(
+                new ConsumerRecord<>("booking-outcome-topic", 0, 0L, (NOW - 10) * 1000, TimestampType.CREATE_TIME,
+                        0, 0, vipId.toString(), payload, new RecordHeaders(), Optional.empty()),
+                new ConsumerRecord<>("booking-outcome-topic", 0, 1L, vipId.toString(), "not json")));
+
+        assertEquals(4.0, velocityService.getLive(eventId, NOW).get(0).ticketsPerMinute());
+    }
+
+    private BookingOutcome booked(UUID categoryId, int quantity) {
+        return outcome(categoryId, BookingOutcomeStatus.BOOKED, quantity);
+    }
+
+    private BookingOutcome outcome(UUID categoryId, BookingOutcomeStatus status, int quantity) {
+        return new BookingOutcome(UUID.randomUUID().toString(), status, UUID.randomUUID(), eventId, categoryId,
+                quantity);
+    }
+
+    private static TicketCategoryModel category(UUID id, String name, EventsModel event) {
+        TicketCategoryModel category = new TicketCategoryModel();
+        category.setId(id);
+        category.setName(name);
+        category.setEvent(event);
+        return category;
+    }
+}
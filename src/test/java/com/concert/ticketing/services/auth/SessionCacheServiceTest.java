@@ -0,0 +1,151 @@
+package com.concert.ticketing.services.auth;
+
+import com.concert.ticketing.utils.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SessionCacheServiceTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private TokenRevocationService revocationService;
+
+    private SessionCacheService sessionCacheService;
+
+    @BeforeEach
+    void setUp() {
+        sessionCacheService = new SessionCacheService(jwtUtils, redisTemplate, listenerContainer,
+                new SimpleMeterRegistry(), revocationService);
+        ReflectionTestUtils.setField(sessionCacheService, "sessionMode", "redis");
+        ReflectionTestUtils.setField(sessionCacheService, "maxSize", 100L);
+        ReflectionTestUtils.setField(sessionCacheService, "ttlSeconds", 60L);
+        sessionCacheService.init();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(jwtUtils.verify(TOKEN)).thenReturn(
+                new JwtUtils.VerifiedToken("alice", "USER", "jti-1", Instant.now().plusSeconds(900)));
+        when(valueOperations.get(SessionCacheService.sessionKey("alice", TOKEN))).thenReturn("\"USER\"");
+    }
+
+    @Test
+    void shouldVerifyTokenOnceAndServeRepeatsFromMemory() {
+        SessionCacheService.AuthenticatedSession first = sessionCacheService.resolve(TOKEN);
+        SessionCacheService.AuthenticatedSession second = sessionCacheService.resolve(TOKEN);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals("alice", first.username());
+        assertEquals("ROLE_USER", first.authorities().get(0).getAuthority());
+        verify(jwtUtils, times(1)).verify(TOKEN);
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    void shouldRejectTokenWithoutSession() {
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        assertNull(sessionCacheService.resolve(TOKEN));
+    }
+
+    @Test
+    void shouldRejectInvalidToken() {
+        when(jwtUtils.verify("forged")).thenReturn(null);
+
+        assertNull(sessionCacheService.resolve("forged"));
+        assertFalse(sessionCacheService.logout("forged"));
+    }
+
+    @Test
+    void shouldEvictAndBroadcastOnLogout() {
+        sessionCacheService.resolve(TOKEN);
+
+        assertTrue(sessionCacheService.logout(TOKEN));
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        assertNull(sessionCacheService.resolve(TOKEN));
+        verify(redisTemplate).delete(SessionCacheService.sessionKey("alice", TOKEN));
+        verify(redisTemplate).convertAndSend(eq(SessionCacheService.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void shouldEvictOnInvalidationFromAnotherNode() {
+        sessionCacheService.resolve(TOKEN);
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        sessionCacheService.onMessage(new DefaultMessage(
+                SessionCacheService.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("\"" + SessionCacheService.hash(TOKEN) + "\"").getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(sessionCacheService.resolve(TOKEN));
+    }
+
+    @Test
+    void shouldTakeRoleFromTokenWithoutRedisInStatelessMode() {
+        ReflectionTestUtils.setField(sessionCacheService, "sessionMode", "stateless");
+
+        SessionCacheService.AuthenticatedSession session = sessionCacheService.resolve(TOKEN);
+
+        assertNotNull(session);
+        assertEquals("ROLE_USER", session.authorities().get(0).getAuthority());
+        verify(revocationService).isRevoked("jti-1");
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void shouldRejectRevokedTokenInStatelessMode() {
+        ReflectionTestUtils.setField(sessionCacheService, "sessionMode", "stateless");
+        when(revocationService.isRevoked("jti-1")).thenReturn(true);
+
+        assertNull(sessionCacheService.resolve(TOKEN));
+    }
+
+    @Test
+    void shouldRevokeTokenIdOnStatelessLogout() {
+        ReflectionTestUtils.setField(sessionCacheService, "sessionMode", "stateless");
+
+        assertTrue(sessionCacheService.logout(TOKEN));
+
+        verify(revocationService).revoke(eq("jti-1"), org.mockito.ArgumentMatchers.any(Instant.class));
+    }
+}
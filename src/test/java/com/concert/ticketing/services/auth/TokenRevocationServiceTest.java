@@ -0,0 +1,99 @@
+package com.concert.ticketing.services.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(redisTemplate, listenerContainer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationService, "sessionMode", "stateless");
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocationService, "minCapacity", 1000);
+        revocationService.init();
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    void shouldAcceptUnrevokedTokenWithoutRedis() {
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString()));
+
+        verify(zSetOperations, never()).score(anyString(), anyString());
+    }
+
+    @Test
+    void shouldConfirmRevocationAgainstRedis() {
+        revocationService.revoke("jti-1", Instant.now().plusSeconds(900));
+        when(zSetOperations.score(TokenRevocationService.REVOKED_KEY, "jti-1")).thenReturn(1.0);
+
+        assertTrue(revocationService.isRevoked("jti-1"));
+        verify(redisTemplate).convertAndSend(TokenRevocationService.REVOCATION_CHANNEL, "jti-1");
+    }
+
+    @Test
+    void shouldRebuildFilterFromRedisSet() {
+        when(zSetOperations.zCard(TokenRevocationService.REVOKED_KEY)).thenReturn(1L);
+        when(zSetOperations.rangeByScore(eq(TokenRevocationService.REVOKED_KEY), anyDouble(), anyDouble()))
+                .thenReturn(Set.of("jti-remote"));
+        when(zSetOperations.score(TokenRevocationService.REVOKED_KEY, "jti-remote")).thenReturn(1.0);
+
+        revocationService.sync();
+
+        assertTrue(revocationService.isRevoked("jti-remote"));
+        verify(zSetOperations).removeRangeByScore(eq(TokenRevocationService.REVOKED_KEY), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void bloomFilterShouldStayNearConfiguredFalsePositiveRate() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+            if (filter.mightContain("valid-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
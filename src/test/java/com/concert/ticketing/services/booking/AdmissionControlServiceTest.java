@@ -0,0 +1,219 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.constant.Origin;
+import com.concert.ticketing.dto.booking.BookingMessage;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.dto.booking.BookingRequest;
+import com.concert.ticketing.dto.booking.QueuePosition;
+import com.concert.ticketing.exception.ServiceException;
+import com.concert.ticketing.services.inventory.EventCategoryCatalog;
+import com.concert.ticketing.services.kafka.BookingKafkaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AdmissionControlServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private BookingKafkaService kafkaService;
+
+    @Mock
+    private BookingOutcomeService outcomeService;
+
+    @Mock
+    private EventCategoryCatalog categoryCatalog;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AdmissionControlService admissionService;
+    private final UUID eventId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+    private BookingRequest request;
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new AdmissionControlService(redisTemplate, kafkaService, outcomeService, categoryCatalog,
+                objectMapper,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "ratePerSecond", 100.0);
+        ReflectionTestUtils.setField(admissionService, "burst", 200);
+        ReflectionTestUtils.setField(admissionService, "drainBatchSize", 500);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(categoryCatalog.eventOf(categoryId)).thenReturn(eventId);
+        request = new BookingRequest(UUID.randomUUID(), eventId, categoryId, 2);
+    }
+
+    @Test
+    void shouldSendToKafkaWhenAdmitted() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        QueuePosition position = admissionService.admit(request, "key-1");
+
+        assertNull(position);
+        verify(kafkaService, times(1)).sendToQueue(request, "key-1");
+    }
+
+    @Test
+    void shouldQueueWhenBucketIsEmpty() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(250L);
+
+        QueuePosition position = admissionService.admit(request, "key-1");
+
+        assertEquals(250, position.position());
+        assertEquals(3, position.etaSeconds());
+        verify(kafkaService, never()).sendToQueue(any(), anyString());
+    }
+
+    @Test
+    void shouldClaimIdempotencyKeyBeforeQueueingAndRejectAnotherUsersKey() throws Exception {
+        doThrow(new ServiceException(Origin.MICROSERVICE, ErrorList.IDEMPOTENCY_KEY_IN_USE))
+                .when(outcomeService).claimOwnership("key-1");
+
+        assertThrows(ServiceException.class, () -> admissionService.admit(request, "key-1"));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(kafkaService, never()).sendToQueue(any(), anyString());
+    }
+
+    @Test
+    void shouldNotReportQueuePositionToAnotherUser() {
+        doThrow(new ServiceException(Origin.MICROSERVICE, ErrorList.DATA_NOT_FOUND))
+                .when(outcomeService).checkOwnership("key-1");
+
+        assertThrows(ServiceException.class, () -> admissionService.position(eventId, "key-1"));
+
+        verify(redisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    void shouldRejectSoldOutCategoryBeforeQueueing() throws Exception {
+        when(hashOperations.get(anyString(), eq(categoryId + ":stock"))).thenReturn("1");
+
+        assertThrows(ServiceException.class, () -> admissionService.admit(request, "key-1"));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(kafkaService, never()).sendToQueue(any(), anyString());
+    }
+
+    @Test
+    void shouldSendToKafkaWhenRedisUnavailable() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertNull(admissionService.admit(request, "key-1"));
+
+        verify(kafkaService, times(1)).sendToQueue(request, "key-1");
+    }
+
+    @Test
+    void shouldReleaseDrainedRequestsAndRejectSoldOutOnes() throws Exception {
+        BookingRequest soldOut = new BookingRequest(UUID.randomUUID(), eventId, UUID.randomUUID(), 5);
+        when(hashOperations.get(anyString(), eq(soldOut.categoryId() + ":stock"))).thenReturn("0");
+        when(setOperations.members(AdmissionControlService.ACTIVE_EVENTS_KEY)).thenReturn(Set.of(eventId.toString()));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(
+                objectMapper.writeValueAsString(new BookingMessage(request, "key-1")),
+                objectMapper.writeValueAsString(new BookingMessage(soldOut, "key-2"))));
+
+        admissionService.drain();
+
+        verify(kafkaService, times(1)).sendToQueue(request, "key-1");
+        verify(kafkaService, never()).sendToQueue(eq(soldOut), anyString());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingOutcome>> outcomes = ArgumentCaptor.forClass(List.class);
+        verify(outcomeService).publish(outcomes.capture());
+        assertEquals("key-2", outcomes.getValue().get(0).idempotencyKey());
+        assertEquals(BookingOutcomeStatus.SOLD_OUT, outcomes.getValue().get(0).status());
+    }
+
+    @Test
+    void shouldKeyAdmissionOnEventOfCategoryNotClientEvent() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+        BookingRequest forged = new BookingRequest(request.userId(), UUID.randomUUID(), categoryId, 2);
+
+        admissionService.admit(forged, "key-1");
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("admission::bucket::" + eventId,
+                "admission::queue::" + eventId, "admission::waiting::" + eventId, "admission::sequence::" + eventId,
+                AdmissionControlService.ACTIVE_EVENTS_KEY)), any(Object[].class));
+        verify(kafkaService).sendToQueue(request, "key-1");
+    }
+
+    @Test
+    void shouldRejectUnknownCategoryAndMissingFieldsBeforeAdmission() throws Exception {
+        UUID unknown = UUID.randomUUID();
+
+        assertThrows(ServiceException.class,
+                () -> admissionService.admit(new BookingRequest(UUID.randomUUID(), null, unknown, 1), "key-1"));
+        assertThrows(ServiceException.class,
+                () -> admissionService.admit(new BookingRequest(UUID.randomUUID(), null, null, 1), "key-2"));
+        assertThrows(ServiceException.class,
+                () -> admissionService.admit(new BookingRequest(UUID.randomUUID(), eventId, categoryId, 0), "key-3"));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(kafkaService, never()).sendToQueue(any(), anyString());
+    }
+
+    @Test
+    void shouldRejectDrainedRequestKafkaCouldNotTakeAndKeepDraining() throws Exception {
+        BookingRequest next = new BookingRequest(UUID.randomUUID(), eventId, categoryId, 1);
+        when(setOperations.members(AdmissionControlService.ACTIVE_EVENTS_KEY)).thenReturn(Set.of(eventId.toString()));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(
+                objectMapper.writeValueAsString(new BookingMessage(request, "key-1")),
+                objectMapper.writeValueAsString(new BookingMessage(next, "key-2"))));
+        doThrow(new KafkaException("metadata timeout")).when(kafkaService).sendToQueue(request, "key-1");
+
+        admissionService.drain();
+
+        verify(kafkaService).sendToQueue(next, "key-2");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingOutcome>> outcomes = ArgumentCaptor.forClass(List.class);
+        verify(outcomeService).publish(outcomes.capture());
+        assertEquals("key-1", outcomes.getValue().get(0).idempotencyKey());
+        assertEquals(BookingOutcomeStatus.REJECTED, outcomes.getValue().get(0).status());
+    }
+}
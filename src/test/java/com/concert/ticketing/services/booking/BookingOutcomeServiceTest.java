@@ -0,0 +1,160 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.constant.BookingOutcomeStatus;
+import com.concert.ticketing.constant.ErrorList;
+import com.concert.ticketing.dto.booking.BookingOutcome;
+import com.concert.ticketing.dto.booking.BookingResponse;
+import com.concert.ticketing.exception.ServiceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingOutcomeServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookingOutcomeService outcomeService;
+
+    @BeforeEach
+    void setUp() {
+        outcomeService = new BookingOutcomeService(redisTemplate, listenerContainer, objectMapper);
+        ReflectionTestUtils.setField(outcomeService, "outcomeTtlMinutes", 10L);
+        ReflectionTestUtils.setField(outcomeService, "ownerTtlMinutes", 60L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        authenticate("alice", "ROLE_USER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldDeliverStoredOutcomeToOwner() throws Exception {
+        BookingOutcome outcome = new BookingOutcome("key-1", BookingOutcomeStatus.BOOKED, UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID(), 2);
+        when(valueOperations.get("booking::outcome::owner::key-1")).thenReturn("alice");
+        when(valueOperations.get("booking::outcome::key-1")).thenReturn(objectMapper.writeValueAsString(outcome));
+
+        DeferredResult<ResponseEntity<BookingResponse<BookingOutcome>>> result = outcomeService
+                .awaitOutcome("key-1", Duration.ofSeconds(30));
+
+        @SuppressWarnings("unchecked")
+        ResponseEntity<BookingResponse<BookingOutcome>> response = (ResponseEntity<BookingResponse<BookingOutcome>>) result
+                .getResult();
+        assertEquals(outcome, response.getBody().getData());
+    }
+
+    @Test
+    void shouldNotRevealOutcomeOfAnotherUsersBooking() {
+        when(valueOperations.get("booking::outcome::owner::key-1")).thenReturn("bob");
+
+        assertThrows(ServiceException.class, () -> outcomeService.awaitOutcome("key-1", Duration.ofSeconds(30)));
+        assertThrows(ServiceException.class, () -> outcomeService.streamOutcome("key-1", Duration.ofMinutes(5)));
+
+        verify(valueOperations, never()).get("booking::outcome::key-1");
+    }
+
+    @Test
+    void shouldNotRevealOutcomeWithoutRecordedOwner() {
+        assertThrows(ServiceException.class, () -> outcomeService.checkOwnership("key-1"));
+    }
+
+    @Test
+    void shouldAnswerServiceErrorWhenOwnerCannotBeRead() {
+        when(valueOperations.get("booking::outcome::owner::key-1"))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        ServiceException e = assertThrows(ServiceException.class,
+                () -> outcomeService.awaitOutcome("key-1", Duration.ofSeconds(30)));
+        assertEquals(ErrorList.FAILED_CONNECT_TO_BACKEND.getDescription(), e.getMessage());
+    }
+
+    @Test
+    void shouldLetAdminReadAnyOutcome() {
+        authenticate("admin", "ROLE_ADMIN");
+        when(valueOperations.get("booking::outcome::owner::key-1")).thenReturn("bob");
+
+        assertDoesNotThrow(() -> outcomeService.checkOwnership("key-1"));
+    }
+
+    @Test
+    void shouldClaimFreeKeyAndLetOwnerRetry() {
+        when(valueOperations.setIfAbsent(eq("booking::outcome::owner::key-1"), eq("alice"), any(Duration.class)))
+                .thenReturn(true);
+        assertDoesNotThrow(() -> outcomeService.claimOwnership("key-1"));
+
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("booking::outcome::owner::key-1")).thenReturn("alice");
+        assertDoesNotThrow(() -> outcomeService.claimOwnership("key-1"));
+    }
+
+    @Test
+    void shouldRejectKeyClaimedByAnotherUser() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("booking::outcome::owner::key-1")).thenReturn("bob");
+
+        assertThrows(ServiceException.class, () -> outcomeService.claimOwnership("key-1"));
+    }
+
+    @Test
+    void shouldAcceptBookingWhenOwnerCannotBeRecorded() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> outcomeService.claimOwnership("key-1"));
+    }
+
+    @Test
+    void shouldKeepOwnerAsLongAsPublishedOutcome() {
+        outcomeService.publish(List.of(new BookingOutcome("key-1", BookingOutcomeStatus.BOOKED, UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID(), 2)));
+
+        verify(redisTemplate).expire("booking::outcome::owner::key-1", Duration.ofMinutes(10));
+    }
+
+    private void authenticate(String username, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null,
+                List.of(new SimpleGrantedAuthority(role))));
+    }
+}
@@ -9,11 +9,15 @@ import com.concert.ticketing.model.TicketCategoryModel;
 import com.concert.ticketing.repositories.BookingRepository;
 import com.concert.ticketing.repositories.LedgerRepository;
 import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.concert.ticketing.dto.booking.BookingMessage;
+import com.concert.ticketing.dto.booking.BookingRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 
@@ -23,6 +27,9 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +44,15 @@ class BookingServiceTest {
         @Mock
         private LedgerRepository ledgerRepository;
 
+        @Mock
+        private InventoryService inventoryService;
+
+        @Mock
+        private BookingExpiryQueue expiryQueue;
+
+        @Mock
+        private ApplicationEventPublisher eventPublisher;
+
         @InjectMocks
         private BookingService bookingService;
 
@@ -113,4 +129,36 @@ class BookingServiceTest {
                 verify(categoryRepository).increaseStock(booking.getCategoryId(), booking.getQuantity());
                 verify(ledgerRepository).save(any());
         }
+
+        @Test
+        void shouldProcessBatchWithOneReservationPerCategory() {
+                UUID categoryId = UUID.randomUUID();
+                EventsModel concert = new EventsModel();
+                concert.setId(UUID.randomUUID());
+                TicketCategoryModel cat = new TicketCategoryModel();
+                cat.setId(categoryId);
+                cat.setPrice(new BigDecimal("100000"));
+                cat.setEvent(concert);
+
+                BookingMessage first = new BookingMessage(
+                                new BookingRequest(UUID.randomUUID(), concert.getId(), categoryId, 3), "key-1");
+                BookingMessage duplicate = new BookingMessage(
+                                new BookingRequest(UUID.randomUUID(), concert.getId(), categoryId, 1), "key-2");
+                BookingMessage soldOut = new BookingMessage(
+                                new BookingRequest(UUID.randomUUID(), concert.getId(), categoryId, 4), "key-3");
+                BookingMessage fits = new BookingMessage(
+                                new BookingRequest(UUID.randomUUID(), concert.getId(), categoryId, 1), "key-4");
+
+                when(bookingRepository.findExistingIdempotencyKeys(anyCollection())).thenReturn(List.of("key-2"));
+                when(categoryRepository.findAllById(any())).thenReturn(List.of(cat));
+                when(inventoryService.reserveBatch(eq(categoryId), eq(List.of(3, 4, 1)), eq("key-1")))
+                                .thenReturn(new boolean[] { true, false, true });
+                when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+                bookingService.processInternalBookingBatch(List.of(first, duplicate, soldOut, fits, first));
+
+                verify(inventoryService, times(1)).reserveBatch(any(), anyList(), anyString());
+                verify(bookingRepository).saveAll(argThat(bookings -> ((List<?>) bookings).size() == 2));
+                verify(ledgerRepository).saveAll(argThat(ledgers -> ((List<?>) ledgers).size() == 2));
+        }
 }
@@ -0,0 +1,105 @@
+package com.concert.ticketing.services.booking;
+
+import com.concert.ticketing.dto.booking.ExpiredCategoryStock;
+import com.concert.ticketing.repositories.BookingRepository;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.analytics.BookingActivityEvent;
+import com.concert.ticketing.services.inventory.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredReservationSweeperTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TicketCategoryRepository categoryRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ExpiredReservationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new ExpiredReservationSweeper(bookingRepository, categoryRepository, inventoryService,
+                transactionTemplate, new SimpleMeterRegistry(), eventPublisher);
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxChunks", 10);
+        sweeper.registerMetrics();
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+    }
+
+    @Test
+    void shouldGiveBackStockOncePerCategoryAndStopOnShortChunk() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(bookingRepository.cancelExpiredBookings(2))
+                .thenReturn(List.of(stock(first, 5, 2)))
+                .thenReturn(List.of(stock(second, 1, 1)));
+
+        sweeper.sweep();
+
+        verify(bookingRepository, times(2)).cancelExpiredBookings(2);
+        verify(categoryRepository).increaseStock(first, 5);
+        verify(categoryRepository).increaseStock(second, 1);
+        verify(inventoryService).release(first, 5);
+        verify(inventoryService).release(second, 1);
+    }
+
+    @Test
+    void shouldReportCancelledBookingsOfChunk() {
+        UUID category = UUID.randomUUID();
+        when(bookingRepository.cancelExpiredBookings(2)).thenReturn(List.of(stock(category, 4, 2)));
+
+        assertEquals(2, sweeper.sweepChunk());
+        verify(eventPublisher).publishEvent(
+                new BookingActivityEvent(BookingActivityEvent.Type.EXPIRED, null, category, 2, 4));
+    }
+
+    private static ExpiredCategoryStock stock(UUID categoryId, int quantity, int bookings) {
+        return new ExpiredCategoryStock() {
+            @Override
+            public UUID getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Integer getBookings() {
+                return bookings;
+            }
+        };
+    }
+}
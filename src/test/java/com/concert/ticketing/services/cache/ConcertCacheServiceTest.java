@@ -0,0 +1,186 @@
+package com.concert.ticketing.services.cache;
+
+import com.concert.ticketing.dto.concert.ConcertResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ConcertCacheServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate lockTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private ValueOperations<String, String> lockOperations;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    private ConcertCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new ConcertCacheService(redisTemplate, lockTemplate, listenerContainer,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cacheService, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(cacheService, "localTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cacheService, "listingTtlMinutes", 5L);
+        ReflectionTestUtils.setField(cacheService, "detailTtlMinutes", 10L);
+        ReflectionTestUtils.setField(cacheService, "staleGraceSeconds", 60L);
+        ReflectionTestUtils.setField(cacheService, "loadLockMillis", 5000L);
+        cacheService.init();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(lockTemplate.opsForValue()).thenReturn(lockOperations);
+        when(lockOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void shouldServeRepeatedDetailReadsFromLocalCache() {
+        UUID concertId = UUID.randomUUID();
+        ConcertResponse response = new ConcertResponse();
+        AtomicInteger loads = new AtomicInteger();
+
+        ConcertResponse first = cacheService.getDetail(concertId, () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+        ConcertResponse second = cacheService.getDetail(concertId, () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+
+        assertSame(response, first);
+        assertSame(response, second);
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).get("concert_detail::" + concertId);
+        verify(valueOperations).set(eq("concert_detail::" + concertId), any(CachedConcertResponse.class),
+                eq(Duration.ofMinutes(10).plusSeconds(60)));
+    }
+
+    @Test
+    void shouldDropListingsAndDetailOnInvalidation() {
+        UUID concertId = UUID.randomUUID();
+        String listingKey = ConcertCacheService.listingKey(null, "Rock", null, null, null, null, null, 20);
+        when(setOperations.members(ConcertCacheService.LISTING_INDEX_KEY)).thenReturn(Set.of(listingKey));
+
+        cacheService.getListing(listingKey, ConcertResponse::new);
+        cacheService.invalidateConcert(concertId);
+        cacheService.getListing(listingKey, ConcertResponse::new);
+
+        verify(valueOperations, times(2)).get(listingKey);
+        verify(redisTemplate).convertAndSend(ConcertCacheService.INVALIDATION_CHANNEL, concertId.toString());
+        verify(redisTemplate).delete(List.of("concert_detail::" + concertId, listingKey,
+                ConcertCacheService.LISTING_INDEX_KEY));
+    }
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        UUID concertId = UUID.randomUUID();
+        ConcertResponse response = new ConcertResponse();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<ConcertResponse> leader = pool.submit(() -> cacheService.getDetail(concertId, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return response;
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+
+            List<Future<ConcertResponse>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(pool.submit(() -> cacheService.getDetail(concertId, () -> {
+                    loads.incrementAndGet();
+                    return response;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(response, leader.get(5, TimeUnit.SECONDS));
+            for (Future<ConcertResponse> follower : followers) {
+                assertSame(response, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldServeStaleValueWhileAnotherNodeReloads() {
+        UUID concertId = UUID.randomUUID();
+        String key = "concert_detail::" + concertId;
+        ConcertResponse stale = new ConcertResponse();
+        when(valueOperations.get(key)).thenReturn(
+                new CachedConcertResponse(stale, System.currentTimeMillis() - 1000, 10));
+        when(lockOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        ConcertResponse result = cacheService.getDetail(concertId, () -> {
+            loads.incrementAndGet();
+            return new ConcertResponse();
+        });
+
+        assertSame(stale, result);
+        assertEquals(0, loads.get());
+        verify(valueOperations, never()).set(eq(key), any(), any(Duration.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.concert.ticketing.services.inventory;
+
+import com.concert.ticketing.dto.pricing.CategoryLedgerStock;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryReconcilerTest {
+
+    @Mock
+    private TicketCategoryRepository categoryRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryReconciler reconciler;
+    private final UUID categoryId = UUID.randomUUID();
+    private final UUID eventId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new InventoryReconciler(categoryRepository, inventoryService, redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(reconciler, "batchSize", 500);
+        ReflectionTestUtils.setField(reconciler, "autoCorrect", true);
+        ReflectionTestUtils.setField(reconciler, "maxCorrection", 10);
+
+        when(inventoryService.isRedisEngine()).thenReturn(true);
+        when(inventoryService.shardKeys(categoryId)).thenReturn(List.of("stock::" + categoryId));
+        when(inventoryService.snapshotKey(categoryId)).thenReturn("stock::event::" + UUID.randomUUID());
+        when(categoryRepository.correctStock(any(), anyInt(), anyInt())).thenReturn(1);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(90L);
+    }
+
+    @Test
+    void shouldNotCorrectWhenStoresMatchLedger() {
+        // 100 allocated, 10 booked, 5 still pending write-behind
+        ledger(100, 95, 10);
+        redis("90", "5");
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(categoryRepository, never()).correctStock(any(), anyInt(), anyInt());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldCorrectRedisDriftOnlyWhenSeenTwice() {
+        ledger(100, 90, 10);
+        redis("93", null);
+
+        reconciler.reconcile();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+
+        reconciler.reconcile();
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), eq("93"), eq("-3"),
+                eq(categoryId.toString()));
+        assertEquals(1.0, meterRegistry.counter("inventory.reconcile.corrections",
+                "store", "redis", "outcome", "corrected").count());
+    }
+
+    @Test
+    void shouldCorrectDatabaseDriftWithCompareAndSet() {
+        ledger(100, 88, 10);
+        redis("90", null);
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(categoryRepository, times(1)).correctStock(categoryId, 88, 90);
+    }
+
+    @Test
+    void shouldNotCorrectTransientDrift() {
+        ledger(100, 90, 10);
+        redis("91", null);
+        reconciler.reconcile();
+
+        // An in-flight booking changes the drift before the next pass
+        redis("92", null);
+        reconciler.reconcile();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotCorrectSteadyDriftWhileStockKeepsMoving() {
+        // Same drift both passes, but a reservation and a release moved the snapshot in between
+        ledger(100, 90, 10);
+        redis("93", null, "7");
+        reconciler.reconcile();
+
+        redis("93", null, "9");
+        reconciler.reconcile();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotCorrectSteadyDriftWhileLedgerKeepsMoving() {
+        // Bookings land in both stores and the ledger at the same pace, holding the drift at -2
+        ledger(100, 88, 10);
+        redis("88", null, "7");
+        reconciler.reconcile();
+
+        ledger(100, 85, 13);
+        redis("85", null, "8");
+        reconciler.reconcile();
+
+        verify(categoryRepository, never()).correctStock(any(), anyInt(), anyInt());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldOnlyReportDriftBeyondBound() {
+        ledger(100, 90, 10);
+        redis("150", null);
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("inventory.reconcile.corrections",
+                "store", "redis", "outcome", "skipped").count());
+    }
+
+    @Test
+    void shouldCheckDatabaseOnlyWhenRedisUnavailable() {
+        ledger(100, 88, 10);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(categoryRepository, times(1)).correctStock(categoryId, 88, 90);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldSkipUnseededCategoriesInRedis() {
+        ledger(100, 90, 10);
+        redis(null, null);
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+        verify(categoryRepository, never()).correctStock(any(), anyInt(), anyInt());
+    }
+
+    private void ledger(int total, int available, int booked) {
+        CategoryLedgerStock row = new CategoryLedgerStock() {
+            public UUID getId() {
+                return categoryId;
+            }
+
+            public UUID getEventId() {
+                return eventId;
+            }
+
+            public Integer getTotalAllocation() {
+                return total;
+            }
+
+            public Integer getAvailableStock() {
+                return available;
+            }
+
+            public Integer getBookedQuantity() {
+                return booked;
+            }
+        };
+        when(categoryRepository.findLedgerStockAfter(any(), eq(500))).thenReturn(List.of(row));
+    }
+
+    private void redis(String stock, String pending) {
+        redis(stock, pending, stock != null ? "7" : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redis(String stock, String pending, String version) {
+        List<Object> results = new ArrayList<>();
+        results.add(Arrays.asList(stock));
+        results.add(Arrays.asList((Object) pending));
+        results.add(Arrays.asList((Object) null));
+        results.add(version);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(results);
+    }
+}
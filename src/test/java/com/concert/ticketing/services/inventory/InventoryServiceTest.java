@@ -0,0 +1,281 @@
+package com.concert.ticketing.services.inventory;
+
+import com.concert.ticketing.dto.pricing.AvailabilityItem;
+import com.concert.ticketing.dto.pricing.CategoryStock;
+import com.concert.ticketing.model.EventsModel;
+import com.concert.ticketing.model.TicketCategoryModel;
+import com.concert.ticketing.repositories.TicketCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryServiceTest {
+
+    private static final int CATEGORIES = 40;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private TicketCategoryRepository categoryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventCategoryCatalog categoryCatalog;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private InventoryService inventoryService;
+    private final UUID eventId = UUID.randomUUID();
+    private final List<EventCategoryCatalog.CategoryInfo> categories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(redisTemplate, categoryRepository, eventPublisher, categoryCatalog);
+        ReflectionTestUtils.setField(inventoryService, "engine", "redis");
+        ReflectionTestUtils.setField(inventoryService, "shards", 1);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new EventCategoryCatalog.CategoryInfo(UUID.randomUUID(), eventId, "Category " + i,
+                    new BigDecimal("100000"), 100, "Concert", "Artist"));
+        }
+        when(categoryCatalog.categories(eventId)).thenReturn(categories);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendOnlyUngrantedRequestsToDatabaseWhenRedisFailsMidBatch() {
+        ReflectionTestUtils.setField(inventoryService, "shards", 2);
+        UUID categoryId = UUID.randomUUID();
+        ((Map<UUID, UUID>) ReflectionTestUtils.getField(inventoryService, "eventOfCategory")).put(categoryId, eventId);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(8L, 1L, 0L))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(valueOperations.multiGet(anyList())).thenReturn(List.of("8", "8"));
+        when(categoryRepository.decreaseStock(categoryId, 3)).thenReturn(1);
+
+        boolean[] granted = inventoryService.reserveBatch(categoryId, List.of(2, 3), "key-1");
+
+        assertEquals(true, granted[0]);
+        assertEquals(true, granted[1]);
+        verify(categoryRepository).decreaseStock(categoryId, 3);
+        verify(categoryRepository, never()).decreaseStock(categoryId, 2);
+        verify(categoryRepository, never()).findAvailableStockForUpdate(categoryId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPickShardByBookingKey() {
+        ReflectionTestUtils.setField(inventoryService, "shards", 4);
+        UUID categoryId = UUID.randomUUID();
+        ((Map<UUID, UUID>) ReflectionTestUtils.getField(inventoryService, "eventOfCategory")).put(categoryId, eventId);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(5L, 1L));
+
+        inventoryService.reserve(categoryId, 1, "key-1");
+        inventoryService.reserve(categoryId, 1, "key-1");
+
+        String shard = inventoryService.shardKeys(categoryId).get(Math.floorMod("key-1".hashCode(), 4));
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+                eq(List.of(shard, InventoryService.REDIS_PENDING_KEY, InventoryService.REDIS_SNAPSHOT_PREFIX + eventId)),
+                any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldAnswerSoldOutFromSummedStockWithoutTouchingOtherShards() {
+        ReflectionTestUtils.setField(inventoryService, "shards", 4);
+        UUID categoryId = UUID.randomUUID();
+        ((Map<UUID, UUID>) ReflectionTestUtils.getField(inventoryService, "eventOfCategory")).put(categoryId, eventId);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 0L));
+        when(valueOperations.multiGet(anyList())).thenReturn(List.of("0", "1", "0", "0"));
+
+        boolean granted = inventoryService.reserve(categoryId, 2, "key-1");
+
+        assertEquals(false, granted);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(valueOperations, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMergeStrandedStockOnlyBelowMergeThreshold() {
+        ReflectionTestUtils.setField(inventoryService, "shards", 2);
+        ReflectionTestUtils.setField(inventoryService, "mergeBelow", 100);
+        UUID categoryId = UUID.randomUUID();
+        ((Map<UUID, UUID>) ReflectionTestUtils.getField(inventoryService, "eventOfCategory")).put(categoryId, eventId);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L), 2L, List.of(0L, 1L));
+        when(valueOperations.multiGet(anyList())).thenReturn(List.of("1", "1"));
+
+        assertEquals(true, inventoryService.reserve(categoryId, 2, "key-1"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(inventoryService.shardKeys(categoryId)), eq("100"));
+
+        // Same stranding with more stock left is left to the scheduled rebalancer
+        ReflectionTestUtils.setField(inventoryService, "mergeBelow", 2);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L));
+
+        assertEquals(false, inventoryService.reserve(categoryId, 2, "key-1"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(inventoryService.shardKeys(categoryId)),
+                eq("2"));
+    }
+
+    @Test
+    void shouldKeepDeltaInFlightUntilDatabaseUpdateCommits() {
+        UUID categoryId = UUID.randomUUID();
+        List<String> keys = List.of(InventoryService.REDIS_PENDING_KEY, InventoryService.REDIS_IN_FLIGHT_KEY);
+        when(hashOperations.keys(InventoryService.REDIS_PENDING_KEY)).thenReturn(Set.of(categoryId.toString()));
+        when(hashOperations.keys(InventoryService.REDIS_IN_FLIGHT_KEY)).thenReturn(Set.of());
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys), any(Object[].class)))
+                .thenReturn(List.of(3L, 0L), 1L);
+        when(categoryRepository.decreaseStock(categoryId, 3)).thenReturn(1);
+
+        inventoryService.flushPendingReservations();
+
+        InOrder order = inOrder(redisTemplate, categoryRepository);
+        order.verify(categoryRepository).decreaseStock(categoryId, 3);
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(categoryId.toString()),
+                anyString(), eq("0"));
+    }
+
+    @Test
+    void shouldRequeueDeltaTheDatabaseRejects() {
+        UUID categoryId = UUID.randomUUID();
+        List<String> keys = List.of(InventoryService.REDIS_PENDING_KEY, InventoryService.REDIS_IN_FLIGHT_KEY);
+        when(hashOperations.keys(InventoryService.REDIS_PENDING_KEY)).thenReturn(Set.of());
+        // Only found through the in-flight hash, e.g. after a node died mid-flush
+        when(hashOperations.keys(InventoryService.REDIS_IN_FLIGHT_KEY))
+                .thenReturn(Set.of(categoryId.toString(), categoryId + ":at"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys), any(Object[].class)))
+                .thenReturn(List.of(3L, 2L), 1L);
+        when(categoryRepository.decreaseStock(categoryId, 3)).thenReturn(0);
+
+        inventoryService.flushPendingReservations();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(categoryId.toString()), anyString(),
+                eq("3"));
+    }
+
+    @Test
+    void shouldServeAvailabilityFromOneSnapshotRead() {
+        Map<Object, Object> snapshot = new HashMap<>();
+        for (EventCategoryCatalog.CategoryInfo category : categories) {
+            snapshot.put(category.id() + ":stock", "7");
+            snapshot.put(category.id() + ":total", "100");
+            snapshot.put(category.id() + ":tier", "4");
+        }
+        when(hashOperations.entries(InventoryService.REDIS_SNAPSHOT_PREFIX + eventId)).thenReturn(snapshot);
+
+        List<AvailabilityItem> availability = inventoryService.getAvailability(eventId);
+
+        assertEquals(CATEGORIES, availability.size());
+        assertEquals(7, availability.get(0).getAvailableStock());
+        verify(hashOperations, times(1)).entries(anyString());
+        verify(valueOperations, never()).get(anyString());
+        verify(categoryRepository, never()).findAvailableStockByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldFallBackToOneBatchedQueryWhenRedisFails() {
+        when(hashOperations.entries(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        when(categoryRepository.findAvailableStockByIdIn(anyList())).thenReturn(categories.stream()
+                .map(category -> stock(category.id(), 3))
+                .toList());
+
+        List<AvailabilityItem> availability = inventoryService.getAvailability(eventId);
+
+        assertEquals(3, availability.get(CATEGORIES - 1).getAvailableStock());
+        verify(categoryRepository, times(1)).findAvailableStockByIdIn(anyList());
+    }
+
+    @Test
+    void shouldSeedCategoriesMissingFromSnapshot() {
+        Map<Object, Object> snapshot = new HashMap<>();
+        for (EventCategoryCatalog.CategoryInfo category : categories.subList(1, CATEGORIES)) {
+            snapshot.put(category.id() + ":stock", "5");
+        }
+        when(hashOperations.entries(anyString())).thenReturn(snapshot);
+        UUID unseeded = categories.get(0).id();
+        when(categoryRepository.findAvailableStockByIdIn(List.of(unseeded))).thenReturn(List.of(stock(unseeded, 9)));
+        when(categoryRepository.findWithEventById(unseeded)).thenReturn(Optional.of(categoryModel(unseeded)));
+
+        List<AvailabilityItem> availability = inventoryService.getAvailability(eventId);
+
+        assertEquals(9, availability.get(0).getAvailableStock());
+        assertEquals(5, availability.get(1).getAvailableStock());
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    private TicketCategoryModel categoryModel(UUID id) {
+        EventsModel event = new EventsModel();
+        event.setId(eventId);
+        event.setEventDate(ZonedDateTime.now().plusDays(30));
+        TicketCategoryModel category = new TicketCategoryModel();
+        category.setId(id);
+        category.setEvent(event);
+        category.setPrice(new BigDecimal("100000"));
+        category.setTotalAllocation(100);
+        category.setAvailableStock(9);
+        return category;
+    }
+
+    private static CategoryStock stock(UUID id, int available) {
+        return new CategoryStock() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getAvailableStock() {
+                return available;
+            }
+        };
+    }
+}
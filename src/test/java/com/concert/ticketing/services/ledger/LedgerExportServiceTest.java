@@ -0,0 +1,141 @@
+package com.concert.ticketing.services.ledger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LedgerExportServiceTest {
+
+    private static final int ROWS = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private LedgerExportService exportService;
+    private final UUID concertId = UUID.randomUUID();
+    private final LocalDateTime start = LocalDateTime.of(2026, 5, 1, 10, 0, 0, 123_456_000);
+    private int rowCount = ROWS;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exportService = new LedgerExportService(jdbcTemplate, transactionManager, objectMapper);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 1000);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        ResultSet resultSet = mock(ResultSet.class);
+        int[] row = { 0 };
+        when(resultSet.getTimestamp("recorded_at"))
+                .thenAnswer(invocation -> Timestamp.valueOf(start.plusSeconds(row[0])));
+        when(resultSet.getObject("id", UUID.class)).thenAnswer(invocation -> new UUID(0, row[0]));
+        when(resultSet.getObject("booking_id", UUID.class)).thenReturn(UUID.randomUUID());
+        when(resultSet.getObject("concert_id", UUID.class)).thenReturn(concertId);
+        when(resultSet.getString("type")).thenReturn("DEBIT");
+        when(resultSet.getBigDecimal("amount")).thenReturn(new BigDecimal("500000.00"));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (row[0] = 0; row[0] < rowCount; row[0]++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLineWithResumeCursor() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(filter(null), LedgerExportService.Format.JSONL, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS, rows);
+        assertEquals(ROWS, lines.length);
+        JsonNode last = objectMapper.readTree(lines[ROWS - 1]);
+        assertEquals("DEBIT", last.get("type").asText());
+        LedgerCursor cursor = LedgerCursor.decode(last.get("cursor").asText());
+        assertEquals(start.plusSeconds(ROWS - 1), cursor.recordedAt());
+        assertEquals(new UUID(0, ROWS - 1), cursor.id());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldWriteCsvWithHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(filter(null), LedgerExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS + 1, lines.length);
+        assertEquals("id,bookingId,concertId,type,amount,recordedAt,cursor", lines[0]);
+        assertTrue(lines[1].contains(",DEBIT,500000.00," + start + ","));
+    }
+
+    @Test
+    void shouldRollBackAndRethrowWhenClientDisconnects() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        // Enough rows to overflow the writer's buffer while the cursor is still open
+        rowCount = 1000;
+
+        assertThrows(IOException.class, () -> exportService.export(filter(null), LedgerExportService.Format.CSV,
+                broken));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void shouldRejectMalformedCursorBeforeStreaming() {
+        assertThrows(RuntimeException.class, () -> exportService.validate(filter("garbage")));
+    }
+
+    private LedgerExportService.ExportFilter filter(String cursor) {
+        return new LedgerExportService.ExportFilter(concertId, null, null, cursor, null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.concert.ticketing.services.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LedgerPartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LedgerExportService exportService;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @TempDir
+    Path archiveDir;
+
+    private LedgerPartitionService partitionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        partitionService = new LedgerPartitionService(jdbcTemplate, exportService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(partitionService, "monthsAhead", 3);
+        ReflectionTestUtils.setField(partitionService, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(partitionService, "detachLockTimeout", "5s");
+        when(connection.createStatement()).thenReturn(statement);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(
+                List.of("ledger_entries_2026_01", "ledger_entries_2026_02", "ledger_entries_2026_06"));
+    }
+
+    @Test
+    void shouldCreateCurrentAndUpcomingMonths() {
+        partitionService.createPartitions(YearMonth.of(2026, 11));
+
+        for (LocalDate month : List.of(LocalDate.of(2026, 11, 1), LocalDate.of(2026, 12, 1),
+                LocalDate.of(2027, 1, 1), LocalDate.of(2027, 2, 1))) {
+            verify(jdbcTemplate).queryForObject("SELECT create_ledger_partition(?)", String.class, month);
+        }
+        verify(jdbcTemplate, times(4)).queryForObject(anyString(), eq(String.class), any(Object[].class));
+    }
+
+    @Test
+    void shouldArchiveOnlyMonthsBeforeCutoff() throws Exception {
+        when(exportService.export(any(), eq(LedgerExportService.Format.CSV), any(OutputStream.class)))
+                .thenReturn(10L);
+        ResultSet count = mock(ResultSet.class);
+        when(count.next()).thenReturn(true);
+        when(count.getLong(1)).thenReturn(10L);
+        when(statement.executeQuery(anyString())).thenReturn(count);
+
+        partitionService.archivePartitions(connection, YearMonth.of(2026, 3));
+
+        verify(statement).execute("ALTER TABLE ledger_entries DETACH PARTITION ledger_entries_2026_01");
+        verify(statement).execute("ALTER TABLE ledger_entries DETACH PARTITION ledger_entries_2026_02");
+        verify(statement, never()).execute("ALTER TABLE ledger_entries DETACH PARTITION ledger_entries_2026_06");
+        verify(statement).execute("DROP TABLE ledger_entries_2026_01");
+        verify(exportService).export(argThat(filter -> filter.from().equals(
+                YearMonth.of(2026, 1).atDay(1).atStartOfDay(ZoneOffset.UTC))), any(), any());
+        assertTrue(Files.exists(archiveDir.resolve("ledger_entries_2026_01.csv.gz")));
+    }
+
+    @Test
+    void shouldKeepDetachedPartitionWhenCountsDiffer() throws Exception {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("ledger_entries_2026_01"));
+        when(exportService.export(any(), any(), any(OutputStream.class))).thenReturn(9L);
+        ResultSet count = mock(ResultSet.class);
+        when(count.next()).thenReturn(true);
+        when(count.getLong(1)).thenReturn(10L);
+        when(statement.executeQuery(anyString())).thenReturn(count);
+
+        partitionService.archivePartitions(connection, YearMonth.of(2026, 3));
+
+        verify(statement, never()).execute("DROP TABLE ledger_entries_2026_01");
+        assertFalse(Files.exists(archiveDir.resolve("ledger_entries_2026_01.csv.gz")));
+        assertEquals(1, Files.list(archiveDir).count());
+    }
+}
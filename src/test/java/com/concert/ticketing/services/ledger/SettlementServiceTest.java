@@ -0,0 +1,107 @@
+package com.concert.ticketing.services.ledger;
+
+import com.concert.ticketing.dto.settlement.LedgerTransaction;
+import com.concert.ticketing.dto.settlement.SettlementReport;
+import com.concert.ticketing.dto.settlement.SettlementTotals;
+import com.concert.ticketing.dto.settlement.TransactionPage;
+import com.concert.ticketing.exception.ServiceException;
+import com.concert.ticketing.repositories.LedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SettlementServiceTest {
+
+    @Mock
+    private LedgerRepository ledgerRepository;
+
+    private SettlementService settlementService;
+    private final UUID concertId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        settlementService = new SettlementService(ledgerRepository);
+    }
+
+    @Test
+    void shouldBuildReportFromRunningTotals() {
+        SettlementTotals totals = mock(SettlementTotals.class);
+        when(totals.getTotalRevenue()).thenReturn(new BigDecimal("1500000.00"));
+        when(totals.getTotalRefunds()).thenReturn(new BigDecimal("250000.00"));
+        when(totals.getDebitCount()).thenReturn(12L);
+        when(totals.getCreditCount()).thenReturn(2L);
+        when(totals.getTransactionCount()).thenReturn(14L);
+        when(ledgerRepository.findSettlementTotals(concertId)).thenReturn(totals);
+
+        SettlementReport report = settlementService.getSettlementReport(concertId);
+
+        assertEquals(new BigDecimal("1250000.00"), report.netRevenue());
+        assertEquals(14, report.transactionCount());
+        assertEquals(12, report.bookingCount());
+        assertEquals(2, report.refundCount());
+    }
+
+    @Test
+    void shouldReportZeroForConcertWithoutTransactions() {
+        SettlementReport report = settlementService.getSettlementReport(concertId);
+
+        assertEquals(BigDecimal.ZERO, report.netRevenue());
+        assertEquals(0, report.transactionCount());
+    }
+
+    @Test
+    void shouldPageTransactionsWithCursor() {
+        List<LedgerTransaction> rows = transactions(3);
+        when(ledgerRepository.findFirstTransactions(concertId, Limit.of(3))).thenReturn(rows);
+
+        TransactionPage first = settlementService.getTransactions(concertId, null, 2);
+
+        assertEquals(2, first.transactions().size());
+        LedgerTransaction last = rows.get(1);
+        when(ledgerRepository.findTransactionsAfter(eq(concertId), eq(last.recordedAt()), eq(last.id()),
+                any(Limit.class))).thenReturn(rows.subList(2, 3));
+
+        TransactionPage second = settlementService.getTransactions(concertId, first.nextCursor(), 2);
+
+        assertEquals(1, second.transactions().size());
+        assertNull(second.nextCursor());
+        verify(ledgerRepository).findTransactionsAfter(concertId, last.recordedAt(), last.id(), Limit.of(3));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(ServiceException.class, () -> settlementService.getTransactions(concertId, "not-a-cursor", 10));
+    }
+
+    private List<LedgerTransaction> transactions(int count) {
+        List<LedgerTransaction> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 5, 1, 10, 0, 0, 123_456_000);
+        for (int i = 0; i < count; i++) {
+            rows.add(new LedgerTransaction(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("500000.00"),
+                    "DEBIT", start.plusSeconds(i)));
+        }
+        return rows;
+    }
+}
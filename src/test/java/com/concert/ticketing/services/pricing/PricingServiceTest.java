@@ -1,37 +1,75 @@
 package com.concert.ticketing.services.pricing;
 
 import com.concert.ticketing.dto.pricing.PricingItem;
+import com.concert.ticketing.model.EventsModel;
 import com.concert.ticketing.model.TicketCategoryModel;
 import com.concert.ticketing.repositories.TicketCategoryRepository;
+import com.concert.ticketing.services.inventory.EventCategoryCatalog;
+import com.concert.ticketing.services.inventory.InventoryService;
+import com.concert.ticketing.services.inventory.StockChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class PricingServiceTest {
 
     @Mock
     private TicketCategoryRepository categoryRepository;
 
     @Mock
-    private RedisTemplate<String, String> redisTemplate;
+    private InventoryService inventoryService;
+
+    @Mock
+    private EventCategoryCatalog categoryCatalog;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
 
-    @InjectMocks
     private PricingService pricingService;
 
+    @BeforeEach
+    void setUp() {
+        pricingService = new PricingService(categoryRepository, inventoryService, categoryCatalog, redisTemplate, listenerContainer,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pricingService, "maxSize", 100L);
+        ReflectionTestUtils.setField(pricingService, "ttlMinutes", 60L);
+        pricingService.init();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
     @Test
     void shouldGetRealTimePricingForEvent() {
         UUID eventId = UUID.randomUUID();
@@ -42,12 +80,10 @@ class PricingServiceTest {
         cat.setAvailableStock(10);
         cat.setTotalAllocation(100);
 
-        when(categoryRepository.findByEventId(eventId)).thenReturn(List.of(cat));
-        when(categoryRepository.findById(catId)).thenReturn(java.util.Optional.of(cat));
+        List<EventCategoryCatalog.CategoryInfo> infos = List.of(EventCategoryCatalog.CategoryInfo.of(cat));
+        when(categoryCatalog.categories(eventId)).thenReturn(infos);
 
-        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn("10"); // Match available stock
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(catId, 10)); // Match available stock
 
         List<PricingItem> result = pricingService.getRealTimePricing(eventId);
 
@@ -60,4 +96,91 @@ class PricingServiceTest {
         // multiplier));
         // So 100000 * 2.8 = 280000.
     }
+
+    @Test
+    void shouldServeRepeatReadsFromMemory() {
+        UUID eventId = UUID.randomUUID();
+        TicketCategoryModel cat = category(eventId, 100, 100);
+        List<EventCategoryCatalog.CategoryInfo> infos = List.of(EventCategoryCatalog.CategoryInfo.of(cat));
+        when(categoryCatalog.categories(eventId)).thenReturn(infos);
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 100));
+
+        List<PricingItem> first = pricingService.getRealTimePricing(eventId);
+        List<PricingItem> second = pricingService.getRealTimePricing(eventId);
+
+        assertEquals(0, first.get(0).getCurrentPrice().compareTo(second.get(0).getCurrentPrice()));
+        // The build reads stock once, the repeat read only refreshes stock
+        verify(inventoryService, times(2)).getEventStock(eq(eventId), anyList());
+        verify(valueOperations, times(1)).get(anyString());
+        verify(valueOperations).set(eq(PricingService.PRICE_TABLE_PREFIX + eventId), any(PriceTable.class),
+                any(Duration.class));
+    }
+
+    @Test
+    void shouldPublishNewTableWhenStockCrossesTier() {
+        UUID eventId = UUID.randomUUID();
+        TicketCategoryModel cat = category(eventId, 100, 100);
+        List<EventCategoryCatalog.CategoryInfo> infos = List.of(EventCategoryCatalog.CategoryInfo.of(cat));
+        when(categoryCatalog.categories(eventId)).thenReturn(infos);
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 100));
+        pricingService.getRealTimePricing(eventId);
+
+        // 100 -> 50 available: occupancy 0.5 moves from tier 0 to tier 2
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 50));
+        when(categoryCatalog.eventOf(cat.getId())).thenReturn(eventId);
+        pricingService.onStockChanged(new StockChangedEvent(cat.getId()));
+        pricingService.refreshChangedTables();
+
+        List<PricingItem> result = pricingService.getRealTimePricing(eventId);
+        assertEquals(0, new BigDecimal("230000").compareTo(result.get(0).getCurrentPrice()));
+        verify(redisTemplate).convertAndSend(PricingService.INVALIDATION_CHANNEL, eventId.toString());
+    }
+
+    @Test
+    void shouldKeepTableWhenStockStaysWithinTier() {
+        UUID eventId = UUID.randomUUID();
+        TicketCategoryModel cat = category(eventId, 100, 50);
+        List<EventCategoryCatalog.CategoryInfo> infos = List.of(EventCategoryCatalog.CategoryInfo.of(cat));
+        when(categoryCatalog.categories(eventId)).thenReturn(infos);
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 50));
+        List<PricingItem> before = pricingService.getRealTimePricing(eventId);
+
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 45));
+        when(categoryCatalog.eventOf(cat.getId())).thenReturn(eventId);
+        pricingService.onStockChanged(new StockChangedEvent(cat.getId()));
+        pricingService.refreshChangedTables();
+
+        List<PricingItem> after = pricingService.getRealTimePricing(eventId);
+        assertEquals(0, before.get(0).getCurrentPrice().compareTo(after.get(0).getCurrentPrice()));
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void shouldServeCurrentStockWithCachedPrices() {
+        UUID eventId = UUID.randomUUID();
+        TicketCategoryModel cat = category(eventId, 100, 50);
+        List<EventCategoryCatalog.CategoryInfo> infos = List.of(EventCategoryCatalog.CategoryInfo.of(cat));
+        when(categoryCatalog.categories(eventId)).thenReturn(infos);
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 50));
+        pricingService.getRealTimePricing(eventId);
+
+        // Sold 5 within the tier: the table is kept but the response shows the new count
+        when(inventoryService.getEventStock(eventId, infos)).thenReturn(Map.of(cat.getId(), 45));
+        List<PricingItem> result = pricingService.getRealTimePricing(eventId);
+
+        assertEquals(45, result.get(0).getAvailableStock());
+        verify(valueOperations, times(1)).set(anyString(), any(PriceTable.class), any(Duration.class));
+    }
+
+    private static TicketCategoryModel category(UUID eventId, int total, int available) {
+        EventsModel event = new EventsModel();
+        event.setId(eventId);
+        TicketCategoryModel cat = new TicketCategoryModel();
+        cat.setId(UUID.randomUUID());
+        cat.setEvent(event);
+        cat.setPrice(new BigDecimal("100000"));
+        cat.setAvailableStock(available);
+        cat.setTotalAllocation(total);
+        return cat;
+    }
 }
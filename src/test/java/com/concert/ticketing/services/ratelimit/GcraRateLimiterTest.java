@@ -0,0 +1,98 @@
+package com.concert.ticketing.services.ratelimit;
+
+import com.concert.ticketing.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GcraRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private GcraRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        rateLimiter = new GcraRateLimiter(redisTemplate, properties);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    void shouldAllowBurstThenSteadyRate() {
+        long now = 0;
+        // 60 per minute with a burst of 3: three at once, then one per second
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", 60, 3, now));
+        }
+        long retryAfter = rateLimiter.tryAcquire("client", 60, 3, now);
+        assertEquals(SECOND, retryAfter);
+
+        assertEquals(0, rateLimiter.tryAcquire("client", 60, 3, now + SECOND));
+        assertTrue(rateLimiter.tryAcquire("client", 60, 3, now + SECOND) > 0);
+    }
+
+    @Test
+    void shouldRefillAfterIdle() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client", 60, 3, 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", 60, 3, 60 * SECOND));
+        }
+    }
+
+    @Test
+    void shouldKeepKeysIndependent() {
+        assertEquals(0, rateLimiter.tryAcquire("a", 60, 1, 0));
+        assertTrue(rateLimiter.tryAcquire("a", 60, 1, 0) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("b", 60, 1, 0));
+    }
+
+    @Test
+    void shouldSplitBudgetAcrossNodes() {
+        when(zSetOperations.zCard(GcraRateLimiter.NODES_KEY)).thenReturn(2L);
+        rateLimiter.syncNodes();
+        assertEquals(2, rateLimiter.nodes());
+
+        // Each of two nodes enforces half of 60 per minute
+        assertEquals(0, rateLimiter.tryAcquire("client", 60, 1, 0));
+        assertEquals(2 * SECOND, rateLimiter.tryAcquire("client", 60, 1, 0));
+    }
+
+    @Test
+    void shouldKeepNodeCountWhenRedisUnavailable() {
+        when(zSetOperations.zCard(GcraRateLimiter.NODES_KEY)).thenReturn(3L);
+        rateLimiter.syncNodes();
+        when(zSetOperations.add(eq(GcraRateLimiter.NODES_KEY), anyString(), anyDouble()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        rateLimiter.syncNodes();
+
+        assertEquals(3, rateLimiter.nodes());
+    }
+}
@@ -0,0 +1,57 @@
+package com.concert.ticketing.simulation;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import static io.gatling.javaapi.core.CoreDsl.constantUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.rampUsers;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Gatling load test simulation for concert search.
+ * Simulates concurrent users searching for concerts.
+ */
+public class ConcertSearchSimulation extends Simulation {
+
+    // Overridable with -D, e.g. to compare platform and virtual thread runs at a higher rate
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final int RAMP_USERS = Integer.getInteger("rampUsers", 20);
+    private static final int USERS_PER_SEC = Integer.getInteger("usersPerSec", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("durationSeconds", 60);
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json");
+
+    // Scenario: Search concerts
+    private final ScenarioBuilder searchConcerts = scenario("Search Concerts")
+            .exec(http("Get All Concerts")
+                    .get("/api/v1/concerts")
+                    .check(status().is(200)))
+            .pause(1)
+            .exec(http("Search by Artist")
+                    .get("/api/v1/concerts")
+                    .queryParam("artist", "Rock")
+                    .check(status().is(200)))
+            .pause(1)
+            .exec(http("Search by Venue")
+                    .get("/api/v1/concerts")
+                    .queryParam("venue", "Jakarta")
+                    .check(status().is(200)));
+
+    // Load test configuration
+    {
+        setUp(
+                searchConcerts.injectOpen(
+                        rampUsers(RAMP_USERS).during(15), // Ramp up over 15 seconds
+                        constantUsersPerSec(USERS_PER_SEC).during(DURATION_SECONDS))) // Then hold a constant arrival rate
+                .protocols(httpProtocol)
+                .assertions(
+                        global().responseTime().max().lt(3000), // Max response time < 3 seconds
+                        global().successfulRequests().percent().gt(99.0)); // 99% success rate
+    }
+}
@@ -0,0 +1,109 @@
+package com.concert.ticketing.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtKeyRingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldVerifyTokensOfAnyNodeSharingTheKeyFile() throws IOException {
+        Path file = writeKeys("""
+                [ { "kid": "k1", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" } ]
+                """.formatted(secret('a')));
+
+        JwtUtils issuer = new JwtUtils(new JwtKeyRing(objectMapper, file.toString()));
+        JwtUtils verifier = new JwtUtils(new JwtKeyRing(objectMapper, file.toString()));
+
+        String token = issuer.generateToken("alice", "USER").getToken();
+        JwtUtils.VerifiedToken verified = verifier.verify(token);
+
+        assertNotNull(verified);
+        assertEquals("alice", verified.username());
+        assertEquals("USER", verified.role());
+    }
+
+    @Test
+    void shouldSignWithNewKeyOnceItIsInEffectAndStillVerifyOldTokens() throws IOException {
+        Path file = writeKeys("""
+                [ { "kid": "k1", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" } ]
+                """.formatted(secret('a')));
+        JwtKeyRing keyRing = new JwtKeyRing(objectMapper, file.toString());
+        JwtUtils jwtUtils = new JwtUtils(keyRing);
+        String oldToken = jwtUtils.generateToken("alice", "USER").getToken();
+
+        writeKeys("""
+                [ { "kid": "k1", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" },
+                  { "kid": "k2", "secret": "%s", "notBefore": "2021-01-01T00:00:00Z" },
+                  { "kid": "k3", "secret": "%s", "notBefore": "%s" } ]
+                """.formatted(secret('a'), secret('b'), secret('c'), Instant.now().plusSeconds(3600)));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(1)));
+        keyRing.reload();
+
+        assertEquals("k2", keyRing.signingKey().kid());
+        assertNotNull(jwtUtils.verify(oldToken));
+        assertNotNull(jwtUtils.verify(jwtUtils.generateToken("bob", "ADMIN").getToken()));
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithRetiredKey() throws IOException {
+        Path file = writeKeys("""
+                [ { "kid": "k1", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" } ]
+                """.formatted(secret('a')));
+        String token = new JwtUtils(new JwtKeyRing(objectMapper, file.toString()))
+                .generateToken("alice", "USER").getToken();
+
+        Path rotated = dir.resolve("rotated.json");
+        Files.writeString(rotated, """
+                [ { "kid": "k2", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" } ]
+                """.formatted(secret('b')));
+
+        assertNull(new JwtUtils(new JwtKeyRing(objectMapper, rotated.toString())).verify(token));
+    }
+
+    @Test
+    void shouldKeepLoadedKeysWhenFileBecomesInvalid() throws IOException {
+        Path file = writeKeys("""
+                [ { "kid": "k1", "secret": "%s", "notBefore": "2020-01-01T00:00:00Z" } ]
+                """.formatted(secret('a')));
+        JwtKeyRing keyRing = new JwtKeyRing(objectMapper, file.toString());
+
+        writeKeys("not json");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(1)));
+        keyRing.reload();
+
+        assertEquals("k1", keyRing.signingKey().kid());
+    }
+
+    @Test
+    void shouldFailStartupWithoutUsableKeys() throws IOException {
+        Path file = writeKeys("[]");
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(objectMapper, file.toString()));
+    }
+
+    private Path writeKeys(String json) throws IOException {
+        return Files.writeString(dir.resolve("jwt-keys.json"), json);
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+    }
+}